@@ -0,0 +1,647 @@
+package com.hundred.monitor.commonlibrary.codec;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运行时数据二进制编解码器
+ * <p>
+ * 格式（v1）：
+ * <pre>
+ * byte    版本号
+ * varint  字符串字典大小，随后每项为 varint长度 + UTF-8字节（Agent ID、挂载点、进程名）
+ * varint  数据条数
+ * 每条数据：
+ *   byte    标志位（bit0 Agent ID，bit1 时间戳，bit2 指标）
+ *   varint  Agent ID字典下标
+ *   zigzag  与上一条的时间戳差值（毫秒，第一条相对0）
+ *   varint  指标字段存在位图，随后按位图顺序写入字段
+ * </pre>
+ * 百分比与速率按两位小数定点编码为zigzag varint，与服务端DECIMAL(x,2)精度一致，编码是有损的；
+ * 时间戳编码为毫秒，只支持ISO-8601格式的UTC时间（Instant.toString()），其他格式无法编码。
+ * 字典只在单个请求内有效，同一Agent的批量数据共享挂载点与进程名，解码不依赖历史请求。
+ */
+public final class MetricsBinaryCodec {
+
+    /**
+     * 当前编码版本
+     */
+    public static final int VERSION = 1;
+
+    private static final double SCALE = 100.0;
+
+    // 数据标志位
+    private static final int HAS_AGENT = 1;
+    private static final int HAS_TIMESTAMP = 1 << 1;
+    private static final int HAS_METRICS = 1 << 2;
+
+    // 指标字段位图
+    private static final int F_CPU = 1;
+    private static final int F_CPU_USER = 1 << 1;
+    private static final int F_CPU_SYSTEM = 1 << 2;
+    private static final int F_CPU_IOWAIT = 1 << 3;
+    private static final int F_CPU_STEAL = 1 << 4;
+    private static final int F_CPU_CORES = 1 << 5;
+    private static final int F_CPU_SUMMARY = 1 << 6;
+    private static final int F_MEMORY = 1 << 7;
+    private static final int F_MEMORY_SUMMARY = 1 << 8;
+    private static final int F_DISK_USAGES = 1 << 9;
+    private static final int F_NET_UP = 1 << 10;
+    private static final int F_NET_DOWN = 1 << 11;
+    private static final int F_DISK_READ = 1 << 12;
+    private static final int F_DISK_WRITE = 1 << 13;
+    private static final int F_SSH = 1 << 14;
+    private static final int F_PROCESS = 1 << 15;
+
+    private MetricsBinaryCodec() {
+    }
+
+    // ==================== 编码 ====================
+
+    /**
+     * 编码单条运行时数据
+     *
+     * @throws IllegalArgumentException 时间戳不是ISO-8601格式的UTC时间，可先用{@link #isEncodable}检查
+     * @see #encode(List)
+     */
+    public static byte[] encode(MetricsReportRequest request) {
+        return encode(List.of(request));
+    }
+
+    /**
+     * 编码多条运行时数据，所有数据共享同一个字符串字典
+     * <p>
+     * 精度：百分比、速率等数值四舍五入到两位小数，NaN与无穷大编码为0；时间戳截断到毫秒。
+     * 只要有一条数据的时间戳无法解析，整批编码失败，调用方应先用{@link #isEncodable}检查，
+     * 不满足时改用JSON发送，而不是丢弃整批数据
+     *
+     * @throws IllegalArgumentException 时间戳不是ISO-8601格式的UTC时间
+     */
+    public static byte[] encode(List<MetricsReportRequest> requests) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (MetricsReportRequest request : requests) {
+            collectStrings(request, dictionary);
+        }
+
+        Writer out = new Writer(64 + requests.size() * 64);
+        out.writeByte(VERSION);
+        out.writeVarint(dictionary.size());
+        for (String s : dictionary.keySet()) {
+            out.writeString(s);
+        }
+
+        out.writeVarint(requests.size());
+        long previousMillis = 0;
+        for (MetricsReportRequest request : requests) {
+            Long millis = parseTimestamp(request.getTimestamp());
+            int flags = (request.getAgentId() != null ? HAS_AGENT : 0)
+                    | (millis != null ? HAS_TIMESTAMP : 0)
+                    | (request.getMetrics() != null ? HAS_METRICS : 0);
+            out.writeByte(flags);
+            if (request.getAgentId() != null) {
+                out.writeVarint(dictionary.get(request.getAgentId()));
+            }
+            if (millis != null) {
+                out.writeSignedVarint(millis - previousMillis);
+                previousMillis = millis;
+            }
+            if (request.getMetrics() != null) {
+                writeMetrics(out, request.getMetrics(), dictionary);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 数据能否使用二进制编码：时间戳为空或为ISO-8601格式的UTC时间
+     */
+    public static boolean isEncodable(MetricsReportRequest request) {
+        if (request == null) {
+            return false;
+        }
+        if (request.getTimestamp() == null) {
+            return true;
+        }
+        try {
+            Instant.parse(request.getTimestamp());
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 一批数据能否整体使用二进制编码
+     */
+    public static boolean isEncodable(List<MetricsReportRequest> requests) {
+        for (MetricsReportRequest request : requests) {
+            if (!isEncodable(request)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collectStrings(MetricsReportRequest request, Map<String, Integer> dictionary) {
+        intern(request.getAgentId(), dictionary);
+        Metrics metrics = request.getMetrics();
+        if (metrics == null) {
+            return;
+        }
+        if (metrics.getDiskUsages() != null) {
+            for (Metrics.DiskUsageInfo disk : metrics.getDiskUsages()) {
+                if (disk != null) {
+                    intern(disk.getMount(), dictionary);
+                }
+            }
+        }
+        if (metrics.getProcessStatus() != null) {
+            for (String name : metrics.getProcessStatus().keySet()) {
+                intern(name, dictionary);
+            }
+        }
+    }
+
+    private static void intern(String s, Map<String, Integer> dictionary) {
+        if (s != null) {
+            dictionary.putIfAbsent(s, dictionary.size());
+        }
+    }
+
+    private static void writeMetrics(Writer out, Metrics m, Map<String, Integer> dictionary) {
+        int mask = 0;
+        mask |= m.getCpuPercent() != null ? F_CPU : 0;
+        mask |= m.getCpuUserPercent() != null ? F_CPU_USER : 0;
+        mask |= m.getCpuSystemPercent() != null ? F_CPU_SYSTEM : 0;
+        mask |= m.getCpuIowaitPercent() != null ? F_CPU_IOWAIT : 0;
+        mask |= m.getCpuStealPercent() != null ? F_CPU_STEAL : 0;
+        mask |= m.getCpuCorePercents() != null ? F_CPU_CORES : 0;
+        mask |= m.getCpuSummary() != null ? F_CPU_SUMMARY : 0;
+        mask |= m.getMemoryPercent() != null ? F_MEMORY : 0;
+        mask |= m.getMemorySummary() != null ? F_MEMORY_SUMMARY : 0;
+        mask |= m.getDiskUsages() != null ? F_DISK_USAGES : 0;
+        mask |= m.getNetworkUpMbps() != null ? F_NET_UP : 0;
+        mask |= m.getNetworkDownMbps() != null ? F_NET_DOWN : 0;
+        mask |= m.getDiskReadMBps() != null ? F_DISK_READ : 0;
+        mask |= m.getDiskWriteMBps() != null ? F_DISK_WRITE : 0;
+        mask |= m.getSshStatus() != null ? F_SSH : 0;
+        mask |= m.getProcessStatus() != null ? F_PROCESS : 0;
+        out.writeVarint(mask);
+
+        if ((mask & F_CPU) != 0) {
+            out.writeFixed(m.getCpuPercent());
+        }
+        if ((mask & F_CPU_USER) != 0) {
+            out.writeFixed(m.getCpuUserPercent());
+        }
+        if ((mask & F_CPU_SYSTEM) != 0) {
+            out.writeFixed(m.getCpuSystemPercent());
+        }
+        if ((mask & F_CPU_IOWAIT) != 0) {
+            out.writeFixed(m.getCpuIowaitPercent());
+        }
+        if ((mask & F_CPU_STEAL) != 0) {
+            out.writeFixed(m.getCpuStealPercent());
+        }
+        if ((mask & F_CPU_CORES) != 0) {
+            List<Double> cores = m.getCpuCorePercents();
+            out.writeVarint(cores.size());
+            for (Double core : cores) {
+                out.writeNullableFixed(core);
+            }
+        }
+        if ((mask & F_CPU_SUMMARY) != 0) {
+            writeSummary(out, m.getCpuSummary());
+        }
+        if ((mask & F_MEMORY) != 0) {
+            out.writeFixed(m.getMemoryPercent());
+        }
+        if ((mask & F_MEMORY_SUMMARY) != 0) {
+            writeSummary(out, m.getMemorySummary());
+        }
+        if ((mask & F_DISK_USAGES) != 0) {
+            List<Metrics.DiskUsageInfo> disks = m.getDiskUsages();
+            out.writeVarint(disks.size());
+            for (Metrics.DiskUsageInfo disk : disks) {
+                writeDisk(out, disk, dictionary);
+            }
+        }
+        if ((mask & F_NET_UP) != 0) {
+            out.writeFixed(m.getNetworkUpMbps());
+        }
+        if ((mask & F_NET_DOWN) != 0) {
+            out.writeFixed(m.getNetworkDownMbps());
+        }
+        if ((mask & F_DISK_READ) != 0) {
+            out.writeFixed(m.getDiskReadMBps());
+        }
+        if ((mask & F_DISK_WRITE) != 0) {
+            out.writeFixed(m.getDiskWriteMBps());
+        }
+        if ((mask & F_SSH) != 0) {
+            Metrics.SshStatus ssh = m.getSshStatus();
+            out.writeByte(booleanBits(ssh.getRunning()) | booleanBits(ssh.getPortListening()) << 2
+                    | (ssh.getPort() != null ? 1 << 4 : 0));
+            if (ssh.getPort() != null) {
+                out.writeVarint(ssh.getPort());
+            }
+        }
+        if ((mask & F_PROCESS) != 0) {
+            Map<String, Boolean> status = m.getProcessStatus();
+            out.writeVarint(status.size());
+            for (Map.Entry<String, Boolean> entry : status.entrySet()) {
+                out.writeVarint(dictionary.get(entry.getKey()));
+                out.writeByte(booleanBits(entry.getValue()));
+            }
+        }
+    }
+
+    private static void writeSummary(Writer out, Metrics.MetricSummary s) {
+        int mask = (s.getMin() != null ? 1 : 0)
+                | (s.getMax() != null ? 1 << 1 : 0)
+                | (s.getAvg() != null ? 1 << 2 : 0)
+                | (s.getP95() != null ? 1 << 3 : 0)
+                | (s.getLast() != null ? 1 << 4 : 0)
+                | (s.getCount() != null ? 1 << 5 : 0);
+        out.writeByte(mask);
+        if (s.getMin() != null) {
+            out.writeFixed(s.getMin());
+        }
+        if (s.getMax() != null) {
+            out.writeFixed(s.getMax());
+        }
+        if (s.getAvg() != null) {
+            out.writeFixed(s.getAvg());
+        }
+        if (s.getP95() != null) {
+            out.writeFixed(s.getP95());
+        }
+        if (s.getLast() != null) {
+            out.writeFixed(s.getLast());
+        }
+        if (s.getCount() != null) {
+            out.writeVarint(s.getCount());
+        }
+    }
+
+    private static void writeDisk(Writer out, Metrics.DiskUsageInfo disk, Map<String, Integer> dictionary) {
+        if (disk == null) {
+            out.writeByte(0x80);
+            return;
+        }
+        int mask = (disk.getMount() != null ? 1 : 0)
+                | (disk.getUsedPercent() != null ? 1 << 1 : 0)
+                | (disk.getUsedGb() != null ? 1 << 2 : 0)
+                | (disk.getTotalGb() != null ? 1 << 3 : 0);
+        out.writeByte(mask);
+        if (disk.getMount() != null) {
+            out.writeVarint(dictionary.get(disk.getMount()));
+        }
+        if (disk.getUsedPercent() != null) {
+            out.writeFixed(disk.getUsedPercent());
+        }
+        if (disk.getUsedGb() != null) {
+            out.writeSignedVarint(disk.getUsedGb());
+        }
+        if (disk.getTotalGb() != null) {
+            out.writeSignedVarint(disk.getTotalGb());
+        }
+    }
+
+    /**
+     * 布尔值编码为两位：bit0 是否存在，bit1 取值
+     */
+    private static int booleanBits(Boolean value) {
+        if (value == null) {
+            return 0;
+        }
+        return value ? 3 : 1;
+    }
+
+    private static Long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("时间戳格式不支持二进制编码: " + timestamp, e);
+        }
+    }
+
+    // ==================== 解码 ====================
+
+    /**
+     * 解码运行时数据
+     *
+     * @throws IllegalArgumentException 版本不支持或数据损坏
+     */
+    public static List<MetricsReportRequest> decode(byte[] data) {
+        Reader in = new Reader(data);
+        try {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("不支持的编码版本: " + version);
+            }
+
+            int dictionarySize = in.readCount();
+            String[] dictionary = new String[dictionarySize];
+            for (int i = 0; i < dictionarySize; i++) {
+                dictionary[i] = in.readString();
+            }
+
+            int count = in.readCount();
+            List<MetricsReportRequest> requests = new ArrayList<>(count);
+            long previousMillis = 0;
+            for (int i = 0; i < count; i++) {
+                MetricsReportRequest request = new MetricsReportRequest();
+                int flags = in.readByte();
+                if ((flags & HAS_AGENT) != 0) {
+                    request.setAgentId(dictionary[in.readCount()]);
+                }
+                if ((flags & HAS_TIMESTAMP) != 0) {
+                    previousMillis += in.readSignedVarint();
+                    request.setTimestamp(Instant.ofEpochMilli(previousMillis).toString());
+                }
+                if ((flags & HAS_METRICS) != 0) {
+                    request.setMetrics(readMetrics(in, dictionary));
+                }
+                requests.add(request);
+            }
+            return requests;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("二进制数据已损坏", e);
+        }
+    }
+
+    private static Metrics readMetrics(Reader in, String[] dictionary) {
+        Metrics m = new Metrics();
+        long mask = in.readVarint();
+
+        if ((mask & F_CPU) != 0) {
+            m.setCpuPercent(in.readFixed());
+        }
+        if ((mask & F_CPU_USER) != 0) {
+            m.setCpuUserPercent(in.readFixed());
+        }
+        if ((mask & F_CPU_SYSTEM) != 0) {
+            m.setCpuSystemPercent(in.readFixed());
+        }
+        if ((mask & F_CPU_IOWAIT) != 0) {
+            m.setCpuIowaitPercent(in.readFixed());
+        }
+        if ((mask & F_CPU_STEAL) != 0) {
+            m.setCpuStealPercent(in.readFixed());
+        }
+        if ((mask & F_CPU_CORES) != 0) {
+            int size = in.readCount();
+            List<Double> cores = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                cores.add(in.readNullableFixed());
+            }
+            m.setCpuCorePercents(cores);
+        }
+        if ((mask & F_CPU_SUMMARY) != 0) {
+            m.setCpuSummary(readSummary(in));
+        }
+        if ((mask & F_MEMORY) != 0) {
+            m.setMemoryPercent(in.readFixed());
+        }
+        if ((mask & F_MEMORY_SUMMARY) != 0) {
+            m.setMemorySummary(readSummary(in));
+        }
+        if ((mask & F_DISK_USAGES) != 0) {
+            int size = in.readCount();
+            List<Metrics.DiskUsageInfo> disks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                disks.add(readDisk(in, dictionary));
+            }
+            m.setDiskUsages(disks);
+        }
+        if ((mask & F_NET_UP) != 0) {
+            m.setNetworkUpMbps(in.readFixed());
+        }
+        if ((mask & F_NET_DOWN) != 0) {
+            m.setNetworkDownMbps(in.readFixed());
+        }
+        if ((mask & F_DISK_READ) != 0) {
+            m.setDiskReadMBps(in.readFixed());
+        }
+        if ((mask & F_DISK_WRITE) != 0) {
+            m.setDiskWriteMBps(in.readFixed());
+        }
+        if ((mask & F_SSH) != 0) {
+            int bits = in.readByte();
+            Metrics.SshStatus ssh = new Metrics.SshStatus();
+            ssh.setRunning(toBoolean(bits));
+            ssh.setPortListening(toBoolean(bits >> 2));
+            if ((bits & 1 << 4) != 0) {
+                ssh.setPort((int) in.readVarint());
+            }
+            m.setSshStatus(ssh);
+        }
+        if ((mask & F_PROCESS) != 0) {
+            int size = in.readCount();
+            Map<String, Boolean> status = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String name = dictionary[in.readCount()];
+                status.put(name, toBoolean(in.readByte()));
+            }
+            m.setProcessStatus(status);
+        }
+        return m;
+    }
+
+    private static Metrics.MetricSummary readSummary(Reader in) {
+        int mask = in.readByte();
+        Metrics.MetricSummary s = new Metrics.MetricSummary();
+        if ((mask & 1) != 0) {
+            s.setMin(in.readFixed());
+        }
+        if ((mask & 1 << 1) != 0) {
+            s.setMax(in.readFixed());
+        }
+        if ((mask & 1 << 2) != 0) {
+            s.setAvg(in.readFixed());
+        }
+        if ((mask & 1 << 3) != 0) {
+            s.setP95(in.readFixed());
+        }
+        if ((mask & 1 << 4) != 0) {
+            s.setLast(in.readFixed());
+        }
+        if ((mask & 1 << 5) != 0) {
+            s.setCount((int) in.readVarint());
+        }
+        return s;
+    }
+
+    private static Metrics.DiskUsageInfo readDisk(Reader in, String[] dictionary) {
+        int mask = in.readByte();
+        if (mask == 0x80) {
+            return null;
+        }
+        Metrics.DiskUsageInfo disk = new Metrics.DiskUsageInfo();
+        if ((mask & 1) != 0) {
+            disk.setMount(dictionary[in.readCount()]);
+        }
+        if ((mask & 1 << 1) != 0) {
+            disk.setUsedPercent(in.readFixed());
+        }
+        if ((mask & 1 << 2) != 0) {
+            disk.setUsedGb(in.readSignedVarint());
+        }
+        if ((mask & 1 << 3) != 0) {
+            disk.setTotalGb(in.readSignedVarint());
+        }
+        return disk;
+    }
+
+    private static Boolean toBoolean(int bits) {
+        if ((bits & 1) == 0) {
+            return null;
+        }
+        return (bits & 2) != 0;
+    }
+
+    // ==================== 字节读写 ====================
+
+    private static final class Writer {
+
+        private byte[] buf;
+        private int size;
+
+        private Writer(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        private void ensure(int n) {
+            if (size + n > buf.length) {
+                byte[] larger = new byte[Math.max(buf.length * 2, size + n)];
+                System.arraycopy(buf, 0, larger, 0, size);
+                buf = larger;
+            }
+        }
+
+        private void writeByte(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        private void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        private void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        private void writeFixed(double value) {
+            writeSignedVarint(Math.round(value * SCALE));
+        }
+
+        /**
+         * 可空定点数：0表示null，其余为zigzag值加1
+         */
+        private void writeNullableFixed(Double value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            long v = Math.round(value * SCALE);
+            writeVarint(((v << 1) ^ (v >> 63)) + 1);
+        }
+
+        private void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private byte[] toByteArray() {
+            byte[] result = new byte[size];
+            System.arraycopy(buf, 0, result, 0, size);
+            return result;
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buf;
+        private int pos;
+
+        private Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        private int readByte() {
+            return buf[pos++] & 0xFF;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint过长");
+        }
+
+        private long readSignedVarint() {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        /**
+         * 读取长度或下标，拒绝超过剩余字节数的值，防止损坏数据导致超大分配
+         */
+        private int readCount() {
+            long value = readVarint();
+            if (value < 0 || value > buf.length) {
+                throw new IllegalArgumentException("长度或下标越界: " + value);
+            }
+            return (int) value;
+        }
+
+        private double readFixed() {
+            return readSignedVarint() / SCALE;
+        }
+
+        private Double readNullableFixed() {
+            long raw = readVarint();
+            if (raw == 0) {
+                return null;
+            }
+            raw -= 1;
+            return ((raw >>> 1) ^ -(raw & 1)) / SCALE;
+        }
+
+        private String readString() {
+            int length = readCount();
+            if (pos + length > buf.length) {
+                throw new IllegalArgumentException("字符串长度越界: " + length);
+            }
+            String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hundred.monitor.commonlibrary.codec;
+
+import com.hundred.monitor.commonlibrary.request.MetricsBatchReportRequest;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 运行时数据二进制消息转换器
+ * 仅处理Content-Type为application/x-monitor-metrics的请求，JSON请求仍由Jackson处理
+ */
+public class MetricsBinaryMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    /**
+     * 二进制运行时数据的媒体类型
+     */
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-monitor-metrics");
+
+    public MetricsBinaryMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MetricsReportRequest.class == clazz || MetricsBatchReportRequest.class == clazz;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        List<MetricsReportRequest> samples;
+        try {
+            samples = MetricsBinaryCodec.decode(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("二进制运行时数据解析失败: " + e.getMessage(), e, inputMessage);
+        }
+
+        if (clazz == MetricsBatchReportRequest.class) {
+            MetricsBatchReportRequest batch = new MetricsBatchReportRequest();
+            batch.setSamples(samples);
+            return batch;
+        }
+        if (samples.size() != 1) {
+            throw new HttpMessageNotReadableException("单条上报接口收到" + samples.size() + "条数据", inputMessage);
+        }
+        return samples.get(0);
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+        byte[] data = object instanceof MetricsBatchReportRequest batch
+                ? MetricsBinaryCodec.encode(batch.getSamples())
+                : MetricsBinaryCodec.encode((MetricsReportRequest) object);
+        outputMessage.getBody().write(data);
+    }
+}
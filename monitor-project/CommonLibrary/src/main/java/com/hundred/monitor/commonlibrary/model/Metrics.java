@@ -3,6 +3,7 @@ package com.hundred.monitor.commonlibrary.model;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 运行时数据模型
@@ -16,11 +17,46 @@ public class Metrics {
      */
     private Double cpuPercent;
 
+    /**
+     * CPU用户态使用率（百分比，含nice）
+     */
+    private Double cpuUserPercent;
+
+    /**
+     * CPU内核态使用率（百分比，含irq/softirq）
+     */
+    private Double cpuSystemPercent;
+
+    /**
+     * CPU IO等待占比（百分比）
+     */
+    private Double cpuIowaitPercent;
+
+    /**
+     * CPU被虚拟化宿主抢占占比（百分比）
+     */
+    private Double cpuStealPercent;
+
+    /**
+     * 每个逻辑核心的使用率（百分比）
+     */
+    private List<Double> cpuCorePercents;
+
+    /**
+     * 上报窗口内CPU使用率的高频采样汇总
+     */
+    private MetricSummary cpuSummary;
+
     /**
      * 内存使用率（百分比）
      */
     private Double memoryPercent;
 
+    /**
+     * 上报窗口内内存使用率的高频采样汇总
+     */
+    private MetricSummary memorySummary;
+
     /**
      * 磁盘使用率列表（每块磁盘单独上报）
      */
@@ -36,11 +72,26 @@ public class Metrics {
      */
     private Double networkDownMbps;
 
+    /**
+     * 磁盘读取速率（MB/s）
+     */
+    private Double diskReadMBps;
+
+    /**
+     * 磁盘写入速率（MB/s）
+     */
+    private Double diskWriteMBps;
+
     /**
      * SSH服务状态
      */
     private SshStatus sshStatus;
 
+    /**
+     * 被监控进程运行状态（进程名关键字 -> 是否运行）
+     */
+    private Map<String, Boolean> processStatus;
+
     /**
      * SSH状态
      */
@@ -51,6 +102,20 @@ public class Metrics {
         private Integer port;
     }
 
+    /**
+     * 窗口采样汇总
+     * Agent在上报间隔内按秒采样，上报时携带窗口统计值，服务端可据此还原短时峰值
+     */
+    @Data
+    public static class MetricSummary {
+        private Double min;
+        private Double max;
+        private Double avg;
+        private Double p95;
+        private Double last;
+        private Integer count;
+    }
+
     /**
      * 磁盘使用信息
      */
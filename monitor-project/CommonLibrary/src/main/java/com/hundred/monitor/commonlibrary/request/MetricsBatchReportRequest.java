@@ -0,0 +1,18 @@
+package com.hundred.monitor.commonlibrary.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 运行时数据批量上报请求
+ * 可包含同一Agent的多次采样，也可由中继汇总多个Agent的数据
+ */
+@Data
+public class MetricsBatchReportRequest {
+
+    /**
+     * 运行时数据列表，每条数据携带自己的Agent ID与时间戳
+     */
+    private List<MetricsReportRequest> samples;
+}
@@ -0,0 +1,61 @@
+package com.hundred.monitor.commonlibrary.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agent与服务端长连接通道的文本帧
+ * <p>
+ * Agent → 服务端：metrics（运行时数据）、config_result（配置应用结果）<br>
+ * 服务端 → Agent：ack（累计确认，seq及之前的数据均已入库）、config（配置下发）
+ * <p>
+ * 运行时数据也可以使用二进制帧发送：8字节序号（大端） + MetricsBinaryCodec编码的数据
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StreamFrame {
+
+    public static final String TYPE_METRICS = "metrics";
+    public static final String TYPE_ACK = "ack";
+    public static final String TYPE_CONFIG = "config";
+    public static final String TYPE_CONFIG_RESULT = "config_result";
+
+    /**
+     * 长连接通道路径
+     */
+    public static final String PATH = "/api/v1/agent/stream";
+
+    /**
+     * 帧类型
+     */
+    private String type;
+
+    /**
+     * 序号：metrics帧由Agent递增分配，ack帧为已入库的最大序号
+     */
+    private Long seq;
+
+    /**
+     * 运行时数据（metrics帧）
+     */
+    private List<MetricsReportRequest> samples;
+
+    /**
+     * 配置更新内容（config帧），结构与Agent配置文件一致
+     */
+    private Map<String, Object> config;
+
+    /**
+     * 是否成功（config_result帧）
+     */
+    private Boolean success;
+
+    /**
+     * 结果说明（config_result帧）
+     */
+    private String message;
+}
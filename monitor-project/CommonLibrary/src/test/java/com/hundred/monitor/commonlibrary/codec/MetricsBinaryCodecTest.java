@@ -0,0 +1,191 @@
+package com.hundred.monitor.commonlibrary.codec;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsBinaryCodecTest {
+
+    @Test
+    void roundTripFullSample() {
+        MetricsReportRequest request = sample("agent-1", "2024-05-01T08:00:00.123Z", fullMetrics());
+
+        List<MetricsReportRequest> decoded = MetricsBinaryCodec.decode(MetricsBinaryCodec.encode(request));
+
+        assertEquals(List.of(request), decoded);
+    }
+
+    @Test
+    void roundTripBatchWithSharedDictionaryAndNullFields() {
+        List<MetricsReportRequest> batch = new ArrayList<>();
+        batch.add(sample("agent-1", "2024-05-01T08:00:15Z", fullMetrics()));
+        batch.add(sample("agent-2", "2024-05-01T08:00:00Z", fullMetrics()));
+        batch.add(sample("agent-1", null, new Metrics()));
+        batch.add(sample(null, "2024-05-01T08:00:30Z", null));
+
+        Metrics sparse = new Metrics();
+        sparse.setCpuCorePercents(Arrays.asList(1.5, null, 3.0));
+        sparse.setDiskUsages(Arrays.asList(null, disk(null, null)));
+        Metrics.SshStatus ssh = new Metrics.SshStatus();
+        ssh.setRunning(false);
+        sparse.setSshStatus(ssh);
+        batch.add(sample("agent-2", "2024-05-01T07:59:59.999Z", sparse));
+
+        assertEquals(batch, MetricsBinaryCodec.decode(MetricsBinaryCodec.encode(batch)));
+    }
+
+    @Test
+    void emptyBatch() {
+        assertEquals(List.of(), MetricsBinaryCodec.decode(MetricsBinaryCodec.encode(List.of())));
+    }
+
+    @Test
+    void valuesAreRoundedToTwoDecimals() {
+        Metrics metrics = new Metrics();
+        metrics.setCpuPercent(12.345678);
+        metrics.setMemoryPercent(-0.004);
+
+        Metrics decoded = MetricsBinaryCodec.decode(
+                MetricsBinaryCodec.encode(sample("agent-1", "2024-05-01T08:00:00Z", metrics))).get(0).getMetrics();
+
+        assertEquals(12.35, decoded.getCpuPercent().doubleValue());
+        assertEquals(0.0, decoded.getMemoryPercent().doubleValue());
+    }
+
+    @Test
+    void nonIsoTimestampIsNotEncodable() {
+        MetricsReportRequest iso = sample("agent-1", "2024-05-01T08:00:00Z", new Metrics());
+        MetricsReportRequest local = sample("agent-1", "2024-05-01 08:00:00", new Metrics());
+
+        assertTrue(MetricsBinaryCodec.isEncodable(iso));
+        assertTrue(MetricsBinaryCodec.isEncodable(sample("agent-1", null, null)));
+        assertFalse(MetricsBinaryCodec.isEncodable(local));
+        assertFalse(MetricsBinaryCodec.isEncodable(List.of(iso, local)));
+        assertThrows(IllegalArgumentException.class, () -> MetricsBinaryCodec.encode(List.of(iso, local)));
+    }
+
+    @Test
+    void rejectsUnsupportedVersion() {
+        byte[] data = MetricsBinaryCodec.encode(sample("agent-1", "2024-05-01T08:00:00Z", fullMetrics()));
+        data[0] = (byte) (MetricsBinaryCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> MetricsBinaryCodec.decode(data));
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        byte[] data = MetricsBinaryCodec.encode(List.of(
+                sample("agent-1", "2024-05-01T08:00:00Z", fullMetrics()),
+                sample("agent-2", "2024-05-01T08:00:15Z", fullMetrics())));
+
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> MetricsBinaryCodec.decode(truncated),
+                    "truncated to " + length);
+        }
+    }
+
+    @Test
+    void rejectsOversizedCountWithoutAllocating() {
+        // 版本号 + 字典大小为2^35的varint
+        byte[] data = {(byte) MetricsBinaryCodec.VERSION, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+
+        assertThrows(IllegalArgumentException.class, () -> MetricsBinaryCodec.decode(data));
+    }
+
+    @Test
+    void rejectsOutOfRangeDictionaryIndex() {
+        // 版本号、空字典、1条数据、只有Agent ID标志、字典下标0
+        byte[] data = {(byte) MetricsBinaryCodec.VERSION, 0, 1, 1, 0};
+
+        assertThrows(IllegalArgumentException.class, () -> MetricsBinaryCodec.decode(data));
+    }
+
+    @Test
+    void decodesNullDiskEntry() {
+        Metrics metrics = new Metrics();
+        metrics.setDiskUsages(Arrays.asList(disk("/", 10.0), null));
+
+        Metrics decoded = MetricsBinaryCodec.decode(
+                MetricsBinaryCodec.encode(sample("agent-1", null, metrics))).get(0).getMetrics();
+
+        assertEquals(2, decoded.getDiskUsages().size());
+        assertNull(decoded.getDiskUsages().get(1));
+    }
+
+    private static MetricsReportRequest sample(String agentId, String timestamp, Metrics metrics) {
+        MetricsReportRequest request = new MetricsReportRequest();
+        request.setAgentId(agentId);
+        request.setTimestamp(timestamp);
+        request.setMetrics(metrics);
+        return request;
+    }
+
+    /**
+     * 所有字段都有值的指标，数值均为两位小数，编解码后应完全一致
+     */
+    private static Metrics fullMetrics() {
+        Metrics metrics = new Metrics();
+        metrics.setCpuPercent(42.5);
+        metrics.setCpuUserPercent(30.25);
+        metrics.setCpuSystemPercent(10.0);
+        metrics.setCpuIowaitPercent(2.01);
+        metrics.setCpuStealPercent(0.24);
+        metrics.setCpuCorePercents(List.of(40.0, 45.0, 0.0, 100.0));
+        metrics.setCpuSummary(summary(5.0, 98.76, 42.5, 90.0, 41.0, 15));
+        metrics.setMemoryPercent(63.33);
+        metrics.setMemorySummary(summary(60.0, 65.0, 63.0, 64.9, 63.33, 15));
+        metrics.setDiskUsages(List.of(disk("/", 71.5), disk("/data", 12.0)));
+        metrics.setNetworkUpMbps(1.23);
+        metrics.setNetworkDownMbps(456.78);
+        metrics.setDiskReadMBps(0.5);
+        metrics.setDiskWriteMBps(12.25);
+
+        Metrics.SshStatus ssh = new Metrics.SshStatus();
+        ssh.setRunning(true);
+        ssh.setPortListening(false);
+        ssh.setPort(22);
+        metrics.setSshStatus(ssh);
+
+        Map<String, Boolean> processes = new LinkedHashMap<>();
+        processes.put("sshd", true);
+        processes.put("nginx", false);
+        processes.put("mysqld", null);
+        metrics.setProcessStatus(processes);
+        return metrics;
+    }
+
+    private static Metrics.MetricSummary summary(double min, double max, double avg, double p95, double last, int count) {
+        Metrics.MetricSummary summary = new Metrics.MetricSummary();
+        summary.setMin(min);
+        summary.setMax(max);
+        summary.setAvg(avg);
+        summary.setP95(p95);
+        summary.setLast(last);
+        summary.setCount(count);
+        return summary;
+    }
+
+    private static Metrics.DiskUsageInfo disk(String mount, Double usedPercent) {
+        Metrics.DiskUsageInfo disk = new Metrics.DiskUsageInfo();
+        disk.setMount(mount);
+        disk.setUsedPercent(usedPercent);
+        if (usedPercent != null) {
+            disk.setUsedGb(Math.round(usedPercent * 5));
+            disk.setTotalGb(500L);
+        }
+        return disk;
+    }
+}
@@ -0,0 +1,127 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.agent.config.ConfigLoader;
+import com.hundred.monitor.agent.model.entity.AgentConfig;
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 采集器调度器
+ * 按各采集器声明的间隔独立调度，低开销与高开销采集器分别使用独立的小线程池，
+ * 单个慢采集器不会延迟其他采集器
+ */
+@Component
+public class CollectorScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CollectorScheduler.class);
+
+    private static final int CHEAP_POOL_SIZE = 1;
+    private static final int EXPENSIVE_POOL_SIZE = 2;
+
+    @Autowired
+    private List<MetricCollector> collectors;
+
+    @Autowired
+    private ConfigLoader configLoader;
+
+    private final ScheduledExecutorService cheapExecutor =
+            Executors.newScheduledThreadPool(CHEAP_POOL_SIZE, threadFactory("collector-cheap"));
+
+    private final ScheduledExecutorService expensiveExecutor =
+            Executors.newScheduledThreadPool(EXPENSIVE_POOL_SIZE, threadFactory("collector-expensive"));
+
+    @PostConstruct
+    public void start() {
+        for (MetricCollector collector : collectors) {
+            long intervalMs = resolveIntervalMs(collector);
+            ScheduledExecutorService executor = collector.getCost() == MetricCollector.Cost.CHEAP
+                    ? cheapExecutor
+                    : expensiveExecutor;
+            executor.scheduleAtFixedRate(() -> runSafely(collector), 0, intervalMs, TimeUnit.MILLISECONDS);
+            log.info("采集器已启动: name={}, interval={}ms, cost={}", collector.getName(), intervalMs, collector.getCost());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        cheapExecutor.shutdownNow();
+        expensiveExecutor.shutdownNow();
+    }
+
+    /**
+     * 汇总所有采集器的最新值
+     */
+    public Metrics snapshot() {
+        Metrics metrics = new Metrics();
+        for (MetricCollector collector : collectors) {
+            try {
+                collector.contribute(metrics);
+            } catch (Exception e) {
+                log.warn("采集器{}汇总失败: {}", collector.getName(), e.getMessage());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 结束所有采集器的当前采样窗口，将窗口汇总写入上报对象
+     * 每个上报周期只应调用一次，再次调用得到的是新窗口的汇总
+     */
+    public void drainWindows(Metrics metrics) {
+        for (MetricCollector collector : collectors) {
+            try {
+                collector.drainWindow(metrics);
+            } catch (Exception e) {
+                log.warn("采集器{}窗口汇总失败: {}", collector.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 执行采集，异常不能抛出，否则会终止该采集器的后续调度
+     */
+    private void runSafely(MetricCollector collector) {
+        try {
+            collector.collect();
+        } catch (Exception e) {
+            log.warn("采集器{}执行失败: {}", collector.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 获取采集间隔，配置文件中的collection.intervals可按名称覆盖（秒）
+     */
+    private long resolveIntervalMs(MetricCollector collector) {
+        AgentConfig.CollectionConfig collection = configLoader.getConfig().getCollection();
+        if (collection != null && collection.getIntervals() != null) {
+            Map<String, Long> intervals = collection.getIntervals();
+            Long seconds = intervals.get(collector.getName());
+            if (seconds != null && seconds > 0) {
+                return seconds * 1000;
+            }
+        }
+        return collector.getIntervalMs();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
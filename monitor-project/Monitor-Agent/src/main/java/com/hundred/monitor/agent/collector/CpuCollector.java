@@ -0,0 +1,69 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CPU使用率采集器
+ * 逐秒采样写入窗口，上报时携带窗口的min/max/avg/p95/last
+ */
+@Component
+public class CpuCollector implements MetricCollector {
+
+    /**
+     * 窗口容量：按1秒间隔可覆盖10分钟的上报间隔
+     */
+    private static final int WINDOW_CAPACITY = 600;
+
+    @Autowired
+    private CpuTickSampler cpuTickSampler;
+
+    // 上报窗口内的逐秒采样
+    private final MetricWindow window = new MetricWindow(WINDOW_CAPACITY);
+
+    @Override
+    public String getName() {
+        return "cpu";
+    }
+
+    @Override
+    public long getIntervalMs() {
+        return 1000;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public void collect() {
+        cpuTickSampler.sample();
+        window.add(cpuTickSampler.getLatest().getTotal() * 100);
+    }
+
+    @Override
+    public void contribute(Metrics metrics) {
+        // 取采样器最近两次tick的结果
+        CpuTickSampler.CpuLoad cpuLoad = cpuTickSampler.getLatest();
+        metrics.setCpuPercent(cpuLoad.getTotal() * 100);
+        metrics.setCpuUserPercent(cpuLoad.getUser() * 100);
+        metrics.setCpuSystemPercent(cpuLoad.getSystem() * 100);
+        metrics.setCpuIowaitPercent(cpuLoad.getIowait() * 100);
+        metrics.setCpuStealPercent(cpuLoad.getSteal() * 100);
+        List<Double> corePercents = new ArrayList<>();
+        for (double core : cpuLoad.getCores()) {
+            corePercents.add(core * 100);
+        }
+        metrics.setCpuCorePercents(corePercents);
+    }
+
+    @Override
+    public void drainWindow(Metrics metrics) {
+        metrics.setCpuSummary(window.drain());
+    }
+}
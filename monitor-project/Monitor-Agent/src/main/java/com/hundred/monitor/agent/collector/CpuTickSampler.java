@@ -0,0 +1,213 @@
+package com.hundred.monitor.agent.collector;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.CentralProcessor.TickType;
+
+/**
+ * CPU tick采样器
+ * 由CpuCollector每秒驱动一次采样，保留上一次快照，根据最近两次采样计算使用率，
+ * 上报时直接读取最新结果，不再阻塞调度线程；
+ * Linux下直接解析/proc/stat到复用的数组，其他平台使用OSHI
+ */
+@Component
+public class CpuTickSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(CpuTickSampler.class);
+
+    private final CentralProcessor processor = new SystemInfo().getHardware().getProcessor();
+
+    @Autowired
+    private ProcFsReader procFsReader;
+
+    // 上一次与本次采样的tick，交替复用（仅调度线程访问）
+    private long[] prevTicks;
+    private long[][] prevCoreTicks;
+    private long[] ticks;
+    private long[][] coreTicks;
+    private int coreCount;
+
+    // 最近一次计算结果，供采集线程读取
+    private volatile CpuLoad latest = CpuLoad.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        int cores = processor.getLogicalProcessorCount();
+        prevTicks = new long[ProcFsReader.TICK_COUNT];
+        prevCoreTicks = new long[cores][ProcFsReader.TICK_COUNT];
+        ticks = new long[ProcFsReader.TICK_COUNT];
+        coreTicks = new long[cores][ProcFsReader.TICK_COUNT];
+        readTicks();
+        swap();
+    }
+
+    /**
+     * 获取最近两次采样间的CPU负载
+     */
+    public CpuLoad getLatest() {
+        return latest;
+    }
+
+    /**
+     * 采集一次tick并与上一次快照比较
+     */
+    public synchronized void sample() {
+        try {
+            int previousCount = coreCount;
+            readTicks();
+
+            double[] cores = new double[coreCount];
+            if (previousCount == coreCount) {
+                for (int i = 0; i < coreCount; i++) {
+                    cores[i] = busyRatio(prevCoreTicks[i], coreTicks[i]);
+                }
+            }
+
+            latest = new CpuLoad(
+                    busyRatio(prevTicks, ticks),
+                    ratio(prevTicks, ticks, TickType.USER, TickType.NICE),
+                    ratio(prevTicks, ticks, TickType.SYSTEM, TickType.IRQ, TickType.SOFTIRQ),
+                    ratio(prevTicks, ticks, TickType.IOWAIT),
+                    ratio(prevTicks, ticks, TickType.STEAL),
+                    cores);
+
+            swap();
+        } catch (Exception e) {
+            log.warn("CPU tick采样失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取当前tick到ticks/coreTicks
+     */
+    private void readTicks() {
+        if (procFsReader.isSupported()) {
+            int count = procFsReader.readCpuTicks(ticks, coreTicks);
+            if (count > coreTicks.length) {
+                // 核心数增加（如CPU热插拔），扩容后重新读取
+                prevCoreTicks = new long[count][ProcFsReader.TICK_COUNT];
+                coreTicks = new long[count][ProcFsReader.TICK_COUNT];
+                count = procFsReader.readCpuTicks(ticks, coreTicks);
+            }
+            if (count >= 0) {
+                coreCount = count;
+                return;
+            }
+        }
+        ticks = processor.getSystemCpuLoadTicks();
+        coreTicks = processor.getProcessorCpuLoadTicks();
+        coreCount = coreTicks.length;
+    }
+
+    /**
+     * 交换本次与上一次的tick数组
+     */
+    private void swap() {
+        long[] t = prevTicks;
+        prevTicks = ticks;
+        ticks = t;
+        long[][] c = prevCoreTicks;
+        prevCoreTicks = coreTicks;
+        coreTicks = c;
+    }
+
+    /**
+     * 计算非空闲tick占比（空闲包含IDLE与IOWAIT）
+     */
+    private static double busyRatio(long[] prev, long[] curr) {
+        long total = totalDelta(prev, curr);
+        if (total <= 0) {
+            return 0;
+        }
+        long idle = delta(prev, curr, TickType.IDLE) + delta(prev, curr, TickType.IOWAIT);
+        return Math.max(0, (double) (total - idle) / total);
+    }
+
+    /**
+     * 计算指定tick类型之和的占比
+     */
+    private static double ratio(long[] prev, long[] curr, TickType... types) {
+        long total = totalDelta(prev, curr);
+        if (total <= 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (TickType type : types) {
+            sum += delta(prev, curr, type);
+        }
+        return Math.max(0, (double) sum / total);
+    }
+
+    private static long totalDelta(long[] prev, long[] curr) {
+        if (prev.length != curr.length) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < curr.length; i++) {
+            total += curr[i] - prev[i];
+        }
+        return total;
+    }
+
+    private static long delta(long[] prev, long[] curr, TickType type) {
+        int index = type.getIndex();
+        return index < curr.length && index < prev.length ? curr[index] - prev[index] : 0;
+    }
+
+    /**
+     * CPU负载快照（比例值，0~1）
+     * user包含NICE，system包含IRQ与SOFTIRQ
+     */
+    public static final class CpuLoad {
+
+        static final CpuLoad EMPTY = new CpuLoad(0, 0, 0, 0, 0, new double[0]);
+
+        private final double total;
+        private final double user;
+        private final double system;
+        private final double iowait;
+        private final double steal;
+        private final double[] cores;
+
+        CpuLoad(double total, double user, double system, double iowait, double steal, double[] cores) {
+            this.total = total;
+            this.user = user;
+            this.system = system;
+            this.iowait = iowait;
+            this.steal = steal;
+            this.cores = cores;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+
+        public double getUser() {
+            return user;
+        }
+
+        public double getSystem() {
+            return system;
+        }
+
+        public double getIowait() {
+            return iowait;
+        }
+
+        public double getSteal() {
+            return steal;
+        }
+
+        /**
+         * 每个逻辑核心的使用率
+         */
+        public double[] getCores() {
+            return cores.clone();
+        }
+    }
+}
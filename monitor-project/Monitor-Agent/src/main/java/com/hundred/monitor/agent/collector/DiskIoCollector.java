@@ -0,0 +1,89 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+
+/**
+ * 磁盘读写速率采集器
+ * 速率为相邻两次采集之间的平均值
+ */
+@Component
+public class DiskIoCollector implements MetricCollector {
+
+    @Autowired
+    private ProcFsReader procFsReader;
+
+    private final HardwareAbstractionLayer hardware = new SystemInfo().getHardware();
+
+    private final long[] counterBuffer = new long[2];
+
+    // 磁盘IO速率计算需要的上次状态（仅调度线程访问）
+    private long lastDiskBytesRead = 0;
+    private long lastDiskBytesWritten = 0;
+    private long lastDiskTimestamp = 0;
+
+    private volatile Rate latest;
+
+    @Override
+    public String getName() {
+        return "diskio";
+    }
+
+    @Override
+    public long getIntervalMs() {
+        return 5000;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public void collect() {
+        long currentTimestamp = System.currentTimeMillis();
+
+        long totalBytesRead = 0;
+        long totalBytesWritten = 0;
+
+        if (procFsReader.readDiskIo(counterBuffer)) {
+            totalBytesRead = counterBuffer[0];
+            totalBytesWritten = counterBuffer[1];
+        } else {
+            for (HWDiskStore disk : hardware.getDiskStores()) {
+                disk.updateAttributes();
+                totalBytesRead += disk.getReadBytes();
+                totalBytesWritten += disk.getWriteBytes();
+            }
+        }
+
+        if (lastDiskTimestamp > 0) {
+            long timeDelta = currentTimestamp - lastDiskTimestamp;
+            if (timeDelta > 0) {
+                // 转换为 MB/s: bytes / 1000 / 1000
+                latest = new Rate((totalBytesRead - lastDiskBytesRead) / 1000.0 / timeDelta,
+                        (totalBytesWritten - lastDiskBytesWritten) / 1000.0 / timeDelta);
+            }
+        }
+
+        lastDiskBytesRead = totalBytesRead;
+        lastDiskBytesWritten = totalBytesWritten;
+        lastDiskTimestamp = currentTimestamp;
+    }
+
+    @Override
+    public void contribute(Metrics metrics) {
+        Rate rate = latest;
+        if (rate != null) {
+            metrics.setDiskReadMBps(rate.read);
+            metrics.setDiskWriteMBps(rate.write);
+        }
+    }
+
+    private record Rate(double read, double write) {
+    }
+}
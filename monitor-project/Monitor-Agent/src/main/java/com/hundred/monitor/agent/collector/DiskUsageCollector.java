@@ -0,0 +1,84 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import com.hundred.monitor.commonlibrary.model.Metrics.DiskUsageInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OSFileStore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 磁盘使用率采集器
+ * 容量变化缓慢，按分钟级间隔采集
+ */
+@Component
+public class DiskUsageCollector implements MetricCollector {
+
+    @Autowired
+    private ProcFsReader procFsReader;
+
+    private final FileSystem fileSystem = new SystemInfo().getOperatingSystem().getFileSystem();
+
+    private final List<String> mountBuffer = new ArrayList<>();
+
+    private volatile List<DiskUsageInfo> latest;
+
+    @Override
+    public String getName() {
+        return "disk";
+    }
+
+    @Override
+    public long getIntervalMs() {
+        return 60_000;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    /**
+     * Linux下从/proc/self/mounts获取挂载点，其他平台使用OSHI
+     */
+    @Override
+    public void collect() {
+        List<DiskUsageInfo> diskUsages = new ArrayList<>();
+        if (procFsReader.readMounts(mountBuffer)) {
+            for (String mount : mountBuffer) {
+                File file = new File(mount);
+                diskUsages.add(buildDiskUsage(mount, file.getTotalSpace(), file.getUsableSpace()));
+            }
+        } else {
+            for (OSFileStore fs : fileSystem.getFileStores()) {
+                diskUsages.add(buildDiskUsage(fs.getMount(), fs.getTotalSpace(), fs.getUsableSpace()));
+            }
+        }
+        latest = List.copyOf(diskUsages);
+    }
+
+    @Override
+    public void contribute(Metrics metrics) {
+        metrics.setDiskUsages(latest);
+    }
+
+    /**
+     * 构造单个挂载点的使用信息
+     */
+    private DiskUsageInfo buildDiskUsage(String mount, long totalSpace, long usableSpace) {
+        DiskUsageInfo diskUsage = new DiskUsageInfo();
+        diskUsage.setMount(mount);
+        // 通过分盘计算占用子节
+        long usedSpace = totalSpace - usableSpace;
+
+        diskUsage.setTotalGb(totalSpace / 1024 / 1024 / 1024);
+        diskUsage.setUsedGb(usedSpace / 1024 / 1024 / 1024);
+        diskUsage.setUsedPercent(totalSpace > 0 ? (double) usedSpace / totalSpace * 100 : 0);
+        return diskUsage;
+    }
+}
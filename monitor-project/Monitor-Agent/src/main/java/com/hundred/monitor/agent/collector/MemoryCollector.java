@@ -0,0 +1,73 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.GlobalMemory;
+
+/**
+ * 内存使用率采集器
+ * 逐秒采样写入窗口，上报时携带窗口的min/max/avg/p95/last
+ */
+@Component
+public class MemoryCollector implements MetricCollector {
+
+    /**
+     * 窗口容量：按1秒间隔可覆盖10分钟的上报间隔
+     */
+    private static final int WINDOW_CAPACITY = 600;
+
+    @Autowired
+    private ProcFsReader procFsReader;
+
+    private final GlobalMemory memory = new SystemInfo().getHardware().getMemory();
+
+    private final long[] memoryBuffer = new long[2];
+
+    private volatile Double memoryPercent;
+
+    // 上报窗口内的逐秒采样
+    private final MetricWindow window = new MetricWindow(WINDOW_CAPACITY);
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public long getIntervalMs() {
+        return 1000;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public void collect() {
+        long totalMemory;
+        long availableMemory;
+        if (procFsReader.readMemory(memoryBuffer)) {
+            totalMemory = memoryBuffer[0];
+            availableMemory = memoryBuffer[1];
+        } else {
+            totalMemory = memory.getTotal();
+            availableMemory = memory.getAvailable();
+        }
+        double percent = (double) (totalMemory - availableMemory) / totalMemory * 100;
+        memoryPercent = percent;
+        window.add(percent);
+    }
+
+    @Override
+    public void contribute(Metrics metrics) {
+        metrics.setMemoryPercent(memoryPercent);
+    }
+
+    @Override
+    public void drainWindow(Metrics metrics) {
+        metrics.setMemorySummary(window.drain());
+    }
+}
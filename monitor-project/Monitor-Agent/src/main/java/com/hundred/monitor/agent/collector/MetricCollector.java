@@ -0,0 +1,58 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+
+/**
+ * 指标采集器SPI
+ * 每个采集器声明自己的采集间隔与开销，由CollectorScheduler独立调度；
+ * collect()只更新采集器内部的最新值，contribute()把最新值写入上报对象，
+ * 上报时不会触发任何实际采集；contribute()不改变采集器状态，可重复调用。
+ * 带采样窗口的采集器在drainWindow()中结束当前窗口，由上报路径每个上报周期显式调用一次
+ */
+public interface MetricCollector {
+
+    /**
+     * 采集器名称，用于日志与配置覆盖（collection.intervals）
+     */
+    String getName();
+
+    /**
+     * 默认采集间隔（毫秒）
+     */
+    long getIntervalMs();
+
+    /**
+     * 采集开销，高开销采集器在独立线程池运行，避免拖慢低开销采集器
+     */
+    Cost getCost();
+
+    /**
+     * 执行一次采集并更新最新值
+     */
+    void collect();
+
+    /**
+     * 将最新值写入上报对象，尚未采集到数据时不写入
+     */
+    void contribute(Metrics metrics);
+
+    /**
+     * 将当前采样窗口的汇总写入上报对象并开始新窗口，没有采样窗口的采集器无需实现
+     */
+    default void drainWindow(Metrics metrics) {
+    }
+
+    /**
+     * 采集开销
+     */
+    enum Cost {
+        /**
+         * 微秒级，可高频运行
+         */
+        CHEAP,
+        /**
+         * 涉及系统调用较多或可能阻塞
+         */
+        EXPENSIVE
+    }
+}
@@ -0,0 +1,81 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics.MetricSummary;
+
+import java.util.Arrays;
+
+/**
+ * 指标采样窗口
+ * 固定容量的double环形缓冲区，高频采样写入，上报时汇总为min/max/avg/p95/last并清空；
+ * 窗口内样本超过容量时保留最近的样本
+ */
+public class MetricWindow {
+
+    private final double[] samples;
+
+    // p95排序使用的预分配数组
+    private final double[] scratch;
+
+    // 下一个写入位置
+    private int head;
+
+    // 当前窗口样本数
+    private int size;
+
+    private double last = Double.NaN;
+
+    public MetricWindow(int capacity) {
+        this.samples = new double[capacity];
+        this.scratch = new double[capacity];
+    }
+
+    /**
+     * 写入一个样本
+     */
+    public synchronized void add(double value) {
+        samples[head] = value;
+        head = (head + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        last = value;
+    }
+
+    /**
+     * 汇总当前窗口并开始新窗口
+     *
+     * @return 窗口汇总，窗口内没有样本时返回null
+     */
+    public synchronized MetricSummary drain() {
+        if (size == 0) {
+            return null;
+        }
+
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double sum = 0;
+        int start = (head - size + samples.length) % samples.length;
+        for (int i = 0; i < size; i++) {
+            double value = samples[(start + i) % samples.length];
+            scratch[i] = value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        // 最近秩法计算p95
+        Arrays.sort(scratch, 0, size);
+        int rank = (int) Math.ceil(0.95 * size) - 1;
+
+        MetricSummary summary = new MetricSummary();
+        summary.setMin(min);
+        summary.setMax(max);
+        summary.setAvg(sum / size);
+        summary.setP95(scratch[Math.max(rank, 0)]);
+        summary.setLast(last);
+        summary.setCount(size);
+
+        size = 0;
+        return summary;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+
+/**
+ * 网络速率采集器
+ * 速率为相邻两次采集之间的平均值
+ */
+@Component
+public class NetworkCollector implements MetricCollector {
+
+    @Autowired
+    private ProcFsReader procFsReader;
+
+    private final HardwareAbstractionLayer hardware = new SystemInfo().getHardware();
+
+    private final long[] counterBuffer = new long[2];
+
+    // 网络速率计算需要的上次状态（仅调度线程访问）
+    private long lastNetworkBytesReceived = 0;
+    private long lastNetworkBytesSent = 0;
+    private long lastNetworkTimestamp = 0;
+
+    private volatile Rate latest;
+
+    @Override
+    public String getName() {
+        return "network";
+    }
+
+    @Override
+    public long getIntervalMs() {
+        return 5000;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.CHEAP;
+    }
+
+    @Override
+    public void collect() {
+        long currentTimestamp = System.currentTimeMillis();
+
+        long totalBytesReceived = 0;
+        long totalBytesSent = 0;
+
+        if (procFsReader.readNetwork(counterBuffer)) {
+            totalBytesReceived = counterBuffer[0];
+            totalBytesSent = counterBuffer[1];
+        } else {
+            for (NetworkIF netIF : hardware.getNetworkIFs()) {
+                netIF.updateAttributes();
+                totalBytesReceived += netIF.getBytesRecv();
+                totalBytesSent += netIF.getBytesSent();
+            }
+        }
+
+        if (lastNetworkTimestamp > 0) {
+            long timeDelta = currentTimestamp - lastNetworkTimestamp;
+            if (timeDelta > 0) {
+                // 转换为 Mbps: (bytes * 8) / 1000 / 1000
+                double downloadMbps = ((totalBytesReceived - lastNetworkBytesReceived) * 8.0 / timeDelta) / 1000.0;
+                double uploadMbps = ((totalBytesSent - lastNetworkBytesSent) * 8.0 / timeDelta) / 1000.0;
+                latest = new Rate(uploadMbps, downloadMbps);
+            }
+        }
+
+        lastNetworkBytesReceived = totalBytesReceived;
+        lastNetworkBytesSent = totalBytesSent;
+        lastNetworkTimestamp = currentTimestamp;
+    }
+
+    @Override
+    public void contribute(Metrics metrics) {
+        Rate rate = latest;
+        if (rate != null) {
+            metrics.setNetworkUpMbps(rate.up);
+            metrics.setNetworkDownMbps(rate.down);
+        }
+    }
+
+    private record Rate(double up, double down) {
+    }
+}
@@ -0,0 +1,469 @@
+package com.hundred.monitor.agent.collector;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Linux /proc 快速读取器
+ * 保持文件句柄常开，每次seek到开头后读入复用的字节缓冲区，
+ * 使用手写解析器直接解析数字，采集过程中基本不产生临时对象；
+ * 非Linux平台isSupported()返回false，由调用方回退到OSHI
+ */
+@Component
+public class ProcFsReader {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcFsReader.class);
+
+    /**
+     * 每个CPU行读取的tick数：user nice system idle iowait irq softirq steal
+     * 与OSHI CentralProcessor.TickType的顺序一致
+     */
+    public static final int TICK_COUNT = 8;
+
+    /**
+     * /proc/diskstats中的扇区固定为512字节
+     */
+    public static final int SECTOR_BYTES = 512;
+
+    private static final byte[] CPU = bytes("cpu");
+    private static final byte[] MEM_TOTAL = bytes("MemTotal:");
+    private static final byte[] MEM_AVAILABLE = bytes("MemAvailable:");
+
+    /**
+     * 不占用磁盘空间的伪文件系统类型，挂载点按类型过滤
+     * overlay等非/dev来源的根文件系统（如容器宿主）需要保留
+     */
+    private static final byte[][] PSEUDO_FS_TYPES = {
+            bytes("proc"), bytes("sysfs"), bytes("tmpfs"), bytes("devtmpfs"), bytes("devpts"),
+            bytes("cgroup"), bytes("cgroup2"), bytes("mqueue"), bytes("debugfs"), bytes("tracefs"),
+            bytes("securityfs"), bytes("pstore"), bytes("bpf"), bytes("autofs"), bytes("configfs"),
+            bytes("fusectl"), bytes("hugetlbfs"), bytes("binfmt_misc"), bytes("squashfs"), bytes("nsfs"),
+            bytes("rpc_pipefs"), bytes("ramfs"), bytes("efivarfs"), bytes("selinuxfs")
+    };
+
+    private final boolean supported = new File("/proc/stat").canRead();
+
+    private final ProcFile stat = new ProcFile("/proc/stat");
+    private final ProcFile meminfo = new ProcFile("/proc/meminfo");
+    private final ProcFile netDev = new ProcFile("/proc/net/dev");
+    private final ProcFile diskstats = new ProcFile("/proc/diskstats");
+    private final ProcFile mounts = new ProcFile("/proc/self/mounts");
+
+    // 网卡、磁盘是否为物理设备的判定缓存（设备名很少变化，只在首次出现时查询/sys）
+    private final DeviceCache physicalInterfaces = new DeviceCache("/sys/class/net/", "/device");
+    // 只统计带device链接的块设备，dm-*/md*等虚拟设备的IO已计入其底层物理盘
+    private final DeviceCache wholeDisks = new DeviceCache("/sys/block/", "/device");
+
+    // 解析游标
+    private byte[] buf;
+    private int pos;
+    private int limit;
+
+    /**
+     * 当前平台是否支持/proc读取
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * 读取CPU tick
+     *
+     * @param total 汇总tick，长度至少为TICK_COUNT
+     * @param cores 每个核心的tick，行数不足时只填充前面的核心
+     * @return 实际核心数，读取失败返回-1
+     */
+    public synchronized int readCpuTicks(long[] total, long[][] cores) {
+        if (!load(stat)) {
+            return -1;
+        }
+        int coreCount = 0;
+        while (pos < limit) {
+            if (!startsWith(CPU)) {
+                // cpu行都在文件开头，遇到其他行即可结束
+                break;
+            }
+            pos += CPU.length;
+            long[] target;
+            if (buf[pos] == ' ') {
+                target = total;
+            } else {
+                skipDigits();
+                target = coreCount < cores.length ? cores[coreCount] : null;
+                coreCount++;
+            }
+            for (int i = 0; i < TICK_COUNT; i++) {
+                long value = nextLong();
+                if (target != null && i < target.length) {
+                    target[i] = value;
+                }
+            }
+            nextLine();
+        }
+        return coreCount;
+    }
+
+    /**
+     * 读取内存信息
+     *
+     * @param out out[0]=总内存字节数，out[1]=可用内存字节数
+     * @return 是否读取成功
+     */
+    public synchronized boolean readMemory(long[] out) {
+        if (!load(meminfo)) {
+            return false;
+        }
+        int found = 0;
+        while (pos < limit && found < 2) {
+            if (startsWith(MEM_TOTAL)) {
+                pos += MEM_TOTAL.length;
+                out[0] = nextLong() * 1024;
+                found++;
+            } else if (startsWith(MEM_AVAILABLE)) {
+                pos += MEM_AVAILABLE.length;
+                out[1] = nextLong() * 1024;
+                found++;
+            }
+            nextLine();
+        }
+        return found == 2;
+    }
+
+    /**
+     * 读取物理网卡累计流量（排除回环与虚拟网卡）
+     *
+     * @param out out[0]=接收字节数，out[1]=发送字节数
+     * @return 是否读取成功
+     */
+    public synchronized boolean readNetwork(long[] out) {
+        if (!load(netDev)) {
+            return false;
+        }
+        long received = 0;
+        long sent = 0;
+        // 跳过两行表头
+        nextLine();
+        nextLine();
+        while (pos < limit) {
+            skipSpaces();
+            int nameStart = pos;
+            while (pos < limit && buf[pos] != ':') {
+                pos++;
+            }
+            int nameEnd = pos++;
+            if (physicalInterfaces.isPhysical(buf, nameStart, nameEnd)) {
+                // 字段：rx_bytes rx_packets errs drop fifo frame compressed multicast tx_bytes ...
+                received += nextLong();
+                for (int i = 0; i < 7; i++) {
+                    nextLong();
+                }
+                sent += nextLong();
+            }
+            nextLine();
+        }
+        out[0] = received;
+        out[1] = sent;
+        return true;
+    }
+
+    /**
+     * 读取整块磁盘的累计读写字节数（排除分区，避免重复计算）
+     *
+     * @param out out[0]=读取字节数，out[1]=写入字节数
+     * @return 是否读取成功
+     */
+    public synchronized boolean readDiskIo(long[] out) {
+        if (!load(diskstats)) {
+            return false;
+        }
+        long readSectors = 0;
+        long writtenSectors = 0;
+        while (pos < limit) {
+            // 字段：major minor name reads merged sectors_read ms writes merged sectors_written ...
+            nextLong();
+            nextLong();
+            skipSpaces();
+            int nameStart = pos;
+            while (pos < limit && buf[pos] != ' ') {
+                pos++;
+            }
+            if (wholeDisks.isPhysical(buf, nameStart, pos)) {
+                nextLong();
+                nextLong();
+                readSectors += nextLong();
+                nextLong();
+                nextLong();
+                nextLong();
+                writtenSectors += nextLong();
+            }
+            nextLine();
+        }
+        out[0] = readSectors * SECTOR_BYTES;
+        out[1] = writtenSectors * SECTOR_BYTES;
+        return true;
+    }
+
+    /**
+     * 读取实际占用存储的文件系统挂载点（按文件系统类型排除伪文件系统与重复挂载）
+     *
+     * @param out 挂载点列表，读取前会被清空
+     * @return 是否读取成功
+     */
+    public synchronized boolean readMounts(List<String> out) {
+        if (!load(mounts)) {
+            return false;
+        }
+        out.clear();
+        while (pos < limit) {
+            // 字段：device mount_point fs_type options ...
+            skipField();
+            int mountStart = pos;
+            int mountEnd = skipField();
+            int typeStart = pos;
+            int typeEnd = skipField();
+            if (!isPseudoFs(typeStart, typeEnd)) {
+                String mount = unescape(mountStart, mountEnd);
+                if (!out.contains(mount)) {
+                    out.add(mount);
+                }
+            }
+            nextLine();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void close() {
+        stat.close();
+        meminfo.close();
+        netDev.close();
+        diskstats.close();
+        mounts.close();
+    }
+
+    // ==================== 解析辅助方法 ====================
+
+    private boolean load(ProcFile file) {
+        if (!supported) {
+            return false;
+        }
+        limit = file.read();
+        buf = file.buffer;
+        pos = 0;
+        return limit > 0;
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        if (limit - pos < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf[pos + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 跳过当前以空格分隔的字段
+     *
+     * @return 字段结束位置（不含分隔空格）
+     */
+    private int skipField() {
+        while (pos < limit && buf[pos] != ' ' && buf[pos] != '\n') {
+            pos++;
+        }
+        int end = pos;
+        if (pos < limit && buf[pos] == ' ') {
+            pos++;
+        }
+        return end;
+    }
+
+    private boolean isPseudoFs(int start, int end) {
+        int len = end - start;
+        for (byte[] type : PSEUDO_FS_TYPES) {
+            if (type.length != len) {
+                continue;
+            }
+            int i = 0;
+            while (i < len && buf[start + i] == type[i]) {
+                i++;
+            }
+            if (i == len) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (pos < limit && (buf[pos] == ' ' || buf[pos] == '\t')) {
+            pos++;
+        }
+    }
+
+    private void skipDigits() {
+        while (pos < limit && buf[pos] >= '0' && buf[pos] <= '9') {
+            pos++;
+        }
+    }
+
+    /**
+     * 读取当前行内的下一个非负整数，行内没有更多数字时返回0且不跨行
+     */
+    private long nextLong() {
+        skipSpaces();
+        long value = 0;
+        while (pos < limit) {
+            byte b = buf[pos];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            pos++;
+        }
+        return value;
+    }
+
+    private void nextLine() {
+        while (pos < limit && buf[pos] != '\n') {
+            pos++;
+        }
+        pos++;
+    }
+
+    /**
+     * 还原/proc/mounts中的八进制转义（如空格为\040）
+     */
+    private String unescape(int start, int end) {
+        byte[] out = new byte[end - start];
+        int len = 0;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '\\' && i + 3 < end) {
+                out[len++] = (byte) ((buf[i + 1] - '0') * 64 + (buf[i + 2] - '0') * 8 + (buf[i + 3] - '0'));
+                i += 3;
+            } else {
+                out[len++] = buf[i];
+            }
+        }
+        return new String(out, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 常开的/proc文件，读取内容到可复用缓冲区
+     */
+    private static final class ProcFile {
+
+        private final String path;
+        private RandomAccessFile file;
+        private byte[] buffer = new byte[16 * 1024];
+
+        private ProcFile(String path) {
+            this.path = path;
+        }
+
+        /**
+         * 重新读取文件全部内容
+         *
+         * @return 读取的字节数，失败返回-1
+         */
+        private int read() {
+            try {
+                if (file == null) {
+                    file = new RandomAccessFile(path, "r");
+                }
+                file.seek(0);
+                int total = 0;
+                while (true) {
+                    if (total == buffer.length) {
+                        // 内容超出缓冲区时扩容，之后一直复用
+                        byte[] larger = new byte[buffer.length * 2];
+                        System.arraycopy(buffer, 0, larger, 0, total);
+                        buffer = larger;
+                    }
+                    int n = file.read(buffer, total, buffer.length - total);
+                    if (n < 0) {
+                        return total;
+                    }
+                    total += n;
+                }
+            } catch (IOException e) {
+                log.warn("读取{}失败: {}", path, e.getMessage());
+                close();
+                return -1;
+            }
+        }
+
+        private void close() {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException ignored) {
+                    // 关闭失败无需处理
+                }
+                file = null;
+            }
+        }
+    }
+
+    /**
+     * 设备判定缓存
+     * 根据/sys下是否存在对应路径判断设备类型，结果按设备名缓存
+     */
+    private static final class DeviceCache {
+
+        private final String prefix;
+        private final String suffix;
+        private byte[][] names = new byte[8][];
+        private boolean[] physical = new boolean[8];
+        private int size;
+
+        private DeviceCache(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        private boolean isPhysical(byte[] buf, int start, int end) {
+            int len = end - start;
+            for (int i = 0; i < size; i++) {
+                byte[] name = names[i];
+                if (name.length == len && regionEquals(name, buf, start)) {
+                    return physical[i];
+                }
+            }
+            String name = new String(buf, start, len, StandardCharsets.US_ASCII);
+            boolean result = !name.equals("lo") && new File(prefix + name + suffix).exists();
+            if (size == names.length) {
+                names = java.util.Arrays.copyOf(names, size * 2);
+                physical = java.util.Arrays.copyOf(physical, size * 2);
+            }
+            names[size] = name.getBytes(StandardCharsets.US_ASCII);
+            physical[size] = result;
+            size++;
+            return result;
+        }
+
+        private static boolean regionEquals(byte[] name, byte[] buf, int start) {
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != buf[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
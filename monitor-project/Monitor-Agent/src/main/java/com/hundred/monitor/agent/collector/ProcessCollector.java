@@ -0,0 +1,87 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Map;
+
+/**
+ * 进程状态采集器
+ * 包含SSH服务状态与配置中被监控进程的运行状态
+ */
+@Component
+public class ProcessCollector implements MetricCollector {
+
+    private static final int SSH_PORT = 22;
+
+    private static final String SSH_PROCESS = "ssh";
+
+    @Autowired
+    private ProcessWatcher processWatcher;
+
+    private volatile Metrics.SshStatus sshStatus;
+
+    private volatile Map<String, Boolean> processStatus;
+
+    @Override
+    public String getName() {
+        return "process";
+    }
+
+    @Override
+    public long getIntervalMs() {
+        return 60_000;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.EXPENSIVE;
+    }
+
+    @Override
+    public void collect() {
+        // 增量刷新进程索引
+        processWatcher.refresh();
+        sshStatus = checkSshStatus();
+        processStatus = processWatcher.getStatus();
+    }
+
+    @Override
+    public void contribute(Metrics metrics) {
+        metrics.setSshStatus(sshStatus);
+        metrics.setProcessStatus(processStatus);
+    }
+
+    /**
+     * 检查SSH服务状态
+     */
+    private Metrics.SshStatus checkSshStatus() {
+        Metrics.SshStatus status = new Metrics.SshStatus();
+        status.setPort(SSH_PORT);
+
+        // 检查SSH进程是否运行
+        status.setRunning(processWatcher.isRunning(SSH_PROCESS));
+
+        // 检查SSH端口是否监听
+        status.setPortListening(isPortListening(SSH_PORT));
+
+        return status;
+    }
+
+    /**
+     * 检查端口是否监听
+     */
+    private boolean isPortListening(int port) {
+        try {
+            // 尝试连接本地端口
+            Socket socket = new Socket(InetAddress.getByName("localhost"), port);
+            socket.close();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
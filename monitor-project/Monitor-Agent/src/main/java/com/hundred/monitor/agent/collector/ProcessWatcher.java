@@ -0,0 +1,277 @@
+package com.hundred.monitor.agent.collector;
+
+import com.hundred.monitor.agent.config.ConfigLoader;
+import com.hundred.monitor.agent.model.entity.AgentConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.software.os.OSProcess;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 进程监视器
+ * Linux下增量读取/proc，缓存PID与进程名的映射，每次刷新将/proc目录项与缓存的PID比对，
+ * 只解析新出现的PID、清理已消失的PID，并维护每个被监控名称的匹配进程数；
+ * 已缓存的PID只比较/proc/[pid]目录的修改时间（新进程会重新创建该目录），
+ * 时间变化时再按/proc/[pid]/stat中的启动时间确认是否被复用；
+ * 其他平台回退到OSHI全量扫描
+ */
+@Component
+public class ProcessWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessWatcher.class);
+
+    private static final File PROC_DIR = new File("/proc");
+
+    /**
+     * 未配置时默认监控的进程
+     */
+    private static final List<String> DEFAULT_WATCHED = List.of("sshd");
+
+    @Autowired
+    private ConfigLoader configLoader;
+
+    private final boolean procAvailable = PROC_DIR.isDirectory()
+            && Files.isReadable(Paths.get("/proc/self/comm"));
+
+    // PID -> 进程信息缓存
+    private final Map<Integer, ProcessEntry> processes = new HashMap<>();
+
+    // 监控名称（小写）-> 当前匹配的进程数
+    private final Map<String, Integer> matchCounts = new LinkedHashMap<>();
+
+    // 当前刷新代数，用于标记本轮仍存活的PID
+    private long generation = 0;
+
+    /**
+     * 刷新进程索引
+     * 代价为读取/proc目录项并对已缓存的PID各执行一次stat系统调用，
+     * 只有新增或目录时间变化的PID需要读取/proc/[pid]/stat
+     */
+    public synchronized void refresh() {
+        syncWatched(watchedFromConfig());
+
+        if (!procAvailable) {
+            scanWithOshi();
+            return;
+        }
+
+        String[] entries = PROC_DIR.list();
+        if (entries == null) {
+            return;
+        }
+
+        long current = ++generation;
+        for (String entry : entries) {
+            int pid = parsePid(entry);
+            if (pid < 0) {
+                continue;
+            }
+            ProcessEntry process = processes.get(pid);
+            ProcessEntry latest;
+            if (process != null) {
+                long dirTime = new File(PROC_DIR, entry).lastModified();
+                if (dirTime == process.dirTime) {
+                    process.generation = current;
+                    continue;
+                }
+                // 目录被重新创建（或inode缓存被回收后重建），按启动时间确认是否仍是同一进程
+                latest = readStat(pid, current);
+                if (latest != null && latest.startTime == process.startTime) {
+                    process.dirTime = latest.dirTime;
+                    process.generation = current;
+                    continue;
+                }
+                // 进程已退出或PID已被复用
+                adjustCounts(process.name, -1);
+                processes.remove(pid);
+            } else {
+                latest = readStat(pid, current);
+            }
+            if (latest == null) {
+                continue;
+            }
+            processes.put(pid, latest);
+            adjustCounts(latest.name, 1);
+        }
+
+        // 清理已退出的进程
+        Iterator<ProcessEntry> it = processes.values().iterator();
+        while (it.hasNext()) {
+            ProcessEntry process = it.next();
+            if (process.generation != current) {
+                adjustCounts(process.name, -1);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 判断名称包含指定关键字的进程是否在运行
+     * 只查询缓存的进程，不会把关键字加入监控集合，未监控的关键字按缓存的进程名现场匹配
+     */
+    public synchronized boolean isRunning(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Integer count = matchCounts.get(key);
+        if (count != null) {
+            return count > 0;
+        }
+        return countMatches(key) > 0;
+    }
+
+    /**
+     * 获取所有被监控进程的运行状态
+     */
+    public synchronized Map<String, Boolean> getStatus() {
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : matchCounts.entrySet()) {
+            status.put(entry.getKey(), entry.getValue() > 0);
+        }
+        return status;
+    }
+
+    /**
+     * 同步监控名称集合，新增的名称基于缓存的进程名重新计数
+     */
+    private void syncWatched(Collection<String> watched) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String name : watched) {
+            if (name != null && !name.isBlank()) {
+                keys.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        for (String key : keys) {
+            if (!matchCounts.containsKey(key)) {
+                addWatched(key);
+            }
+        }
+    }
+
+    private void addWatched(String key) {
+        matchCounts.put(key, countMatches(key));
+    }
+
+    private int countMatches(String key) {
+        int count = 0;
+        for (ProcessEntry process : processes.values()) {
+            if (process.name.contains(key)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void adjustCounts(String processName, int delta) {
+        for (Map.Entry<String, Integer> entry : matchCounts.entrySet()) {
+            if (processName.contains(entry.getKey())) {
+                entry.setValue(entry.getValue() + delta);
+            }
+        }
+    }
+
+    /**
+     * 非Linux平台：使用OSHI全量扫描重建计数
+     */
+    private void scanWithOshi() {
+        processes.clear();
+        matchCounts.replaceAll((key, count) -> 0);
+        try {
+            for (OSProcess process : new SystemInfo().getOperatingSystem().getProcesses()) {
+                String name = process.getName().toLowerCase(Locale.ROOT);
+                processes.put(process.getProcessID(), new ProcessEntry(name, process.getStartTime(), 0, generation));
+                adjustCounts(name, 1);
+            }
+        } catch (Exception e) {
+            log.warn("进程列表获取失败: {}", e.getMessage());
+        }
+    }
+
+    private List<String> watchedFromConfig() {
+        AgentConfig.ProcessConfig processConfig = configLoader.getConfig().getProcess();
+        if (processConfig == null || processConfig.getWatched() == null) {
+            return DEFAULT_WATCHED;
+        }
+        return processConfig.getWatched();
+    }
+
+    /**
+     * 读取进程名与启动时间（/proc/[pid]/stat），进程已退出或格式无法识别时返回null
+     * 格式为 "pid (comm) state ..."，进程名可能包含空格和括号，以最后一个')'为界；
+     * 启动时间为第22个字段（开机后的时钟节拍数），即')'之后的第20个字段
+     */
+    private ProcessEntry readStat(int pid, long generation) {
+        String dir = Integer.toString(pid);
+        // 先取目录时间再读stat，读取期间PID被复用时下次刷新会再次校验
+        long dirTime = new File(PROC_DIR, dir).lastModified();
+        Path stat = Paths.get("/proc", dir, "stat");
+        try {
+            String line = new String(Files.readAllBytes(stat), StandardCharsets.UTF_8);
+            int open = line.indexOf('(');
+            int close = line.lastIndexOf(')');
+            if (open < 0 || close < open) {
+                return null;
+            }
+            // 跳过state到第21个字段，字段之间以单个空格分隔
+            int start = close + 2;
+            for (int field = 1; field < 20 && start > 0; field++) {
+                start = line.indexOf(' ', start) + 1;
+            }
+            if (start <= 0) {
+                return null;
+            }
+            int end = line.indexOf(' ', start);
+            long startTime = Long.parseLong(line, start, end > 0 ? end : line.length(), 10);
+            String name = line.substring(open + 1, close).toLowerCase(Locale.ROOT);
+            return new ProcessEntry(name, startTime, dirTime, generation);
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int parsePid(String entry) {
+        if (entry.isEmpty() || entry.length() > 9) {
+            return -1;
+        }
+        int pid = 0;
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+
+    private static final class ProcessEntry {
+        private final String name;
+        private final long startTime;
+        // /proc/[pid]目录的修改时间，变化时需要重新校验启动时间
+        private long dirTime;
+        private long generation;
+
+        private ProcessEntry(String name, long startTime, long dirTime, long generation) {
+            this.name = name;
+            this.startTime = startTime;
+            this.dirTime = dirTime;
+            this.generation = generation;
+        }
+    }
+}
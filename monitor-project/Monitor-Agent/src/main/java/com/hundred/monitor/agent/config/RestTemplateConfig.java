@@ -1,21 +1,57 @@
 package com.hundred.monitor.agent.config;
 
+import com.hundred.monitor.agent.model.entity.AgentConfig;
+import com.hundred.monitor.commonlibrary.codec.MetricsBinaryMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
  * RestTemplate配置类
+ * 基于JDK HttpClient：连接池复用长连接，服务端支持时使用HTTP/2，
+ * 超时时间取自reporting.timeoutSec
  */
 @Configuration
 public class RestTemplateConfig {
 
+    private static final long DEFAULT_TIMEOUT_SEC = 5;
+
+    @Autowired
+    private ConfigLoader configLoader;
+
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000);
-        factory.setReadTimeout(5000);
-        return new RestTemplate(factory);
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(getTimeoutSec()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient httpClient) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofSeconds(getTimeoutSec()));
+
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getMessageConverters().add(new MetricsBinaryMessageConverter());
+        AgentConfig.ReportingConfig reporting = configLoader.getConfig().getReporting();
+        if (reporting == null || !Boolean.FALSE.equals(reporting.getCompress())) {
+            restTemplate.getInterceptors().add(new GzipRequestInterceptor());
+        }
+        return restTemplate;
+    }
+
+    private long getTimeoutSec() {
+        AgentConfig.ReportingConfig reporting = configLoader.getConfig().getReporting();
+        if (reporting == null || reporting.getTimeoutSec() == null || reporting.getTimeoutSec() <= 0) {
+            return DEFAULT_TIMEOUT_SEC;
+        }
+        return reporting.getTimeoutSec();
     }
 }
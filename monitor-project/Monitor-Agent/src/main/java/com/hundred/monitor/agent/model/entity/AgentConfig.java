@@ -2,6 +2,11 @@ package com.hundred.monitor.agent.model.entity;
 
 import lombok.Data;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 客户端配置模型
  * 对应 agent-config.yaml
@@ -29,6 +34,26 @@ public class AgentConfig {
      */
     private ReportingConfig reporting;
 
+    /**
+     * 进程监控配置
+     */
+    private ProcessConfig process;
+
+    /**
+     * 采集器配置
+     */
+    private CollectionConfig collection;
+
+    /**
+     * 本地暂存配置
+     */
+    private SpoolConfig spool;
+
+    /**
+     * 长连接通道配置
+     */
+    private StreamConfig stream;
+
     @Data
     public static class ServerConfig {
         /**
@@ -84,5 +109,82 @@ public class AgentConfig {
          * 请求超时时间（秒）
          */
         private Long timeoutSec = 5L;
+
+        /**
+         * 合并上报的最大条数，达到后立即上报；1表示每次采样单独上报
+         */
+        private Integer batchSize = 1;
+
+        /**
+         * 合并上报的最长等待时间（秒），最早一条数据等待超过该时间后立即上报
+         */
+        private Long batchMaxAgeSec = 60L;
+
+        /**
+         * 是否使用gzip压缩上报请求体
+         */
+        private Boolean compress = true;
+
+        /**
+         * 运行时数据编码格式：json 或 binary（需服务端支持application/x-monitor-metrics）
+         */
+        private String format = "json";
+    }
+
+    @Data
+    public static class ProcessConfig {
+        /**
+         * 需要监控运行状态的进程名关键字
+         */
+        private List<String> watched = new ArrayList<>(List.of("sshd"));
+    }
+
+    @Data
+    public static class CollectionConfig {
+        /**
+         * 按采集器名称覆盖采集间隔（秒），如 cpu: 1、disk: 300
+         */
+        private Map<String, Long> intervals = new HashMap<>();
+    }
+
+    @Data
+    public static class SpoolConfig {
+        /**
+         * 暂存文件路径
+         */
+        private String path = "agent-spool.dat";
+
+        /**
+         * 暂存文件大小上限（MB），写满后淘汰最旧数据；取值范围1-2047
+         */
+        private Integer maxSizeMb = 16;
+
+        /**
+         * 每次补发的最大条数
+         */
+        private Integer drainBatchSize = 20;
+
+        /**
+         * 恢复连接后开始补发前的随机等待上限（秒），避免大量Agent同时补发
+         */
+        private Integer drainJitterSec = 30;
+    }
+
+    @Data
+    public static class StreamConfig {
+        /**
+         * 是否启用长连接通道，启用后运行时数据优先通过长连接推送，服务端配置下发也走该通道
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 断线重连间隔（秒）
+         */
+        private Long reconnectIntervalSec = 30L;
+
+        /**
+         * 允许的最大未确认帧数，超过后回退到HTTP上报
+         */
+        private Integer maxUnackedFrames = 100;
     }
 }
@@ -78,6 +78,34 @@ public class ConfigUpdateService {
             merged.setReporting(current.getReporting());
         }
 
+        // 合并进程监控配置
+        if (updates.getProcess() != null) {
+            merged.setProcess(updates.getProcess());
+        } else if (current.getProcess() != null) {
+            merged.setProcess(current.getProcess());
+        }
+
+        // 合并采集器配置
+        if (updates.getCollection() != null) {
+            merged.setCollection(updates.getCollection());
+        } else if (current.getCollection() != null) {
+            merged.setCollection(current.getCollection());
+        }
+
+        // 合并本地暂存配置
+        if (updates.getSpool() != null) {
+            merged.setSpool(updates.getSpool());
+        } else if (current.getSpool() != null) {
+            merged.setSpool(current.getSpool());
+        }
+
+        // 合并长连接配置
+        if (updates.getStream() != null) {
+            merged.setStream(updates.getStream());
+        } else if (current.getStream() != null) {
+            merged.setStream(current.getStream());
+        }
+
         return merged;
     }
 }
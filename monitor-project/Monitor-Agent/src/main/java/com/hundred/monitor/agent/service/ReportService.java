@@ -2,20 +2,33 @@ package com.hundred.monitor.agent.service;
 
 import com.hundred.monitor.agent.config.ConfigLoader;
 import com.hundred.monitor.agent.model.entity.AgentConfig;
+import com.hundred.monitor.agent.spool.MetricsSpool;
+import com.hundred.monitor.agent.stream.StreamChannel;
+import com.hundred.monitor.commonlibrary.codec.MetricsBinaryCodec;
+import com.hundred.monitor.commonlibrary.codec.MetricsBinaryMessageConverter;
 import com.hundred.monitor.commonlibrary.model.BasicInfo;
 import com.hundred.monitor.commonlibrary.model.Metrics;
 import com.hundred.monitor.commonlibrary.request.BasicReportRequest;
+import com.hundred.monitor.commonlibrary.request.MetricsBatchReportRequest;
 import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
 import com.hundred.monitor.commonlibrary.response.BaseResponse;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 上报服务
@@ -26,6 +39,16 @@ public class ReportService {
 
     private static final Logger log = LoggerFactory.getLogger(ReportService.class);
 
+    /**
+     * 暂存补发检查间隔（毫秒）
+     */
+    private static final long DRAIN_INTERVAL_MS = 5000;
+
+    /**
+     * 服务端限流但未给出Retry-After时的默认等待时间（秒）
+     */
+    private static final long DEFAULT_RETRY_AFTER_SEC = 10;
+
     private final RestTemplate restTemplate;
 
     @Autowired
@@ -34,6 +57,30 @@ public class ReportService {
     @Autowired
     private ConfigLoader configLoader;
 
+    @Autowired
+    private MetricsSpool metricsSpool;
+
+    @Autowired
+    private StreamChannel streamChannel;
+
+    // 最近一次上报是否成功，失败期间不补发（启动后首次上报成功时同样随机延迟补发）
+    private volatile boolean serverAvailable = false;
+
+    // 最早允许补发的时间
+    private volatile long nextDrainAt = 0;
+
+    // 服务端限流（429）期间不上报，直接写入本地暂存
+    private volatile long throttledUntil = 0;
+
+    // 服务端没有批量接口（旧版本返回404）时改用单条接口上报
+    private volatile boolean batchUnsupported = false;
+
+    // 等待合并上报的运行时数据
+    private final List<MetricsReportRequest> pending = new ArrayList<>();
+
+    // 最早一条待合并数据的加入时间
+    private long pendingSince;
+
     @Autowired
     public ReportService(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
@@ -86,8 +133,8 @@ public class ReportService {
         }
 
         try {
-            // 采集运行时数据
-            Metrics metrics = collectService.collectMetrics();
+            // 采集运行时数据，同时结束本上报周期的采样窗口
+            Metrics metrics = collectService.collectReportMetrics();
 
             // 构造上报请求
             MetricsReportRequest request = new MetricsReportRequest();
@@ -95,18 +142,234 @@ public class ReportService {
             request.setTimestamp(Instant.now().toString());
             request.setMetrics(metrics);
 
-            // 调用服务端接口
-            doReport(request, "运行时数据");
+            // 合并到待上报列表，达到条数或等待时间上限后一次上报
+            List<MetricsReportRequest> batch = addPending(request, getReportingConfig(config));
+            if (batch != null) {
+                sendMetrics(batch);
+            }
 
         } catch (Exception e) {
             log.error("运行时数据上报异常", e);
         }
     }
 
+    /**
+     * 加入待合并列表
+     *
+     * @return 需要立即上报的数据，未达到上限时返回null
+     */
+    private List<MetricsReportRequest> addPending(MetricsReportRequest request, AgentConfig.ReportingConfig reporting) {
+        long now = System.currentTimeMillis();
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                pendingSince = now;
+            }
+            pending.add(request);
+            int batchSize = reporting.getBatchSize() != null ? reporting.getBatchSize() : 1;
+            long maxAgeMs = reporting.getBatchMaxAgeSec() != null ? reporting.getBatchMaxAgeSec() * 1000 : 0;
+            if (pending.size() < batchSize && now - pendingSince < maxAgeMs) {
+                return null;
+            }
+            List<MetricsReportRequest> batch = new ArrayList<>(pending);
+            pending.clear();
+            return batch;
+        }
+    }
+
+    /**
+     * 上报运行时数据，暂时性失败时写入本地暂存等待补发，被服务端拒绝的数据记录日志后丢弃
+     * 长连接可用时优先通过长连接推送；否则走HTTP，单条数据或服务端没有批量接口时使用单条接口
+     */
+    private void sendMetrics(List<MetricsReportRequest> batch) {
+        if (streamChannel.send(batch)) {
+            onReportSucceeded();
+            return;
+        }
+        int sent = 0;
+        if (System.currentTimeMillis() >= throttledUntil) {
+            if (batch.size() == 1 || batchUnsupported) {
+                sent = reportEach(batch, "运行时数据");
+            } else {
+                String reportType = "运行时数据(" + batch.size() + "条)";
+                sent = switch (doReport(toBatchRequest(batch), reportType)) {
+                    case SUCCESS -> batch.size();
+                    // 整批被拒绝时逐条上报，只丢弃被拒绝的数据
+                    case REJECTED -> reportEach(batch, "运行时数据");
+                    case NOT_FOUND -> {
+                        onBatchUnsupported();
+                        yield reportEach(batch, "运行时数据");
+                    }
+                    case RETRY -> 0;
+                };
+            }
+        }
+        if (sent == batch.size()) {
+            onReportSucceeded();
+            return;
+        }
+        onReportFailed();
+        for (MetricsReportRequest request : batch.subList(sent, batch.size())) {
+            metricsSpool.offer(request);
+        }
+    }
+
+    /**
+     * 按单条接口逐条上报，被拒绝的数据记录日志后跳过
+     *
+     * @return 已处理（上报成功或被拒绝丢弃）的条数，遇到暂时性失败时停止
+     */
+    private int reportEach(List<MetricsReportRequest> samples, String reportType) {
+        int done = 0;
+        for (MetricsReportRequest request : samples) {
+            ReportResult result = doReport(request, reportType);
+            // 单条接口也不存在说明服务端地址有误，按暂时性失败保留数据
+            if (result == ReportResult.RETRY || result == ReportResult.NOT_FOUND) {
+                break;
+            }
+            if (result == ReportResult.REJECTED) {
+                log.warn("{}被服务端拒绝，丢弃: timestamp={}", reportType, request.getTimestamp());
+            }
+            done++;
+        }
+        return done;
+    }
+
+    private void onBatchUnsupported() {
+        if (!batchUnsupported) {
+            batchUnsupported = true;
+            log.warn("服务端不支持批量上报接口，改用单条接口上报");
+        }
+    }
+
+    /**
+     * 退出前将尚未上报的合并数据写入本地暂存，避免丢失
+     */
+    @PreDestroy
+    public void spoolPending() {
+        synchronized (pending) {
+            for (MetricsReportRequest request : pending) {
+                metricsSpool.offer(request);
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * 补发本地暂存的运行时数据
+     * 每次按批量接口补发最早的一批，保证按时间顺序补发：暂时性失败（网络异常、5xx、429）时保留数据等待下次补发；
+     * 整批被服务端拒绝（其他4xx或响应失败）时逐条补发，被拒绝的数据记录日志后丢弃，
+     * 避免一批无法接收的数据永久阻塞之后的数据；服务端没有批量接口（404）时同样改用单条接口逐条补发
+     */
+    @Scheduled(fixedDelay = DRAIN_INTERVAL_MS)
+    public void drainSpool() {
+        long now = System.currentTimeMillis();
+        if (metricsSpool.isEmpty() || !serverAvailable || now < nextDrainAt || now < throttledUntil) {
+            return;
+        }
+
+        AgentConfig.SpoolConfig spoolConfig = getSpoolConfig(configLoader.getConfig());
+        List<MetricsReportRequest> peeked = metricsSpool.peek(spoolConfig.getDrainBatchSize());
+
+        // 无法解析的记录（null）直接丢弃
+        List<MetricsReportRequest> batch = new ArrayList<>(peeked.size());
+        for (MetricsReportRequest request : peeked) {
+            if (request != null) {
+                batch.add(request);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            metricsSpool.remove(peeked.size());
+            return;
+        }
+        ReportResult result = batchUnsupported ? ReportResult.NOT_FOUND : doReport(toBatchRequest(batch), "暂存数据");
+        switch (result) {
+            case SUCCESS -> {
+                metricsSpool.remove(peeked.size());
+                log.info("暂存数据补发{}条，剩余{}条", batch.size(), metricsSpool.size());
+            }
+            case REJECTED -> drainEach(peeked);
+            case NOT_FOUND -> {
+                onBatchUnsupported();
+                drainEach(peeked);
+            }
+            case RETRY -> onReportFailed();
+        }
+    }
+
+    /**
+     * 按单条接口逐条补发，遇到暂时性失败时停止，已上报或被拒绝丢弃的数据从暂存中移除
+     */
+    private void drainEach(List<MetricsReportRequest> peeked) {
+        int consumed = 0;
+        int processed = 0;
+        for (MetricsReportRequest request : peeked) {
+            if (request != null) {
+                if (reportEach(List.of(request), "暂存数据") == 0) {
+                    onReportFailed();
+                    break;
+                }
+                processed++;
+            }
+            consumed++;
+        }
+        metricsSpool.remove(consumed);
+        if (processed > 0) {
+            log.info("暂存数据逐条处理{}条，剩余{}条", processed, metricsSpool.size());
+        }
+    }
+
+    private MetricsBatchReportRequest toBatchRequest(List<MetricsReportRequest> samples) {
+        MetricsBatchReportRequest request = new MetricsBatchReportRequest();
+        request.setSamples(samples);
+        return request;
+    }
+
+    /**
+     * 上报成功：如果之前处于失败状态，随机延迟后再开始补发，避免大量Agent同时补发
+     */
+    private void onReportSucceeded() {
+        if (!serverAvailable) {
+            serverAvailable = true;
+            int jitterSec = getSpoolConfig(configLoader.getConfig()).getDrainJitterSec();
+            long jitterMs = jitterSec > 0 ? ThreadLocalRandom.current().nextLong(jitterSec * 1000L) : 0;
+            nextDrainAt = System.currentTimeMillis() + jitterMs;
+            log.info("服务端已恢复，{}ms后开始补发暂存数据（{}条）", jitterMs, metricsSpool.size());
+        }
+    }
+
+    private void onReportFailed() {
+        serverAvailable = false;
+    }
+
+    private boolean isBinaryFormat(AgentConfig config) {
+        return "binary".equalsIgnoreCase(getReportingConfig(config).getFormat());
+    }
+
+    /**
+     * 二进制编码不支持的数据（如非ISO格式的时间戳）改用JSON上报，避免整批编码失败
+     */
+    private boolean isBinaryEncodable(Object request) {
+        if (request instanceof MetricsBatchReportRequest batch) {
+            return batch.getSamples() != null && MetricsBinaryCodec.isEncodable(batch.getSamples());
+        }
+        return request instanceof MetricsReportRequest sample && MetricsBinaryCodec.isEncodable(sample);
+    }
+
+    private AgentConfig.ReportingConfig getReportingConfig(AgentConfig config) {
+        return config.getReporting() != null ? config.getReporting() : new AgentConfig.ReportingConfig();
+    }
+
+    private AgentConfig.SpoolConfig getSpoolConfig(AgentConfig config) {
+        return config.getSpool() != null ? config.getSpool() : new AgentConfig.SpoolConfig();
+    }
+
     /**
      * 执行上报请求
+     *
+     * @return 上报结果
      */
-    private void doReport(Object request, String reportType) {
+    private ReportResult doReport(Object request, String reportType) {
         AgentConfig config = configLoader.getConfig();
 
         try {
@@ -114,30 +377,108 @@ public class ReportService {
             String serverUrl = getRegisteredServerUrl(config);
             if (serverUrl == null) {
                 log.warn("{}上报失败：未找到可用服务端", reportType);
-                return;
+                return ReportResult.RETRY;
             }
 
             // 根据类型选择端点
-            String endpoint = request instanceof BasicReportRequest
-                    ? "/api/v1/agent/basic"
-                    : "/api/v1/agent/metrics";
+            String endpoint;
+            if (request instanceof BasicReportRequest) {
+                endpoint = "/api/v1/agent/basic";
+            } else if (request instanceof MetricsBatchReportRequest) {
+                endpoint = "/api/v1/agent/metrics/batch";
+            } else {
+                endpoint = "/api/v1/agent/metrics";
+            }
 
             String url = buildUrl(serverUrl, endpoint);
 
-            // 发送请求
-            ResponseEntity<BaseResponse> response = restTemplate.postForEntity(url, request, BaseResponse.class);
+            // 发送请求，运行时数据按配置选择编码格式
+            Object body = request;
+            if (!(request instanceof BasicReportRequest) && isBinaryFormat(config) && isBinaryEncodable(request)) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MetricsBinaryMessageConverter.MEDIA_TYPE);
+                body = new HttpEntity<>(request, headers);
+            }
+            ResponseEntity<BaseResponse> response = restTemplate.postForEntity(url, body, BaseResponse.class);
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null
-                    && response.getBody().isSuccess()) {
+            BaseResponse<?> responseBody = response.getBody();
+            if (response.getStatusCode().is2xxSuccessful() && responseBody != null && responseBody.isSuccess()) {
                 log.info("{}上报成功", reportType);
-            } else {
-                log.warn("{}上报失败，响应状态: {}", reportType, response.getStatusCode());
+                return ReportResult.SUCCESS;
             }
+            // 服务端以响应体中的状态码表示失败，与HTTP状态码按相同规则区分
+            int code = responseBody != null && responseBody.getCode() != null
+                    ? responseBody.getCode() : response.getStatusCode().value();
+            log.warn("{}上报失败，响应状态: {}, code={}, message={}", reportType, response.getStatusCode(), code,
+                    responseBody != null ? responseBody.getMessage() : null);
+            return classify(code);
+
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            // 服务端写入队列已满，按Retry-After暂停上报
+            long retryAfterSec = parseRetryAfter(e.getResponseHeaders());
+            throttledUntil = System.currentTimeMillis() + retryAfterSec * 1000;
+            log.warn("{}上报被服务端限流，{}秒后重试", reportType, retryAfterSec);
+            return ReportResult.RETRY;
+
+        } catch (HttpStatusCodeException e) {
+            log.error("{}上报失败，响应状态: {}", reportType, e.getStatusCode());
+            return classify(e.getStatusCode().value());
 
         } catch (Exception e) {
-            // 异常处理：记录日志，丢弃数据，等待下次定时触发
+            // 网络异常等暂时性失败：记录日志，运行时数据由调用方写入本地暂存
             log.error("{}上报失败: {}", reportType, e.getMessage());
+            return ReportResult.RETRY;
+        }
+    }
+
+    /**
+     * 按状态码区分失败类型：404为接口不存在，408/429与5xx为暂时性失败，其余4xx为数据被拒绝
+     */
+    private ReportResult classify(int code) {
+        if (code == 404) {
+            return ReportResult.NOT_FOUND;
+        }
+        if (code >= 400 && code < 500 && code != 408 && code != 429) {
+            return ReportResult.REJECTED;
+        }
+        return ReportResult.RETRY;
+    }
+
+    /**
+     * 上报结果
+     */
+    private enum ReportResult {
+        /**
+         * 上报成功
+         */
+        SUCCESS,
+        /**
+         * 暂时性失败（网络异常、5xx、限流），数据保留等待重试
+         */
+        RETRY,
+        /**
+         * 被服务端拒绝（4xx），重试不会成功
+         */
+        REJECTED,
+        /**
+         * 接口不存在（旧版本服务端）
+         */
+        NOT_FOUND
+    }
+
+    /**
+     * 解析Retry-After响应头（秒），缺失或格式不支持时使用默认值
+     */
+    private long parseRetryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value != null) {
+            try {
+                return Math.max(1, Long.parseLong(value.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP日期格式的Retry-After按默认值处理
+            }
         }
+        return DEFAULT_RETRY_AFTER_SEC;
     }
 
     /**
@@ -0,0 +1,145 @@
+package com.hundred.monitor.agent.spool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.agent.config.ConfigLoader;
+import com.hundred.monitor.agent.model.entity.AgentConfig;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 运行时数据本地暂存
+ * 上报失败的MetricsReportRequest序列化后写入SpoolFile，服务端恢复后按批次补发；
+ * 文件超过容量上限时淘汰最旧的数据
+ */
+@Component
+public class MetricsSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsSpool.class);
+
+    private static final long BYTES_PER_MB = 1024L * 1024;
+
+    private static final int DEFAULT_MAX_SIZE_MB = 16;
+
+    /**
+     * 暂存文件整体映射为一个MappedByteBuffer，容量不能超过Integer.MAX_VALUE字节
+     */
+    private static final int MAX_SIZE_MB = (int) (Integer.MAX_VALUE / BYTES_PER_MB);
+
+    @Autowired
+    private ConfigLoader configLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SpoolFile spoolFile;
+
+    @PostConstruct
+    public void init() {
+        AgentConfig.SpoolConfig config = getSpoolConfig();
+        try {
+            spoolFile = new SpoolFile(Paths.get(config.getPath()), (int) (resolveMaxSizeMb(config) * BYTES_PER_MB));
+            log.info("本地暂存已打开: path={}, 待补发={}", config.getPath(), spoolFile.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("本地暂存打开失败，上报失败的数据将被丢弃: path={}", config.getPath(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (spoolFile != null) {
+            try {
+                spoolFile.close();
+            } catch (IOException e) {
+                log.warn("本地暂存关闭失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 暂存一条上报失败的数据
+     */
+    public boolean offer(MetricsReportRequest request) {
+        if (spoolFile == null) {
+            return false;
+        }
+        try {
+            long evictedBefore = spoolFile.getEvicted();
+            boolean written = spoolFile.append(objectMapper.writeValueAsBytes(request));
+            spoolFile.force();
+            long evicted = spoolFile.getEvicted() - evictedBefore;
+            if (evicted > 0) {
+                log.warn("本地暂存已满，淘汰最旧数据{}条", evicted);
+            }
+            return written;
+        } catch (Exception e) {
+            log.error("运行时数据暂存失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按时间顺序读取最旧的若干条数据（不移除）
+     * 无法解析的记录以null占位，调用方按已发送处理即可
+     */
+    public List<MetricsReportRequest> peek(int max) {
+        List<MetricsReportRequest> result = new ArrayList<>();
+        if (spoolFile == null) {
+            return result;
+        }
+        for (byte[] payload : spoolFile.peek(max)) {
+            try {
+                result.add(objectMapper.readValue(payload, MetricsReportRequest.class));
+            } catch (IOException e) {
+                log.warn("暂存数据解析失败，将被丢弃: {}", e.getMessage());
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 移除最旧的若干条数据
+     */
+    public void remove(int n) {
+        if (spoolFile != null && n > 0) {
+            spoolFile.remove(n);
+            spoolFile.force();
+        }
+    }
+
+    public int size() {
+        return spoolFile == null ? 0 : spoolFile.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 校验容量配置，超出范围时使用默认值
+     */
+    private int resolveMaxSizeMb(AgentConfig.SpoolConfig config) {
+        Integer maxSizeMb = config.getMaxSizeMb();
+        if (maxSizeMb == null || maxSizeMb <= 0 || maxSizeMb > MAX_SIZE_MB) {
+            log.warn("本地暂存容量配置无效（应为1-{}MB）: maxSizeMb={}，使用默认值{}MB",
+                    MAX_SIZE_MB, maxSizeMb, DEFAULT_MAX_SIZE_MB);
+            return DEFAULT_MAX_SIZE_MB;
+        }
+        return maxSizeMb;
+    }
+
+    private AgentConfig.SpoolConfig getSpoolConfig() {
+        AgentConfig.SpoolConfig config = configLoader.getConfig().getSpool();
+        return config != null ? config : new AgentConfig.SpoolConfig();
+    }
+}
@@ -0,0 +1,221 @@
+package com.hundred.monitor.agent.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射的环形追加文件
+ * 文件大小固定，记录按追加顺序写入数据区，写满时从最旧的记录开始淘汰；
+ * 头部持久化读写位置，进程重启后可继续读取未消费的记录
+ *
+ * 布局：[头部 HEADER_SIZE][数据区]
+ * 头部：magic(int) version(int) head(long) tail(long) count(int)
+ * 记录：length(int) + payload；length为WRAP表示回绕到数据区开头
+ */
+public class SpoolFile implements Closeable {
+
+    private static final int MAGIC = 0x4D535046;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int WRAP = -1;
+
+    private static final int POS_MAGIC = 0;
+    private static final int POS_VERSION = 4;
+    private static final int POS_HEAD = 8;
+    private static final int POS_TAIL = 16;
+    private static final int POS_COUNT = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int end;
+
+    // 最旧记录位置
+    private int head;
+    // 下一次写入位置
+    private int tail;
+    // 记录数
+    private int count;
+    // 因容量不足被淘汰的记录数（本次运行）
+    private long evicted;
+
+    /**
+     * 打开或创建spool文件
+     * 文件大小与配置不一致或头部损坏时重建
+     */
+    public SpoolFile(Path path, int capacityBytes) throws IOException {
+        if (capacityBytes <= HEADER_SIZE * 2) {
+            throw new IllegalArgumentException("spool容量过小: " + capacityBytes);
+        }
+        boolean existed = Files.exists(path) && Files.size(path) == capacityBytes;
+        if (Files.exists(path) && !existed) {
+            Files.delete(path);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        this.end = capacityBytes;
+
+        if (existed && buffer.getInt(POS_MAGIC) == MAGIC && buffer.getInt(POS_VERSION) == VERSION && loadHeader()) {
+            return;
+        }
+        reset();
+    }
+
+    /**
+     * 追加一条记录，空间不足时淘汰最旧的记录
+     *
+     * @return 是否写入成功（单条记录超过数据区一半时拒绝写入）
+     */
+    public synchronized boolean append(byte[] payload) {
+        int size = 4 + payload.length;
+        if (size > (end - HEADER_SIZE) / 2) {
+            return false;
+        }
+        while (true) {
+            if (count == 0) {
+                head = HEADER_SIZE;
+                tail = HEADER_SIZE;
+            }
+            if (tail >= head) {
+                // 未回绕：可用空间为[tail, end)与[HEADER_SIZE, head)
+                if (end - tail >= size) {
+                    write(payload);
+                    return true;
+                }
+                if (head - HEADER_SIZE > size) {
+                    if (end - tail >= 4) {
+                        buffer.putInt(tail, WRAP);
+                    }
+                    tail = HEADER_SIZE;
+                    continue;
+                }
+            } else if (head - tail > size) {
+                // 已回绕：可用空间为[tail, head)
+                write(payload);
+                return true;
+            }
+            evictOldest();
+        }
+    }
+
+    /**
+     * 按顺序读取最旧的若干条记录（不移除）
+     */
+    public synchronized List<byte[]> peek(int max) {
+        List<byte[]> result = new ArrayList<>(Math.min(max, count));
+        int pos = head;
+        for (int i = 0; i < count && result.size() < max; i++) {
+            pos = normalize(pos);
+            int length = buffer.getInt(pos);
+            byte[] payload = new byte[length];
+            buffer.get(pos + 4, payload);
+            result.add(payload);
+            pos += 4 + length;
+        }
+        return result;
+    }
+
+    /**
+     * 移除最旧的若干条记录
+     */
+    public synchronized void remove(int n) {
+        for (int i = 0; i < n && count > 0; i++) {
+            advanceHead();
+        }
+        saveHeader();
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * 将映射内容刷到磁盘
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void write(byte[] payload) {
+        buffer.putInt(tail, payload.length);
+        buffer.put(tail + 4, payload);
+        tail += 4 + payload.length;
+        count++;
+        saveHeader();
+    }
+
+    private void evictOldest() {
+        advanceHead();
+        evicted++;
+    }
+
+    private void advanceHead() {
+        head = normalize(head);
+        head += 4 + buffer.getInt(head);
+        count--;
+        if (count == 0) {
+            head = HEADER_SIZE;
+            tail = HEADER_SIZE;
+        } else {
+            head = normalize(head);
+        }
+    }
+
+    /**
+     * 遇到回绕标记或剩余空间不足一个长度字段时跳回数据区开头
+     */
+    private int normalize(int pos) {
+        if (end - pos < 4 || buffer.getInt(pos) == WRAP) {
+            return HEADER_SIZE;
+        }
+        return pos;
+    }
+
+    private boolean loadHeader() {
+        long h = buffer.getLong(POS_HEAD);
+        long t = buffer.getLong(POS_TAIL);
+        int c = buffer.getInt(POS_COUNT);
+        if (h < HEADER_SIZE || h > end || t < HEADER_SIZE || t > end || c < 0) {
+            return false;
+        }
+        head = (int) h;
+        tail = (int) t;
+        count = c;
+        return true;
+    }
+
+    private void reset() {
+        head = HEADER_SIZE;
+        tail = HEADER_SIZE;
+        count = 0;
+        buffer.putInt(POS_MAGIC, MAGIC);
+        buffer.putInt(POS_VERSION, VERSION);
+        saveHeader();
+    }
+
+    private void saveHeader() {
+        buffer.putLong(POS_HEAD, head);
+        buffer.putLong(POS_TAIL, tail);
+        buffer.putInt(POS_COUNT, count);
+    }
+}
@@ -0,0 +1,313 @@
+package com.hundred.monitor.agent.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.agent.config.ConfigLoader;
+import com.hundred.monitor.agent.model.entity.AgentConfig;
+import com.hundred.monitor.agent.service.ConfigUpdateService;
+import com.hundred.monitor.agent.spool.MetricsSpool;
+import com.hundred.monitor.commonlibrary.codec.MetricsBinaryCodec;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import com.hundred.monitor.commonlibrary.response.BaseResponse;
+import com.hundred.monitor.commonlibrary.stream.StreamFrame;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 与服务端的WebSocket长连接通道
+ * <p>
+ * 运行时数据以帧的形式推送，每帧分配递增序号，服务端入库后批量回复累计确认；
+ * 断线时未确认的数据写入本地暂存，由ReportService通过HTTP补发。
+ * 服务端的配置下发也通过该通道送达，替代访问Agent自身的HTTP端口。
+ */
+@Component
+public class StreamChannel implements WebSocket.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamChannel.class);
+
+    /**
+     * 连接状态检查间隔（毫秒）
+     */
+    private static final long CHECK_INTERVAL_MS = 5000;
+
+    private static final long DEFAULT_TIMEOUT_SEC = 5;
+
+    @Autowired
+    private HttpClient httpClient;
+
+    @Autowired
+    private ConfigLoader configLoader;
+
+    @Autowired
+    private ConfigUpdateService configUpdateService;
+
+    @Autowired
+    private MetricsSpool metricsSpool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile WebSocket webSocket;
+
+    private volatile boolean connecting;
+
+    private long lastConnectAt;
+
+    // 发送序号，跨连接递增（受this保护）
+    private long nextSeq = 1;
+
+    // 已发送但未确认的帧：序号 -> 数据
+    private final ConcurrentSkipListMap<Long, List<MetricsReportRequest>> unacked = new ConcurrentSkipListMap<>();
+
+    // 分片文本帧的拼接缓冲（仅在监听线程中访问）
+    private final StringBuilder textBuffer = new StringBuilder();
+
+    /**
+     * 维护连接：启用时断线重连，禁用时关闭连接
+     */
+    @Scheduled(fixedDelay = CHECK_INTERVAL_MS)
+    public void maintain() {
+        AgentConfig config = configLoader.getConfig();
+        AgentConfig.StreamConfig streamConfig = getStreamConfig(config);
+
+        if (!Boolean.TRUE.equals(streamConfig.getEnabled())) {
+            WebSocket ws = webSocket;
+            if (ws != null) {
+                log.info("长连接已禁用，关闭连接");
+                ws.sendClose(WebSocket.NORMAL_CLOSURE, "disabled");
+                handleDisconnect(ws);
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (webSocket != null || connecting || now - lastConnectAt < streamConfig.getReconnectIntervalSec() * 1000) {
+            return;
+        }
+        URI uri = buildStreamUri(config);
+        if (uri == null) {
+            return;
+        }
+
+        lastConnectAt = now;
+        connecting = true;
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(getTimeoutSec(config)))
+                .buildAsync(uri, this)
+                .whenComplete((ws, e) -> {
+                    connecting = false;
+                    if (e != null) {
+                        log.warn("长连接建立失败: {}", e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * 通过长连接发送运行时数据
+     *
+     * @return 是否已发送；未连接、未确认帧过多或发送失败时返回false，由调用方改用HTTP上报
+     */
+    public synchronized boolean send(List<MetricsReportRequest> samples) {
+        WebSocket ws = webSocket;
+        if (ws == null || ws.isOutputClosed()) {
+            return false;
+        }
+        AgentConfig config = configLoader.getConfig();
+        if (unacked.size() >= getStreamConfig(config).getMaxUnackedFrames()) {
+            log.warn("长连接未确认帧过多（{}），改用HTTP上报", unacked.size());
+            return false;
+        }
+
+        long seq = nextSeq++;
+        // 先登记再发送：服务端的累计确认可能在发送调用返回之前到达
+        unacked.put(seq, samples);
+        try {
+            // 二进制编码不支持的数据（如非ISO格式的时间戳）改用JSON帧，不丢弃整帧
+            if ("binary".equalsIgnoreCase(getReportingConfig(config).getFormat())
+                    && MetricsBinaryCodec.isEncodable(samples)) {
+                byte[] data = MetricsBinaryCodec.encode(samples);
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + data.length);
+                buffer.putLong(seq).put(data).flip();
+                ws.sendBinary(buffer, true).get(getTimeoutSec(config), TimeUnit.SECONDS);
+            } else {
+                StreamFrame frame = new StreamFrame();
+                frame.setType(StreamFrame.TYPE_METRICS);
+                frame.setSeq(seq);
+                frame.setSamples(samples);
+                ws.sendText(objectMapper.writeValueAsString(frame), true).get(getTimeoutSec(config), TimeUnit.SECONDS);
+            }
+            return true;
+        } catch (Exception e) {
+            // 本帧由调用方改用HTTP上报，不再随断线写入本地暂存
+            unacked.remove(seq);
+            log.warn("长连接发送失败，改用HTTP上报: {}", e.getMessage());
+            ws.abort();
+            handleDisconnect(ws);
+            return false;
+        }
+    }
+
+    /**
+     * 长连接是否可用
+     */
+    public boolean isConnected() {
+        WebSocket ws = webSocket;
+        return ws != null && !ws.isOutputClosed();
+    }
+
+    @PreDestroy
+    public void close() {
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+            handleDisconnect(ws);
+        }
+    }
+
+    // ==================== WebSocket.Listener ====================
+
+    @Override
+    public void onOpen(WebSocket ws) {
+        webSocket = ws;
+        log.info("长连接已建立");
+        ws.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+        textBuffer.append(data);
+        if (last) {
+            String text = textBuffer.toString();
+            textBuffer.setLength(0);
+            handleFrame(ws, text);
+        }
+        ws.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+        log.info("长连接已关闭: code={}, reason={}", statusCode, reason);
+        handleDisconnect(ws);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket ws, Throwable error) {
+        log.warn("长连接异常: {}", error.getMessage());
+        handleDisconnect(ws);
+    }
+
+    private void handleFrame(WebSocket ws, String text) {
+        try {
+            StreamFrame frame = objectMapper.readValue(text, StreamFrame.class);
+            if (StreamFrame.TYPE_ACK.equals(frame.getType()) && frame.getSeq() != null) {
+                // 累计确认：序号及之前的帧均已入库
+                unacked.headMap(frame.getSeq(), true).clear();
+            } else if (StreamFrame.TYPE_CONFIG.equals(frame.getType())) {
+                applyConfig(ws, frame.getConfig());
+            } else {
+                log.warn("未知的长连接帧类型: {}", frame.getType());
+            }
+        } catch (Exception e) {
+            log.warn("长连接帧解析失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 应用服务端下发的配置并回复结果
+     */
+    private void applyConfig(WebSocket ws, Map<String, Object> configUpdates) throws Exception {
+        BaseResponse<?> response;
+        if (configUpdates == null) {
+            response = BaseResponse.badRequest("配置内容为空");
+        } else {
+            response = configUpdateService.updateConfig(objectMapper.convertValue(configUpdates, AgentConfig.class));
+        }
+
+        StreamFrame result = new StreamFrame();
+        result.setType(StreamFrame.TYPE_CONFIG_RESULT);
+        result.setSuccess(response.isSuccess());
+        result.setMessage(response.getMessage());
+        synchronized (this) {
+            ws.sendText(objectMapper.writeValueAsString(result), true)
+                    .get(getTimeoutSec(configLoader.getConfig()), TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 连接断开：未确认的数据写入本地暂存，等待HTTP补发
+     */
+    private synchronized void handleDisconnect(WebSocket ws) {
+        if (webSocket != ws) {
+            return;
+        }
+        webSocket = null;
+        int count = 0;
+        Map.Entry<Long, List<MetricsReportRequest>> entry;
+        while ((entry = unacked.pollFirstEntry()) != null) {
+            for (MetricsReportRequest request : entry.getValue()) {
+                metricsSpool.offer(request);
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.info("长连接断开，{}条未确认数据已写入本地暂存", count);
+        }
+    }
+
+    // ==================== 配置辅助方法 ====================
+
+    /**
+     * 根据注册的服务端地址构造长连接地址，未注册时返回null
+     */
+    private URI buildStreamUri(AgentConfig config) {
+        if (config.getAgent() == null || config.getAgent().getId() == null || config.getAgent().getId().isEmpty()) {
+            return null;
+        }
+        if (config.getServer() == null || config.getServer().getEndpoints() == null
+                || config.getServer().getEndpoints().length == 0) {
+            return null;
+        }
+        String endpoint = config.getServer().getEndpoints()[0];
+        String base;
+        if (endpoint.startsWith("https://")) {
+            base = "wss://" + endpoint.substring("https://".length());
+        } else if (endpoint.startsWith("http://")) {
+            base = "ws://" + endpoint.substring("http://".length());
+        } else {
+            base = "ws://" + endpoint;
+        }
+        String agentId = URLEncoder.encode(config.getAgent().getId(), StandardCharsets.UTF_8);
+        return URI.create(base + StreamFrame.PATH + "?agentId=" + agentId);
+    }
+
+    private long getTimeoutSec(AgentConfig config) {
+        Long timeoutSec = getReportingConfig(config).getTimeoutSec();
+        return timeoutSec != null && timeoutSec > 0 ? timeoutSec : DEFAULT_TIMEOUT_SEC;
+    }
+
+    private AgentConfig.ReportingConfig getReportingConfig(AgentConfig config) {
+        return config.getReporting() != null ? config.getReporting() : new AgentConfig.ReportingConfig();
+    }
+
+    private AgentConfig.StreamConfig getStreamConfig(AgentConfig config) {
+        return config.getStream() != null ? config.getStream() : new AgentConfig.StreamConfig();
+    }
+}
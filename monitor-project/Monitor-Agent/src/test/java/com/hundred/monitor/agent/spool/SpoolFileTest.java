@@ -0,0 +1,139 @@
+package com.hundred.monitor.agent.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpoolFileTest {
+
+    // 头部64字节，数据区448字节
+    private static final int CAPACITY = 512;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendPeekAndRemoveInOrder() throws Exception {
+        try (SpoolFile spool = new SpoolFile(dir.resolve("spool.dat"), CAPACITY)) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(spool.append(record(i)));
+            }
+
+            assertEquals(5, spool.size());
+            assertEquals(List.of("record-0", "record-1"), decode(spool.peek(2)));
+
+            spool.remove(2);
+            assertEquals(List.of("record-2", "record-3", "record-4"), decode(spool.peek(10)));
+            assertEquals(0, spool.getEvicted());
+        }
+    }
+
+    @Test
+    void wrapAroundEvictsOldestAndKeepsOrder() throws Exception {
+        try (SpoolFile spool = new SpoolFile(dir.resolve("spool.dat"), CAPACITY)) {
+            int total = 100;
+            for (int i = 0; i < total; i++) {
+                assertTrue(spool.append(record(i)));
+                assertEquals(expectedTail(spool.size(), i), decode(spool.peek(Integer.MAX_VALUE)));
+            }
+
+            // 写满后只保留最新的记录，淘汰数与保留数之和等于写入总数
+            assertTrue(spool.getEvicted() > 0);
+            assertEquals(total, spool.getEvicted() + spool.size());
+        }
+    }
+
+    @Test
+    void removeAfterWrapAround() throws Exception {
+        try (SpoolFile spool = new SpoolFile(dir.resolve("spool.dat"), CAPACITY)) {
+            int next = 0;
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 7; i++) {
+                    spool.append(record(next++));
+                }
+                spool.remove(3);
+                assertEquals(expectedTail(spool.size(), next - 1), decode(spool.peek(Integer.MAX_VALUE)));
+            }
+
+            spool.remove(spool.size());
+            assertTrue(spool.isEmpty());
+            assertTrue(spool.append(record(next)));
+            assertEquals(List.of("record-" + next), decode(spool.peek(10)));
+        }
+    }
+
+    @Test
+    void reopenKeepsUnconsumedRecords() throws Exception {
+        Path path = dir.resolve("spool.dat");
+        List<String> before;
+        try (SpoolFile spool = new SpoolFile(path, CAPACITY)) {
+            for (int i = 0; i < 40; i++) {
+                spool.append(record(i));
+            }
+            spool.remove(1);
+            before = decode(spool.peek(Integer.MAX_VALUE));
+        }
+
+        try (SpoolFile spool = new SpoolFile(path, CAPACITY)) {
+            assertEquals(before.size(), spool.size());
+            assertEquals(before, decode(spool.peek(Integer.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    void reopenWithDifferentCapacityStartsEmpty() throws Exception {
+        Path path = dir.resolve("spool.dat");
+        try (SpoolFile spool = new SpoolFile(path, CAPACITY)) {
+            spool.append(record(0));
+        }
+
+        try (SpoolFile spool = new SpoolFile(path, CAPACITY * 2)) {
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    void rejectsOversizedRecord() throws Exception {
+        try (SpoolFile spool = new SpoolFile(dir.resolve("spool.dat"), CAPACITY)) {
+            assertFalse(spool.append(new byte[CAPACITY / 2]));
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    void rejectsTooSmallCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpoolFile(dir.resolve("spool.dat"), 100));
+    }
+
+    private static byte[] record(int i) {
+        return ("record-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> decode(List<byte[]> payloads) {
+        List<String> result = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            result.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    /**
+     * 以last结尾的连续size条记录
+     */
+    private static List<String> expectedTail(int size, int last) {
+        List<String> result = new ArrayList<>(size);
+        for (int i = last - size + 1; i <= last; i++) {
+            result.add("record-" + i);
+        }
+        return result;
+    }
+}
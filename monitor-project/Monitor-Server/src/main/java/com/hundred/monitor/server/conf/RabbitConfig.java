@@ -1,15 +1,45 @@
 package com.hundred.monitor.server.conf;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitConfig {
+
+    /**
+     * 运行时数据接入队列
+     */
+    public static final String METRICS_QUEUE = "metrics";
+
+    /**
+     * 运行时数据死信交换机与死信队列：无法解析或重试后仍写入失败的消息转入死信队列，不再重新投递
+     */
+    public static final String METRICS_DEAD_LETTER_EXCHANGE = "metrics.dlx";
+
+    public static final String METRICS_DEAD_LETTER_QUEUE = "metrics.dlq";
+
+    @Value("${monitor.ingest.rabbit.concurrency:2}")
+    private int metricsConcurrency;
+
+    @Value("${monitor.ingest.rabbit.max-concurrency:8}")
+    private int metricsMaxConcurrency;
+
+    @Value("${monitor.ingest.batch-size:500}")
+    private int metricsBatchSize;
+
+    @Value("${monitor.ingest.flush-interval-ms:200}")
+    private long metricsReceiveTimeoutMs;
+
     @Bean("mailQueue")
     public Queue queue(){
         return QueueBuilder
@@ -17,6 +47,60 @@ public class RabbitConfig {
                 .build();
     }
 
+    /**
+     * 运行时数据接入队列，被拒绝的消息转入死信交换机
+     * 队列参数与已存在的同名队列不一致时RabbitMQ会拒绝声明，升级前需先删除旧的metrics队列
+     */
+    @Bean("metricsQueue")
+    public Queue metricsQueue() {
+        return QueueBuilder
+                .durable(METRICS_QUEUE)
+                .deadLetterExchange(METRICS_DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(METRICS_DEAD_LETTER_QUEUE)
+                .build();
+    }
+
+    @Bean("metricsDeadLetterExchange")
+    public DirectExchange metricsDeadLetterExchange() {
+        return new DirectExchange(METRICS_DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean("metricsDeadLetterQueue")
+    public Queue metricsDeadLetterQueue() {
+        return QueueBuilder
+                .durable(METRICS_DEAD_LETTER_QUEUE)
+                .build();
+    }
+
+    @Bean
+    public Binding metricsDeadLetterBinding() {
+        return BindingBuilder.bind(metricsDeadLetterQueue())
+                .to(metricsDeadLetterExchange())
+                .with(METRICS_DEAD_LETTER_QUEUE);
+    }
+
+    /**
+     * 运行时数据批量消费容器
+     * 每个消费者一次最多取batch-size条消息，凑不满时等待flush-interval-ms后按已取到的处理；
+     * 处理失败的消息不重新入队（避免无法处理的消息无限循环），由死信交换机转入死信队列
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory metricsListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                                MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConcurrentConsumers(metricsConcurrency);
+        factory.setMaxConcurrentConsumers(metricsMaxConcurrency);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(metricsBatchSize);
+        factory.setPrefetchCount(metricsBatchSize);
+        factory.setReceiveTimeout(metricsReceiveTimeoutMs);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -0,0 +1,18 @@
+package com.hundred.monitor.server.conf;
+
+import com.hundred.monitor.commonlibrary.codec.MetricsBinaryMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Web配置
+ * 注册运行时数据二进制转换器，客户端上报接口按Content-Type在JSON与二进制之间协商
+ */
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public MetricsBinaryMessageConverter metricsBinaryMessageConverter() {
+        return new MetricsBinaryMessageConverter();
+    }
+}
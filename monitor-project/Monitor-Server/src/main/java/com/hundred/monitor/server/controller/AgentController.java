@@ -1,19 +1,25 @@
 package com.hundred.monitor.server.controller;
 
 import com.hundred.monitor.commonlibrary.request.BasicReportRequest;
+import com.hundred.monitor.commonlibrary.request.MetricsBatchReportRequest;
 import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
 import com.hundred.monitor.commonlibrary.response.BaseResponse;
 import com.hundred.monitor.commonlibrary.response.RegisterResponse;
 import com.hundred.monitor.server.model.request.CustomerRegisterRequest;
-import com.hundred.monitor.server.service.AgentMetricsService;
 import com.hundred.monitor.server.service.AgentService;
+import com.hundred.monitor.server.service.MetricsIngestService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 /**
  * Agent控制器
  * 处理客户端注册、数据上报等请求
@@ -27,7 +33,7 @@ public class AgentController {
     private AgentService agentService;
 
     @Autowired
-    private AgentMetricsService agentMetricsService;
+    private MetricsIngestService metricsIngestService;
 
     /**
      * 客户端注册接口
@@ -72,21 +78,53 @@ public class AgentController {
 
     /**
      * 运行时数据上报接口
-     * 供客户端每15秒上报一次
+     * 供客户端每15秒上报一次，数据放入写入队列后立即返回，队列已满时返回429
      *
-     * @param request 运行时数据上报请求
+     * @param request  运行时数据上报请求
+     * @param response HTTP响应
      * @return 上报结果
      */
     @PostMapping("/agent/metrics")
-    public BaseResponse<Void> reportMetrics(@RequestBody MetricsReportRequest request) {
-        log.info("收到运行时数据上报: agentId={}", request.getAgentId());
+    public BaseResponse<Void> reportMetrics(@RequestBody MetricsReportRequest request, HttpServletResponse response) {
+        log.debug("收到运行时数据上报: agentId={}", request.getAgentId());
 
-        try {
-            agentMetricsService.saveMetrics(request);
-            return BaseResponse.success();
-        } catch (Exception e) {
-            log.error("运行时数据上报失败: agentId={}", request.getAgentId(), e);
-            return BaseResponse.error("运行时数据上报失败: " + e.getMessage());
+        if (!metricsIngestService.offer(List.of(request))) {
+            return tooManyRequests(response);
         }
+        return BaseResponse.success();
+    }
+
+    /**
+     * 运行时数据批量上报接口
+     * 供客户端合并多次采样或中继汇总多个客户端后一次上报
+     *
+     * @param request  批量上报请求
+     * @param response HTTP响应
+     * @return 上报结果
+     */
+    @PostMapping("/agent/metrics/batch")
+    public BaseResponse<Void> reportMetricsBatch(@RequestBody MetricsBatchReportRequest request,
+                                                 HttpServletResponse response) {
+        List<MetricsReportRequest> samples = request.getSamples();
+        if (samples == null || samples.isEmpty()) {
+            return BaseResponse.badRequest("上报数据为空");
+        }
+        log.debug("收到运行时数据批量上报: count={}", samples.size());
+
+        if (!metricsIngestService.offer(samples)) {
+            return tooManyRequests(response);
+        }
+        return BaseResponse.success();
+    }
+
+    /**
+     * 写入队列已满：返回429并通过Retry-After告知客户端等待时间
+     */
+    private BaseResponse<Void> tooManyRequests(HttpServletResponse response) {
+        int retryAfterSec = metricsIngestService.getRetryAfterSec();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSec));
+        log.warn("运行时数据写入队列已满，拒绝上报");
+        return BaseResponse.error(HttpStatus.TOO_MANY_REQUESTS.value(), "服务端繁忙，请" + retryAfterSec + "秒后重试");
     }
 }
@@ -1,6 +1,11 @@
 package com.hundred.monitor.server.controller;
 
 import com.hundred.monitor.commonlibrary.response.BaseResponse;
+import com.hundred.monitor.server.model.response.IngestStatsResponse;
+import com.hundred.monitor.server.model.response.RetentionReportResponse;
+import com.hundred.monitor.server.service.MetricsIngestService;
+import com.hundred.monitor.server.service.MetricsRetentionService;
+import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,6 +17,12 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api")
 public class HealthController {
 
+    @Resource
+    private MetricsIngestService metricsIngestService;
+
+    @Resource
+    private MetricsRetentionService metricsRetentionService;
+
     /**
      * 健康检查接口
      * 供客户端注册前检查服务端是否可用
@@ -23,4 +34,26 @@ public class HealthController {
         // TODO: 可扩展检查数据库连接、Redis连接等
         return BaseResponse.success();
     }
+
+    /**
+     * 运行时数据接入统计接口
+     * 返回写入缓冲区占用、拒绝次数及排队/写入时延，用于判断接入是否饱和
+     *
+     * @return 接入统计
+     */
+    @GetMapping("/health/ingest")
+    public BaseResponse<IngestStatsResponse> ingestStats() {
+        return BaseResponse.success(metricsIngestService.getStats());
+    }
+
+    /**
+     * 过期数据清理报告接口
+     * 返回最近一轮清理的各表删除行数与耗时
+     *
+     * @return 清理报告，尚未执行过时数据为空
+     */
+    @GetMapping("/health/retention")
+    public BaseResponse<RetentionReportResponse> retentionReport() {
+        return BaseResponse.success(metricsRetentionService.getLastReport());
+    }
 }
@@ -2,14 +2,21 @@ package com.hundred.monitor.server.controller;
 
 import com.hundred.monitor.server.model.response.AgentBasicInfoResponse;
 import com.hundred.monitor.commonlibrary.response.BaseResponse;
+import com.hundred.monitor.server.model.response.FleetMetricsResponse;
+import com.hundred.monitor.server.model.response.MetricsBatchHistoryResponse;
 import com.hundred.monitor.server.model.response.MetricsHistoryResponse;
 import com.hundred.monitor.server.model.response.MetricsResponse;
+import com.hundred.monitor.server.model.request.FleetMetricsRequest;
+import com.hundred.monitor.server.model.request.MetricsBatchHistoryRequest;
 import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
 import com.hundred.monitor.server.service.MonitorService;
+import com.hundred.monitor.server.websocket.AgentStreamManager;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * 前端进行监控 控制器
  */
@@ -20,6 +27,9 @@ public class MonitorController {
     @Resource
     private MonitorService monitorService;
 
+    @Resource
+    private AgentStreamManager agentStreamManager;
+
     /**
      * 获取所有监控信息
      *
@@ -48,6 +58,23 @@ public class MonitorController {
         }
     }
 
+    /**
+     * 批量获取全部主机最新监控指标
+     * 数据来自内存快照，携带上次返回的游标时只返回之后有数据变化的主机
+     *
+     * @param request 查询请求
+     * @return 各主机最新监控指标
+     */
+    @GetMapping("/metrics/latest")
+    public BaseResponse<FleetMetricsResponse> getFleetLatestMetrics(FleetMetricsRequest request) {
+        try {
+            return BaseResponse.success(monitorService.getFleetLatestMetrics(request));
+        } catch (Exception e) {
+            log.error("获取全部主机监控指标失败: request={}", request, e);
+            return BaseResponse.error("获取监控指标失败");
+        }
+    }
+
     /**
      * 获取主机历史监控指标
      *
@@ -71,4 +98,40 @@ public class MonitorController {
             return BaseResponse.error("获取历史数据失败");
         }
     }
+
+    /**
+     * 批量获取多台主机的多个历史监控指标
+     * 每台主机的数据只扫描一次，主机之间并行查询
+     *
+     * @param request 查询请求
+     * @return 各主机各指标的历史数据
+     */
+    @GetMapping("/metrics/history")
+    public BaseResponse<MetricsBatchHistoryResponse> getMetricsHistoryBatch(MetricsBatchHistoryRequest request) {
+        try {
+            return BaseResponse.success(monitorService.getMetricsHistoryBatch(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("参数错误: {}", e.getMessage());
+            return BaseResponse.badRequest(e.getMessage());
+        } catch (Exception e) {
+            log.error("批量获取历史监控数据失败: request={}", request, e);
+            return BaseResponse.error("获取历史数据失败");
+        }
+    }
+
+    /**
+     * 向主机下发配置
+     * 通过Agent建立的长连接推送，Agent未建立长连接时返回失败
+     *
+     * @param agentId       Agent ID
+     * @param configUpdates 配置更新内容，结构与Agent配置文件一致
+     * @return 下发结果
+     */
+    @PostMapping("/{agentId}/config")
+    public BaseResponse<Void> pushConfig(@PathVariable String agentId, @RequestBody Map<String, Object> configUpdates) {
+        if (!agentStreamManager.pushConfig(agentId, configUpdates)) {
+            return BaseResponse.error("客户端未建立长连接，无法下发配置");
+        }
+        return BaseResponse.success();
+    }
 }
@@ -0,0 +1,217 @@
+package com.hundred.monitor.server.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * gzip请求体解压过滤器
+ * 客户端上报数据时使用Content-Encoding: gzip压缩请求体，这里透明解压后交给后续处理。
+ * 只处理运行时数据上报接口，解压后的字节数超过上限时中止读取，防止压缩炸弹耗尽内存
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String GZIP = "gzip";
+    private static final String METRICS_REPORT_PATH = "/api/v1/agent/metrics";
+
+    /**
+     * 解压后的请求体上限（MB）
+     */
+    @Value("${monitor.ingest.max-inflated-mb:16}")
+    private long maxInflatedMb;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(METRICS_REPORT_PATH) && !path.startsWith(METRICS_REPORT_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String encoding = request.getHeader(CONTENT_ENCODING);
+        if (encoding != null && GZIP.equalsIgnoreCase(encoding.trim())) {
+            filterChain.doFilter(new GzipRequestWrapper(request, maxInflatedMb * 1024 * 1024), response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * 解压后的请求，隐藏Content-Encoding与原始Content-Length
+     */
+    private static final class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final long maxBytes;
+
+        private ServletInputStream inputStream;
+
+        private GzipRequestWrapper(HttpServletRequest request, long maxBytes) {
+            super(request);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new GzipServletInputStream(
+                        new LimitedInputStream(new GZIPInputStream(super.getInputStream()), maxBytes));
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String charset = getCharacterEncoding();
+            Charset cs = charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), cs));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (CONTENT_ENCODING.equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (CONTENT_ENCODING.equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+    private static final class GzipServletInputStream extends ServletInputStream {
+
+        private final InputStream in;
+        private boolean finished;
+
+        private GzipServletInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                finished = true;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n < 0) {
+                finished = true;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("不支持异步读取");
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * 限制读取总字节数，超出时抛出异常，由请求体解析失败返回400
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if (count > maxBytes) {
+                throw new IOException("请求体解压后超过" + maxBytes + "字节");
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hundred.monitor.server.ingest;
+
+import java.util.function.Consumer;
+
+/**
+ * 一组运行时数据的写入回调
+ * 组内每条数据写入（或最终写入失败）后计数一次，全部处理完时通知结果；
+ * 只由写入线程调用，写入线程按入队顺序处理，因此同一来源的回调按入队顺序触发
+ */
+public final class IngestCallback {
+
+    private final Consumer<Boolean> listener;
+
+    private int remaining;
+
+    private boolean failed;
+
+    /**
+     * @param samples  组内数据条数
+     * @param listener 结果监听，参数为是否全部写入成功
+     */
+    public IngestCallback(int samples, Consumer<Boolean> listener) {
+        this.remaining = samples;
+        this.listener = listener;
+    }
+
+    /**
+     * 记录组内一条数据的写入结果
+     *
+     * @return 是否为组内最后一条（已通知结果）
+     */
+    public boolean complete(boolean success) {
+        if (!success) {
+            failed = true;
+        }
+        if (--remaining != 0) {
+            return false;
+        }
+        listener.accept(!failed);
+        return true;
+    }
+}
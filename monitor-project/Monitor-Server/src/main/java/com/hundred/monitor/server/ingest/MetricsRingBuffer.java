@@ -0,0 +1,217 @@
+package com.hundred.monitor.server.ingest;
+
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 运行时数据环形缓冲区
+ * <p>
+ * 槽位在创建时预分配并循环复用。生产者（请求线程）通过CAS一次申请连续的多个序号，
+ * 写入槽位后按序号发布；消费者（唯一的写入线程）按序号顺序读取已发布的槽位。
+ * 入队路径不加锁、不分配对象，缓冲区满时立即拒绝。
+ */
+public final class MetricsRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final Slot[] slots;
+
+    // 每个槽位当前已发布的序号，消费者据此判断槽位是否可读
+    private final AtomicLongArray published;
+
+    // 下一个待申请的序号
+    private final AtomicLong claimed = new AtomicLong();
+
+    // 下一个待读取的序号（只由消费者写入）
+    private volatile long consumed;
+
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong maxOccupancy = new AtomicLong();
+
+    // 排队时延统计（只由消费者写入）
+    private volatile long drained;
+    private volatile long queueNanosTotal;
+    private volatile long queueNanosMax;
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public MetricsRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * 入队一组数据，要么全部入队，要么全部拒绝
+     *
+     * @return 是否入队成功，剩余空间不足时返回false
+     */
+    public boolean offer(List<MetricsReportRequest> samples) {
+        return offer(samples, null);
+    }
+
+    /**
+     * 入队一组数据，组内每条数据都关联同一个写入回调，由消费者在写入后完成
+     *
+     * @param callback 写入回调，可为null
+     * @return 是否入队成功，剩余空间不足时返回false
+     */
+    public boolean offer(List<MetricsReportRequest> samples, IngestCallback callback) {
+        int n = samples.size();
+        if (n == 0) {
+            return true;
+        }
+        long start;
+        do {
+            start = claimed.get();
+            if (start + n - consumed > capacity) {
+                rejected.add(n);
+                return false;
+            }
+        } while (!claimed.compareAndSet(start, start + n));
+
+        long now = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long seq = start + i;
+            int index = (int) (seq & mask);
+            Slot slot = slots[index];
+            slot.sample = samples.get(i);
+            slot.callback = callback;
+            slot.enqueuedNanos = now;
+            // volatile写保证槽位内容对消费者可见
+            published.set(index, seq);
+        }
+        offered.add(n);
+
+        long occupancy = start + n - consumed;
+        long max;
+        while (occupancy > (max = maxOccupancy.get()) && !maxOccupancy.compareAndSet(max, occupancy)) {
+            // 重试直到记录下最大占用
+        }
+        return true;
+    }
+
+    /**
+     * 按序读取已发布的数据（只能由唯一的消费者线程调用）
+     *
+     * @param out 读取结果追加到该列表
+     * @param max 最多读取的条数
+     * @return 实际读取的条数
+     */
+    public int drainTo(List<MetricsReportRequest> out, int max) {
+        return drainTo(out, null, max);
+    }
+
+    /**
+     * 按序读取已发布的数据及其写入回调（只能由唯一的消费者线程调用）
+     *
+     * @param out       读取结果追加到该列表
+     * @param callbacks 与out逐条对应的写入回调（可为null元素），为null时不收集
+     * @param max       最多读取的条数
+     * @return 实际读取的条数
+     */
+    public int drainTo(List<MetricsReportRequest> out, List<IngestCallback> callbacks, int max) {
+        long seq = consumed;
+        long now = System.nanoTime();
+        long totalNanos = 0;
+        long maxNanos = queueNanosMax;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (seq & mask);
+            if (published.get(index) != seq) {
+                break;
+            }
+            Slot slot = slots[index];
+            out.add(slot.sample);
+            if (callbacks != null) {
+                callbacks.add(slot.callback);
+            }
+            long waited = now - slot.enqueuedNanos;
+            totalNanos += waited;
+            if (waited > maxNanos) {
+                maxNanos = waited;
+            }
+            slot.sample = null;
+            slot.callback = null;
+            seq++;
+            count++;
+        }
+        if (count > 0) {
+            drained += count;
+            queueNanosTotal += totalNanos;
+            queueNanosMax = maxNanos;
+            // volatile写释放槽位给生产者
+            consumed = seq;
+        }
+        return count;
+    }
+
+    /**
+     * 是否没有待读取的数据（含已申请未发布的槽位）
+     */
+    public boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 当前占用的槽位数
+     */
+    public long getOccupancy() {
+        return claimed.get() - consumed;
+    }
+
+    public long getMaxOccupancy() {
+        return maxOccupancy.get();
+    }
+
+    public long getOffered() {
+        return offered.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDrained() {
+        return drained;
+    }
+
+    /**
+     * 累计排队时延（纳秒）
+     */
+    public long getQueueNanosTotal() {
+        return queueNanosTotal;
+    }
+
+    /**
+     * 最大排队时延（纳秒）
+     */
+    public long getQueueNanosMax() {
+        return queueNanosMax;
+    }
+
+    /**
+     * 可复用的数据槽位
+     */
+    private static final class Slot {
+        private MetricsReportRequest sample;
+        private IngestCallback callback;
+        private long enqueuedNanos;
+    }
+}
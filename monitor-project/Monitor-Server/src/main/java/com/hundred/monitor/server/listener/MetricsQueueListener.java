@@ -0,0 +1,103 @@
+package com.hundred.monitor.server.listener;
+
+import com.hundred.monitor.commonlibrary.request.MetricsBatchReportRequest;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import com.hundred.monitor.server.conf.RabbitConfig;
+import com.hundred.monitor.server.service.AgentMetricsService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 运行时数据队列消费者
+ * 仅在rabbit接入模式下启用；多个服务端节点可同时消费同一队列，独立扩展写入能力
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.ingest.mode", havingValue = "rabbit")
+public class MetricsQueueListener {
+
+    /**
+     * 整批写入的最大尝试次数
+     */
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    @Resource
+    AgentMetricsService agentMetricsService;
+
+    @Resource
+    RabbitTemplate rabbitTemplate;
+
+    /**
+     * 批量消费并写入数据库
+     * 整批写入失败时有限次重试，仍失败则逐条消息写入，只把写入失败的消息转入死信队列，
+     * 避免一条无法写入的数据阻塞整批消息并无限重新投递
+     *
+     * @param reports 一批上报请求，每条可包含多条运行时数据
+     */
+    @RabbitListener(queues = RabbitConfig.METRICS_QUEUE,
+            containerFactory = "metricsListenerContainerFactory",
+            autoStartup = "${monitor.ingest.rabbit.consumer-enabled:true}")
+    public void consume(List<MetricsBatchReportRequest> reports) throws InterruptedException {
+        List<MetricsReportRequest> samples = new ArrayList<>();
+        for (MetricsBatchReportRequest report : reports) {
+            if (report.getSamples() != null) {
+                samples.addAll(report.getSamples());
+            }
+        }
+        if (!samples.isEmpty() && !saveWithRetry(samples)) {
+            saveEach(reports);
+        }
+        log.debug("运行时数据队列消费完成: messages={}, samples={}", reports.size(), samples.size());
+    }
+
+    /**
+     * 整批写入，失败时按递增间隔重试
+     *
+     * @return 是否写入成功
+     */
+    private boolean saveWithRetry(List<MetricsReportRequest> samples) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                agentMetricsService.saveMetricsBatch(samples);
+                return true;
+            } catch (Exception e) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    log.warn("运行时数据队列整批写入失败，改为逐条消息写入: samples={}, error={}",
+                            samples.size(), e.getMessage());
+                    return false;
+                }
+                log.warn("运行时数据队列整批写入失败，{}ms后重试: {}", RETRY_BACKOFF_MS * attempt, e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 逐条消息写入，写入失败的消息转入死信队列
+     */
+    private void saveEach(List<MetricsBatchReportRequest> reports) {
+        for (MetricsBatchReportRequest report : reports) {
+            if (report.getSamples() == null || report.getSamples().isEmpty()) {
+                continue;
+            }
+            try {
+                agentMetricsService.saveMetricsBatch(report.getSamples());
+            } catch (Exception e) {
+                log.error("运行时数据写入失败，消息转入死信队列: samples={}", report.getSamples().size(), e);
+                // 转发失败时抛出异常，整批消息由容器拒绝后经死信交换机转入死信队列
+                rabbitTemplate.convertAndSend(RabbitConfig.METRICS_DEAD_LETTER_EXCHANGE,
+                        RabbitConfig.METRICS_DEAD_LETTER_QUEUE, report);
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.hundred.monitor.server.manager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.server.model.entity.AgentDiskMetrics;
+import com.hundred.monitor.server.model.entity.AgentMetrics;
+import com.hundred.monitor.server.model.response.MetricsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 最新监控指标缓存 - 按Agent保存最近一次上报的数据
+ * 入库后由写入路径更新，直接保存为响应结构，查询最新指标时无需访问数据库；
+ * 缓存中没有的Agent（如服务刚启动）由调用方从存储加载后回填。
+ * 多节点部署时数据可能由其他节点写入（如rabbit模式下的竞争消费者或不消费的节点），
+ * 因此缓存项只在max-age内有效，超时后视为未缓存，由调用方重新从存储加载。
+ * 每次更新分配递增的版本号，客户端携带上次拿到的版本号即可只获取之后有变化的Agent
+ */
+@Component
+@Slf4j
+public class LatestMetricsCache {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 缓存项最长有效时间（毫秒），超过后需从存储重新确认
+     */
+    @Value("${monitor.latest.max-age-ms:10000}")
+    private long maxAgeMs;
+
+    /**
+     * Agent ID到最新数据的映射
+     */
+    private final Map<String, Entry> latest = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次分配的版本号
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 更新时持读锁（相互不阻塞），读取版本号时持写锁，
+     * 保证读到的版本号之前的更新都已写入映射
+     */
+    private final ReadWriteLock versionLock = new ReentrantReadWriteLock();
+
+    /**
+     * 获取Agent的最新指标
+     *
+     * @param agentId Agent ID
+     * @return 最新指标，未缓存或已超过有效时间时返回null
+     */
+    public MetricsResponse get(String agentId) {
+        Entry entry = latest.get(agentId);
+        return entry != null && isFresh(entry) ? entry.response : null;
+    }
+
+    /**
+     * 更新Agent的最新指标
+     * 补发的历史数据可能晚于新数据到达，只有采集时间不早于已缓存数据时才会替换；
+     * 未替换时仍刷新缓存项的有效时间，版本号不变
+     *
+     * @param metrics 已入库的监控数据
+     * @return 更新后该Agent的最新指标
+     */
+    public MetricsResponse update(AgentMetrics metrics) {
+        MetricsResponse response = toResponse(metrics);
+        versionLock.readLock().lock();
+        try {
+            return latest.compute(metrics.getAgentId(), (agentId, old) -> {
+                long now = System.nanoTime();
+                if (old != null && !isNewer(metrics.getTimestamp(), old.timestamp)) {
+                    return new Entry(old.timestamp, old.response, old.version, now);
+                }
+                // 在compute中分配版本号，保证同一Agent的版本号与替换顺序一致
+                return new Entry(metrics.getTimestamp(), response, version.incrementAndGet(), now);
+            }).response;
+        } finally {
+            versionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 批量更新，同一批次中同一Agent只转换最新的一条
+     *
+     * @param metricsList 已入库的监控数据
+     */
+    public void updateAll(List<AgentMetrics> metricsList) {
+        Map<String, AgentMetrics> newest = new HashMap<>();
+        for (AgentMetrics metrics : metricsList) {
+            newest.merge(metrics.getAgentId(), metrics, (old, now) ->
+                    old.getTimestamp() != null && now.getTimestamp() != null
+                            && now.getTimestamp().isBefore(old.getTimestamp()) ? old : now);
+        }
+        newest.values().forEach(this::update);
+    }
+
+    /**
+     * 当前版本号，作为下次增量查询的起点
+     * 应在读取变化数据之前获取，读取期间发生的更新可能重复返回，但不会遗漏
+     */
+    public long getVersion() {
+        versionLock.writeLock().lock();
+        try {
+            return version.get();
+        } finally {
+            versionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取版本号大于since的最新指标
+     *
+     * @param since 上次查询返回的版本号，0表示全部
+     * @return 有变化的Agent的最新指标，顺序不确定
+     */
+    public List<MetricsResponse> getChangedSince(long since) {
+        List<MetricsResponse> result = new ArrayList<>();
+        for (Entry entry : latest.values()) {
+            if (entry.version > since) {
+                result.add(entry.response);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否已缓存该Agent且未超过有效时间
+     */
+    public boolean isFresh(String agentId) {
+        Entry entry = latest.get(agentId);
+        return entry != null && isFresh(entry);
+    }
+
+    /**
+     * 缓存项有效时间（毫秒）
+     */
+    public long getMaxAgeMs() {
+        return maxAgeMs;
+    }
+
+    private boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.refreshedAt < TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+    }
+
+    private boolean isNewer(LocalDateTime now, LocalDateTime old) {
+        return old == null || now == null || !now.isBefore(old);
+    }
+
+    /**
+     * 转换为响应结构
+     */
+    private MetricsResponse toResponse(AgentMetrics metrics) {
+        MetricsResponse.MetricsResponseBuilder builder = MetricsResponse.builder()
+                .agentId(metrics.getAgentId())
+                .cpuPercent(toDouble(metrics.getCpuPercent()))
+                .memoryPercent(toDouble(metrics.getMemoryPercent()))
+                .cpuMaxPercent(toDouble(metrics.getCpuMaxPercent()))
+                .memoryMaxPercent(toDouble(metrics.getMemoryMaxPercent()))
+                .networkUpMbps(toDouble(metrics.getNetworkUpMbps()))
+                .networkDownMbps(toDouble(metrics.getNetworkDownMbps()))
+                .sshRunning(metrics.getSshRunning())
+                .sshPortListening(metrics.getSshPortListening())
+                .sshPort(metrics.getSshPort())
+                .timestamp(metrics.getTimestamp() != null ? metrics.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+
+        // 解析磁盘使用信息
+        if (metrics.getDisks() != null && !metrics.getDisks().isEmpty()) {
+            builder.diskUsages(toDiskUsages(metrics.getDisks()));
+        } else if (metrics.getDiskUsages() != null && !metrics.getDiskUsages().isEmpty()) {
+            // 旧版本数据
+            builder.diskUsages(parseDiskUsages(metrics.getDiskUsages()));
+        }
+
+        return builder.build();
+    }
+
+    private Double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : null;
+    }
+
+    /**
+     * 转换各挂载点磁盘使用信息
+     */
+    private List<MetricsResponse.DiskUsage> toDiskUsages(List<AgentDiskMetrics> disks) {
+        List<MetricsResponse.DiskUsage> result = new ArrayList<>(disks.size());
+        for (AgentDiskMetrics disk : disks) {
+            result.add(MetricsResponse.DiskUsage.builder()
+                    .mount(disk.getMount())
+                    .name(disk.getMount())
+                    .totalGb(disk.getTotalGb())
+                    .usedGb(disk.getUsedGb())
+                    .usagePercent(toDouble(disk.getUsedPercent()))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * 解析旧版本的磁盘使用信息JSON
+     */
+    private List<MetricsResponse.DiskUsage> parseDiskUsages(String diskUsagesJson) {
+        try {
+            List<MetricsResponse.DiskUsage> result = new ArrayList<>();
+
+            if (diskUsagesJson == null || diskUsagesJson.trim().isEmpty()) {
+                return result;
+            }
+
+            // 解析 JSON
+            JsonNode rootNode = objectMapper.readTree(diskUsagesJson);
+
+            // 如果是数组格式：[{"mount":"..."}, ...]
+            if (rootNode.isArray()) {
+                for (JsonNode node : rootNode) {
+                    MetricsResponse.DiskUsage usage = parseSingleDiskUsage(node);
+                    if (usage != null) {
+                        result.add(usage);
+                    }
+                }
+            }
+            // 如果是单个对象格式：{"mount":"..."}
+            else if (rootNode.isObject()) {
+                MetricsResponse.DiskUsage usage = parseSingleDiskUsage(rootNode);
+                if (usage != null) {
+                    result.add(usage);
+                }
+            }
+
+            return result;
+        } catch (Exception e) {
+            log.warn("解析磁盘使用信息失败: json={}", diskUsagesJson, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 解析单个磁盘使用信息
+     */
+    private MetricsResponse.DiskUsage parseSingleDiskUsage(JsonNode node) {
+        try {
+            String mount = node.has("mount") ? node.get("mount").asText() : "";
+            String name = node.has("name") ? node.get("name").asText() : mount;
+            Long totalGb = node.has("totalGb") ? node.get("totalGb").asLong() : null;
+            Long usedGb = node.has("usedGb") ? node.get("usedGb").asLong() : null;
+            Double usagePercent = node.has("usagePercent") ? node.get("usagePercent").asDouble() : null;
+            // 兼容 usedPercent 字段名
+            if (usagePercent == null && node.has("usedPercent")) {
+                usagePercent = node.get("usedPercent").asDouble();
+            }
+
+            return MetricsResponse.DiskUsage.builder()
+                    .mount(mount)
+                    .name(name)
+                    .totalGb(totalGb)
+                    .usedGb(usedGb)
+                    .usagePercent(usagePercent)
+                    .build();
+        } catch (Exception e) {
+            log.warn("解析单个磁盘使用信息失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    private static final class Entry {
+
+        private final LocalDateTime timestamp;
+        private final MetricsResponse response;
+        private final long version;
+
+        /**
+         * 最近一次由写入路径或存储确认的时间（System.nanoTime）
+         */
+        private final long refreshedAt;
+
+        private Entry(LocalDateTime timestamp, MetricsResponse response, long version, long refreshedAt) {
+            this.timestamp = timestamp;
+            this.response = response;
+            this.version = version;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.hundred.monitor.server.manager;
+
+import com.hundred.monitor.server.mapper.MetricsPartitionMapper;
+import com.hundred.monitor.server.model.entity.MetricsPartition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 监控数据分区管理器 - 维护agent_metrics与agent_disk_metrics的按天分区
+ * 定时从兜底分区p_future拆分出未来几天的分区，过期分区由保留策略整体删除，
+ * 删除分区只修改元数据，代价与分区内的数据量无关
+ */
+@Component
+@Slf4j
+public class MetricsPartitionManager {
+
+    /**
+     * 按天分区的表
+     */
+    public static final List<String> TABLES = List.of("agent_metrics", "agent_disk_metrics");
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private static final Pattern DAY_PARTITION = Pattern.compile("p\\d{8}");
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private MetricsPartitionMapper partitionMapper;
+
+    @Value("${monitor.partition.enabled:true}")
+    private boolean enabled;
+
+    @Value("${monitor.partition.pre-create-days:3}")
+    private int preCreateDays;
+
+    /**
+     * 未分区的表（旧版本建表），检测到后不再维护
+     */
+    private final Set<String> unpartitioned = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 定时预建分区，启动时立即执行一次
+     */
+    @Scheduled(fixedDelayString = "${monitor.partition.interval-ms:3600000}")
+    public void scheduledMaintain() {
+        if (!enabled) {
+            return;
+        }
+        for (String table : TABLES) {
+            try {
+                createPartitions(table);
+            } catch (Exception e) {
+                log.error("监控数据分区预建失败: table={}", table, e);
+            }
+        }
+    }
+
+    /**
+     * 预建从最后一个按天分区到今天之后preCreateDays天的分区
+     * 首次拆分时今天的分区同时容纳此前的全部数据，随今天的分区一起过期
+     *
+     * @param table 表名
+     * @return 新建分区数
+     */
+    public synchronized int createPartitions(String table) {
+        if (unpartitioned.contains(table)) {
+            return 0;
+        }
+        List<MetricsPartition> partitions = partitionMapper.selectPartitions(table);
+        if (!checkPartitioned(table, partitions)) {
+            return 0;
+        }
+
+        LocalDate lastDay = null;
+        for (MetricsPartition partition : partitions) {
+            LocalDate day = parseDay(partition.getName());
+            if (day != null && (lastDay == null || day.isAfter(lastDay))) {
+                lastDay = day;
+            }
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = lastDay != null ? lastDay.plusDays(1) : today;
+        LocalDate until = today.plusDays(preCreateDays);
+        if (from.isAfter(until)) {
+            return 0;
+        }
+
+        StringJoiner definitions = new StringJoiner(", ");
+        int count = 0;
+        for (LocalDate day = from; !day.isAfter(until); day = day.plusDays(1)) {
+            // 上界使用本地时间字面量，由数据库按会话时区换算，与TIMESTAMP列的存储方式一致
+            definitions.add("PARTITION " + day.format(NAME_FORMAT) + " VALUES LESS THAN (UNIX_TIMESTAMP('"
+                    + day.plusDays(1).atStartOfDay().format(BOUND_FORMAT) + "'))");
+            count++;
+        }
+        partitionMapper.reorganizeFuturePartition(table, definitions.toString());
+        log.info("监控数据分区已预建: table={}, from={}, until={}, count={}", table, from, until, count);
+        return count;
+    }
+
+    /**
+     * 删除过期分区
+     * 按时间顺序删除整天都早于截止时间、且ID均不大于maxId的分区，遇到不满足条件的分区即停止
+     *
+     * @param table  表名
+     * @param before 截止时间
+     * @param maxId  可删除的最大ID（如已汇总的原始数据最大ID），不限制时传Long.MAX_VALUE
+     * @return 删除分区的估算行数
+     */
+    public synchronized long dropExpiredPartitions(String table, LocalDateTime before, long maxId) {
+        if (!enabled || unpartitioned.contains(table)) {
+            return 0;
+        }
+        List<MetricsPartition> partitions = partitionMapper.selectPartitions(table);
+        if (!checkPartitioned(table, partitions)) {
+            return 0;
+        }
+
+        long rows = 0;
+        for (MetricsPartition partition : partitions) {
+            LocalDate day = parseDay(partition.getName());
+            if (day == null) {
+                continue;
+            }
+            if (day.plusDays(1).atStartOfDay().isAfter(before)
+                    || (maxId != Long.MAX_VALUE && partitionMapper.selectMaxIdInPartition(table, partition.getName()) > maxId)) {
+                break;
+            }
+            partitionMapper.dropPartition(table, partition.getName());
+            rows += partition.getTableRows() != null ? partition.getTableRows() : 0;
+            log.info("过期监控数据分区已删除: table={}, partition={}, rows≈{}", table, partition.getName(),
+                    partition.getTableRows());
+        }
+        return rows;
+    }
+
+    /**
+     * 表是否按预期分区，未分区时记录一次警告并停止维护
+     */
+    private boolean checkPartitioned(String table, List<MetricsPartition> partitions) {
+        boolean hasFuture = partitions.stream().anyMatch(p -> FUTURE_PARTITION.equals(p.getName()));
+        if (!hasFuture) {
+            unpartitioned.add(table);
+            log.warn("{}未按天分区（缺少{}分区），跳过分区维护，过期数据按批删除", table, FUTURE_PARTITION);
+        }
+        return hasFuture;
+    }
+
+    /**
+     * 解析按天分区名对应的日期，非按天分区返回null
+     */
+    private LocalDate parseDay(String name) {
+        if (name == null || !DAY_PARTITION.matcher(name).matches()) {
+            return null;
+        }
+        return LocalDate.parse(name.substring(1), DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
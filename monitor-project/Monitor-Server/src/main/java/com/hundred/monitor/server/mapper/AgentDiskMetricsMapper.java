@@ -0,0 +1,66 @@
+package com.hundred.monitor.server.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.hundred.monitor.server.model.entity.AgentDiskMetrics;
+import com.hundred.monitor.server.model.entity.MetricsBucket;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Agent磁盘监控数据Mapper
+ */
+@Mapper
+public interface AgentDiskMetricsMapper extends BaseMapper<AgentDiskMetrics> {
+
+    /**
+     * 多行批量插入
+     *
+     * @param list 磁盘监控数据列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO agent_disk_metrics (agent_id, mount, used_percent, used_gb, total_gb, timestamp) VALUES " +
+            "<foreach collection='list' item='d' separator=','>" +
+            "(#{d.agentId}, #{d.mount}, #{d.usedPercent}, #{d.usedGb}, #{d.totalGb}, #{d.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<AgentDiskMetrics> list);
+
+    /**
+     * 分批删除过期数据
+     *
+     * @param before 删除该时间之前的数据
+     * @param limit  本批最多删除行数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM agent_disk_metrics WHERE timestamp < #{before} LIMIT #{limit}")
+    int deleteBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 在数据库中按时间桶聚合单个挂载点的使用率，每个时间桶只返回一行
+     *
+     * @param agentId   Agent ID
+     * @param mount     挂载点
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @param interval  时间桶间隔（秒）
+     * @return 按时间桶升序的聚合结果
+     */
+    @Select("<script>" +
+            "SELECT " + AgentMetricsMapper.BUCKET_TIME + " AS bucket_time, SUM(used_percent) AS value_sum, " +
+            "COUNT(used_percent) AS value_count, MIN(used_percent) AS value_min, MAX(used_percent) AS value_max " +
+            "FROM agent_disk_metrics WHERE agent_id = #{agentId} AND mount = #{mount} " +
+            "AND timestamp &gt;= #{startTime} AND timestamp &lt;= #{endTime} AND used_percent IS NOT NULL " +
+            "GROUP BY bucket_time ORDER BY bucket_time" +
+            "</script>")
+    List<MetricsBucket> selectBuckets(@Param("agentId") String agentId, @Param("mount") String mount,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime,
+                                      @Param("interval") int interval);
+}
@@ -2,11 +2,105 @@ package com.hundred.monitor.server.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.hundred.monitor.server.model.entity.AgentMetrics;
+import com.hundred.monitor.server.model.entity.AgentMetricsRollup;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Agent监控数据Mapper
  */
 @Mapper
 public interface AgentMetricsMapper extends BaseMapper<AgentMetrics> {
+
+    /**
+     * 时间桶起点（秒级时间戳）：小时级以下按整点对齐，天级间隔按本地日期对齐，与MetricBuckets一致
+     */
+    String BUCKET_TIME = "<choose>" +
+            "<when test='interval % 86400 == 0'>UNIX_TIMESTAMP(DATE(timestamp))</when>" +
+            "<otherwise>FLOOR(UNIX_TIMESTAMP(timestamp) / ${interval}) * ${interval}</otherwise>" +
+            "</choose>";
+
+    /**
+     * 多行批量插入
+     *
+     * @param list 监控数据列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO agent_metrics (agent_id, cpu_percent, memory_percent, cpu_max_percent, memory_max_percent, " +
+            "disk_usages, disk_max_percent, network_up_mbps, network_down_mbps, ssh_running, ssh_port_listening, ssh_port, timestamp) VALUES " +
+            "<foreach collection='list' item='m' separator=','>" +
+            "(#{m.agentId}, #{m.cpuPercent}, #{m.memoryPercent}, #{m.cpuMaxPercent}, #{m.memoryMaxPercent}, " +
+            "#{m.diskUsages}, #{m.diskMaxPercent}, #{m.networkUpMbps}, #{m.networkDownMbps}, #{m.sshRunning}, #{m.sshPortListening}, " +
+            "#{m.sshPort}, #{m.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<AgentMetrics> list);
+
+    /**
+     * 分批删除过期数据，每次只删除少量行，避免长时间持有锁
+     *
+     * @param before 删除该时间之前的数据
+     * @param maxId  只删除ID不大于该值的数据（已计入汇总表）
+     * @param limit  本批最多删除行数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM agent_metrics WHERE timestamp < #{before} AND id <= #{maxId} LIMIT #{limit}")
+    int deleteBefore(@Param("before") LocalDateTime before, @Param("maxId") long maxId, @Param("limit") int limit);
+
+    /**
+     * 在数据库中按时间桶聚合CPU、内存与磁盘指标，每个时间桶只返回一行，结构与汇总表相同
+     * 峰值与汇总表使用相同的来源（见 {@link MetricsRollupSqlProvider#CPU_MAX}），两条查询路径结果一致
+     *
+     * @param agentId   Agent ID
+     * @param minId     只聚合ID大于该值的数据（更早的数据已计入汇总表），0表示全部
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @param interval  时间桶间隔（秒）
+     * @return 按时间桶升序的聚合结果
+     */
+    @Select("<script>" +
+            "SELECT FROM_UNIXTIME(" + BUCKET_TIME + ") AS bucket_time, COUNT(*) AS sample_count, " +
+            "SUM(cpu_percent) AS cpu_sum, COUNT(cpu_percent) AS cpu_count, " +
+            "MIN(cpu_percent) AS cpu_min, MAX(" + MetricsRollupSqlProvider.CPU_MAX + ") AS cpu_max, " +
+            "SUM(memory_percent) AS memory_sum, COUNT(memory_percent) AS memory_count, " +
+            "MIN(memory_percent) AS memory_min, MAX(" + MetricsRollupSqlProvider.MEMORY_MAX + ") AS memory_max, " +
+            "SUM(disk_max_percent) AS disk_sum, COUNT(disk_max_percent) AS disk_count, " +
+            "MIN(disk_max_percent) AS disk_min, MAX(disk_max_percent) AS disk_max " +
+            "FROM agent_metrics WHERE agent_id = #{agentId} AND id &gt; #{minId} " +
+            "AND timestamp &gt;= #{startTime} AND timestamp &lt;= #{endTime} " +
+            "GROUP BY bucket_time ORDER BY bucket_time" +
+            "</script>")
+    List<AgentMetricsRollup> selectBuckets(@Param("agentId") String agentId, @Param("minId") long minId,
+                                           @Param("startTime") LocalDateTime startTime,
+                                           @Param("endTime") LocalDateTime endTime,
+                                           @Param("interval") int interval);
+
+    /**
+     * 流式查询没有disk_max_percent的旧数据的磁盘使用信息，逐行交给handler处理，不在内存中保存结果集
+     *
+     * @param agentId   Agent ID
+     * @param minId     只查询ID大于该值的数据，0表示全部
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @param handler   接收每一行（只包含disk_usages与timestamp）
+     */
+    @Select("SELECT disk_usages, timestamp FROM agent_metrics WHERE agent_id = #{agentId} AND id > #{minId} " +
+            "AND timestamp >= #{startTime} AND timestamp <= #{endTime} " +
+            "AND disk_max_percent IS NULL AND disk_usages IS NOT NULL")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(AgentMetrics.class)
+    void streamLegacyDiskUsages(@Param("agentId") String agentId, @Param("minId") long minId,
+                                @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+                                ResultHandler<AgentMetrics> handler);
 }
@@ -0,0 +1,95 @@
+package com.hundred.monitor.server.mapper;
+
+import com.hundred.monitor.server.model.entity.AgentMetricsRollup;
+import com.hundred.monitor.server.model.entity.MetricsRollupState;
+import com.hundred.monitor.server.rollup.RollupLevel;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.InsertProvider;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Agent监控数据汇总Mapper
+ */
+@Mapper
+public interface AgentMetricsRollupMapper {
+
+    /**
+     * 将ID范围内的原始数据合并到指定粒度的汇总表
+     *
+     * @param level  汇总粒度
+     * @param fromId 起始ID（不含）
+     * @param toId   结束ID（含）
+     * @return 影响行数
+     */
+    @InsertProvider(type = MetricsRollupSqlProvider.class, method = "rollup")
+    int rollup(@Param("level") RollupLevel level, @Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 流式查询指定时间范围内的汇总数据，逐行交给handler处理，不在内存中保存结果集
+     *
+     * @param table     汇总表名，只能取自RollupLevel
+     * @param agentId   Agent ID
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @param handler   按时间桶升序接收每一行
+     */
+    @Select("SELECT * FROM ${table} WHERE agent_id = #{agentId} " +
+            "AND bucket_time >= #{startTime} AND bucket_time <= #{endTime} ORDER BY bucket_time")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(AgentMetricsRollup.class)
+    void streamRange(@Param("table") String table, @Param("agentId") String agentId,
+                     @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+                     ResultHandler<AgentMetricsRollup> handler);
+
+    /**
+     * 分批删除过期的汇总数据
+     *
+     * @param table  汇总表名，只能取自RollupLevel
+     * @param before 删除该时间之前的时间桶
+     * @param limit  本批最多删除行数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM ${table} WHERE bucket_time < #{before} LIMIT #{limit}")
+    int deleteBefore(@Param("table") String table, @Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 查询原始数据当前最大ID
+     */
+    @Select("SELECT IFNULL(MAX(id), 0) FROM agent_metrics")
+    long selectMaxRawId();
+
+    /**
+     * 查询汇总进度
+     */
+    @Select("SELECT name, rolled_id, seen_id FROM metrics_rollup_state WHERE name = #{name}")
+    MetricsRollupState selectState(@Param("name") String name);
+
+    /**
+     * 查询并锁定汇总进度，多个服务端实例同时汇总时串行执行
+     */
+    @Select("SELECT name, rolled_id, seen_id FROM metrics_rollup_state WHERE name = #{name} FOR UPDATE")
+    MetricsRollupState selectStateForUpdate(@Param("name") String name);
+
+    /**
+     * 初始化汇总进度
+     */
+    @Insert("INSERT IGNORE INTO metrics_rollup_state (name) VALUES (#{name})")
+    int insertState(@Param("name") String name);
+
+    /**
+     * 更新汇总进度
+     */
+    @Update("UPDATE metrics_rollup_state SET rolled_id = #{rolledId}, seen_id = #{seenId} WHERE name = #{name}")
+    int updateState(@Param("name") String name, @Param("rolledId") long rolledId, @Param("seenId") long seenId);
+}
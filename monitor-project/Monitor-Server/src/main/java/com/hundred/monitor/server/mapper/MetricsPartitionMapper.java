@@ -0,0 +1,55 @@
+package com.hundred.monitor.server.mapper;
+
+import com.hundred.monitor.server.model.entity.MetricsPartition;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 监控数据表分区维护Mapper
+ * 表名与分区名均由MetricsPartitionManager生成，不接受外部输入
+ */
+@Mapper
+public interface MetricsPartitionMapper {
+
+    /**
+     * 查询分区信息，表未分区时返回空列表
+     *
+     * @param table 表名
+     */
+    @Select("SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS description, TABLE_ROWS AS table_rows " +
+            "FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table} " +
+            "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION")
+    List<MetricsPartition> selectPartitions(@Param("table") String table);
+
+    /**
+     * 从兜底分区拆分出新的分区
+     *
+     * @param table      表名
+     * @param partitions 新分区定义，如 PARTITION p20260101 VALUES LESS THAN (...)
+     */
+    @Update("ALTER TABLE ${table} REORGANIZE PARTITION p_future INTO " +
+            "(${partitions}, PARTITION p_future VALUES LESS THAN MAXVALUE)")
+    void reorganizeFuturePartition(@Param("table") String table, @Param("partitions") String partitions);
+
+    /**
+     * 删除分区
+     *
+     * @param table 表名
+     * @param name  分区名
+     */
+    @Update("ALTER TABLE ${table} DROP PARTITION ${name}")
+    void dropPartition(@Param("table") String table, @Param("name") String name);
+
+    /**
+     * 查询分区内的最大ID，分区为空时返回0
+     *
+     * @param table 表名
+     * @param name  分区名
+     */
+    @Select("SELECT IFNULL(MAX(id), 0) FROM ${table} PARTITION (${name})")
+    long selectMaxIdInPartition(@Param("table") String table, @Param("name") String name);
+}
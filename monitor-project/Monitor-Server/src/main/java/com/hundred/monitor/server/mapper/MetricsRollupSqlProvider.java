@@ -0,0 +1,77 @@
+package com.hundred.monitor.server.mapper;
+
+import com.hundred.monitor.server.rollup.RollupLevel;
+
+import java.util.Map;
+
+/**
+ * 监控数据汇总SQL构造器
+ * 各汇总表结构相同，只有表名与时间桶表达式不同
+ */
+public class MetricsRollupSqlProvider {
+
+    /**
+     * CPU与内存的峰值来源：取上报窗口内的峰值，旧数据没有窗口峰值时使用均值；
+     * 最小值没有对应的窗口列，直接取均值列。按时间桶直接聚合原始数据时也使用同样的表达式
+     */
+    public static final String CPU_MAX = "COALESCE(cpu_max_percent, cpu_percent)";
+    public static final String MEMORY_MAX = "COALESCE(memory_max_percent, memory_percent)";
+
+    /**
+     * 汇总指标：汇总列前缀、原始数据列、峰值来源
+     */
+    private static final String[][] METRICS = {
+            {"cpu", "cpu_percent", CPU_MAX},
+            {"memory", "memory_percent", MEMORY_MAX},
+            {"disk", "disk_max_percent", "disk_max_percent"},
+            {"network_up", "network_up_mbps", "network_up_mbps"},
+            {"network_down", "network_down_mbps", "network_down_mbps"}
+    };
+
+    /**
+     * 将ID范围(fromId, toId]内的原始数据合并到汇总表
+     * 已存在的时间桶按最小值、最大值、合计、计数分别合并，迟到的数据也能计入正确的时间桶
+     */
+    public String rollup(Map<String, Object> params) {
+        RollupLevel level = (RollupLevel) params.get("level");
+        String table = level.getTable();
+
+        StringBuilder columns = new StringBuilder("agent_id, bucket_time, sample_count");
+        StringBuilder select = new StringBuilder("SELECT agent_id, ")
+                .append(level.getBucketExpression()).append(" AS bucket_time, COUNT(*) AS sample_count");
+        StringBuilder update = new StringBuilder("sample_count = ")
+                .append(table).append(".sample_count + r.sample_count");
+
+        for (String[] metric : METRICS) {
+            String prefix = metric[0];
+            String source = metric[1];
+            columns.append(", ").append(prefix).append("_min, ").append(prefix).append("_max, ")
+                    .append(prefix).append("_sum, ").append(prefix).append("_count");
+            select.append(", MIN(").append(source).append(") AS ").append(prefix).append("_min")
+                    .append(", MAX(").append(metric[2]).append(") AS ").append(prefix).append("_max")
+                    .append(", IFNULL(SUM(").append(source).append("), 0) AS ").append(prefix).append("_sum")
+                    .append(", COUNT(").append(source).append(") AS ").append(prefix).append("_count");
+            update.append(", ").append(merge(table, prefix + "_min", "LEAST"))
+                    .append(", ").append(merge(table, prefix + "_max", "GREATEST"))
+                    .append(", ").append(prefix).append("_sum = ").append(table).append('.').append(prefix)
+                    .append("_sum + r.").append(prefix).append("_sum")
+                    .append(", ").append(prefix).append("_count = ").append(table).append('.').append(prefix)
+                    .append("_count + r.").append(prefix).append("_count");
+        }
+
+        // 外层包一层派生表，ON DUPLICATE KEY UPDATE才能引用汇总结果
+        return "INSERT INTO " + table + " (" + columns + ") SELECT * FROM (" + select +
+                " FROM agent_metrics WHERE id > #{fromId} AND id <= #{toId} GROUP BY agent_id, bucket_time) AS r" +
+                " ON DUPLICATE KEY UPDATE " + update;
+    }
+
+    /**
+     * 最小值/最大值合并，任一侧为NULL时取另一侧
+     */
+    private static String merge(String table, String column, String function) {
+        String current = table + "." + column;
+        String incoming = "r." + column;
+        return column + " = " + function + "(COALESCE(" + current + ", " + incoming + "), COALESCE("
+                + incoming + ", " + current + "))";
+    }
+}
@@ -0,0 +1,67 @@
+package com.hundred.monitor.server.model.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agent磁盘监控数据实体类
+ * 对应 agent_disk_metrics 表，每个挂载点一行
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("agent_disk_metrics")
+public class AgentDiskMetrics {
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * Agent ID
+     */
+    @TableField("agent_id")
+    private String agentId;
+
+    /**
+     * 挂载点
+     */
+    @TableField("mount")
+    private String mount;
+
+    /**
+     * 使用率(%)
+     */
+    @TableField("used_percent")
+    private BigDecimal usedPercent;
+
+    /**
+     * 已用容量(GB)
+     */
+    @TableField("used_gb")
+    private Long usedGb;
+
+    /**
+     * 总容量(GB)
+     */
+    @TableField("total_gb")
+    private Long totalGb;
+
+    /**
+     * 采集时间戳
+     */
+    @TableField("timestamp")
+    private LocalDateTime timestamp;
+}
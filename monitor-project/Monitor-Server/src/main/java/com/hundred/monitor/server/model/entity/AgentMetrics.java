@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Agent监控数据实体类
@@ -48,11 +49,29 @@ public class AgentMetrics {
     private BigDecimal memoryPercent;
 
     /**
-     * 磁盘使用信息(JSON数组)
+     * 上报窗口内CPU使用率峰值(%)
+     */
+    @TableField("cpu_max_percent")
+    private BigDecimal cpuMaxPercent;
+
+    /**
+     * 上报窗口内内存使用率峰值(%)
+     */
+    @TableField("memory_max_percent")
+    private BigDecimal memoryMaxPercent;
+
+    /**
+     * 旧版本写入的磁盘使用信息(JSON数组)
      */
     @TableField("disk_usages")
     private String diskUsages;
 
+    /**
+     * 各磁盘中的最高使用率(%)
+     */
+    @TableField("disk_max_percent")
+    private BigDecimal diskMaxPercent;
+
     /**
      * 网络上行速率(Mbps)
      */
@@ -88,4 +107,10 @@ public class AgentMetrics {
      */
     @TableField("timestamp")
     private LocalDateTime timestamp;
+
+    /**
+     * 各挂载点磁盘使用信息，存储在 agent_disk_metrics 表
+     */
+    @TableField(exist = false)
+    private List<AgentDiskMetrics> disks;
 }
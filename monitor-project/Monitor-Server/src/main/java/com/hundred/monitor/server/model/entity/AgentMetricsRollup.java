@@ -0,0 +1,135 @@
+package com.hundred.monitor.server.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agent监控数据汇总实体类
+ * 对应 agent_metrics_1m / 5m / 1h / 1d 汇总表，均值=合计/有效样本数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentMetricsRollup {
+
+    /**
+     * Agent ID
+     */
+    private String agentId;
+
+    /**
+     * 时间桶起点
+     */
+    private LocalDateTime bucketTime;
+
+    /**
+     * 原始样本数
+     */
+    private Integer sampleCount;
+
+    /**
+     * CPU使用率最小值
+     */
+    private BigDecimal cpuMin;
+
+    /**
+     * CPU使用率最大值
+     */
+    private BigDecimal cpuMax;
+
+    /**
+     * CPU使用率合计
+     */
+    private BigDecimal cpuSum;
+
+    /**
+     * CPU使用率有效样本数
+     */
+    private Integer cpuCount;
+
+    /**
+     * 内存使用率最小值
+     */
+    private BigDecimal memoryMin;
+
+    /**
+     * 内存使用率最大值
+     */
+    private BigDecimal memoryMax;
+
+    /**
+     * 内存使用率合计
+     */
+    private BigDecimal memorySum;
+
+    /**
+     * 内存使用率有效样本数
+     */
+    private Integer memoryCount;
+
+    /**
+     * 磁盘最高使用率最小值
+     */
+    private BigDecimal diskMin;
+
+    /**
+     * 磁盘最高使用率最大值
+     */
+    private BigDecimal diskMax;
+
+    /**
+     * 磁盘最高使用率合计
+     */
+    private BigDecimal diskSum;
+
+    /**
+     * 磁盘最高使用率有效样本数
+     */
+    private Integer diskCount;
+
+    /**
+     * 网络上行速率最小值
+     */
+    private BigDecimal networkUpMin;
+
+    /**
+     * 网络上行速率最大值
+     */
+    private BigDecimal networkUpMax;
+
+    /**
+     * 网络上行速率合计
+     */
+    private BigDecimal networkUpSum;
+
+    /**
+     * 网络上行速率有效样本数
+     */
+    private Integer networkUpCount;
+
+    /**
+     * 网络下行速率最小值
+     */
+    private BigDecimal networkDownMin;
+
+    /**
+     * 网络下行速率最大值
+     */
+    private BigDecimal networkDownMax;
+
+    /**
+     * 网络下行速率合计
+     */
+    private BigDecimal networkDownSum;
+
+    /**
+     * 网络下行速率有效样本数
+     */
+    private Integer networkDownCount;
+}
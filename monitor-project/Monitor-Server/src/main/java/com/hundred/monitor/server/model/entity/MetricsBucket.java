@@ -0,0 +1,44 @@
+package com.hundred.monitor.server.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 数据库按时间桶聚合后的单个指标
+ * 返回合计与计数而不是均值，便于与汇总表的数据直接合并
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsBucket {
+
+    /**
+     * 时间桶起点（秒级时间戳）
+     */
+    private Long bucketTime;
+
+    /**
+     * 时间桶内的合计
+     */
+    private BigDecimal valueSum;
+
+    /**
+     * 时间桶内的有效样本数
+     */
+    private Long valueCount;
+
+    /**
+     * 时间桶内的最小值
+     */
+    private BigDecimal valueMin;
+
+    /**
+     * 时间桶内的最大值
+     */
+    private BigDecimal valueMax;
+}
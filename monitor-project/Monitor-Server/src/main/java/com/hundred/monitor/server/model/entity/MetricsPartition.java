@@ -0,0 +1,32 @@
+package com.hundred.monitor.server.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 监控数据表分区信息
+ * 对应 information_schema.PARTITIONS 中 agent_metrics 的记录
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsPartition {
+
+    /**
+     * 分区名，按天分区为pYYYYMMDD，兜底分区为p_future
+     */
+    private String name;
+
+    /**
+     * 分区上界（VALUES LESS THAN的值）
+     */
+    private String description;
+
+    /**
+     * 估算行数
+     */
+    private Long tableRows;
+}
@@ -0,0 +1,32 @@
+package com.hundred.monitor.server.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 监控数据汇总进度实体类
+ * 对应 metrics_rollup_state 表
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsRollupState {
+
+    /**
+     * 汇总任务名称
+     */
+    private String name;
+
+    /**
+     * 已汇总的原始数据最大ID
+     */
+    private Long rolledId;
+
+    /**
+     * 上次汇总时原始数据的最大ID
+     */
+    private Long seenId;
+}
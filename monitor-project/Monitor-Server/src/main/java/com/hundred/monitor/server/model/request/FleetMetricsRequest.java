@@ -0,0 +1,35 @@
+package com.hundred.monitor.server.model.request;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 全部主机最新监控指标查询请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetMetricsRequest {
+
+    /**
+     * 上次查询返回的游标，只返回之后有数据变化的主机；为空时返回全部
+     */
+    private Long since;
+
+    /**
+     * 只查询指定的Agent ID，为空时查询全部
+     */
+    private List<String> agentIds;
+
+    /**
+     * 页码，从1开始
+     */
+    private Integer page;
+
+    /**
+     * 每页数量，为空时不分页
+     */
+    private Integer size;
+}
@@ -0,0 +1,40 @@
+package com.hundred.monitor.server.model.request;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 多主机、多指标历史数据查询请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsBatchHistoryRequest {
+
+    /**
+     * Agent ID列表
+     */
+    private List<String> agentIds;
+
+    /**
+     * 指标类型列表：cpu/memory/disk，为空时查询全部指标
+     */
+    private List<String> metricTypes;
+
+    /**
+     * 时间范围：5MIN/1H/6H/24H/7D/1M
+     */
+    private String timeRange;
+
+    /**
+     * 目标点数，含义与MetricsHistoryRequest相同
+     */
+    private Integer points;
+
+    /**
+     * 降采样方式：avg/lttb/minmax，为空时为avg
+     */
+    private String mode;
+}
@@ -21,6 +21,21 @@ public class MetricsHistoryRequest {
      */
     private String timeRange;
 
+    /**
+     * 挂载点，仅磁盘指标有效；为空时查询各磁盘中的最高使用率
+     */
+    private String mount;
+
+    /**
+     * 目标点数（如图表宽度像素），为空时按时间范围的默认间隔返回
+     */
+    private Integer points;
+
+    /**
+     * 降采样方式：avg/lttb/minmax，为空时为avg
+     */
+    private String mode;
+
     /**
      * 指标类型枚举
      */
@@ -46,6 +61,36 @@ public class MetricsHistoryRequest {
         }
     }
 
+    /**
+     * 降采样方式枚举
+     * avg: 每个时间桶返回均值；lttb: 从更细的时间桶中按LTTB算法挑选点，保留尖峰；
+     * minmax: 每个时间桶额外返回最小值与最大值，组成包络线
+     */
+    @Getter
+    public enum Mode {
+        AVG("avg"),
+        LTTB("lttb"),
+        MINMAX("minmax");
+
+        private final String value;
+
+        Mode(String value) {
+            this.value = value;
+        }
+
+        public static Mode fromValue(String value) {
+            if (value == null || value.isEmpty()) {
+                return AVG;
+            }
+            for (Mode mode : values()) {
+                if (mode.value.equals(value)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Invalid mode: " + value);
+        }
+    }
+
     /**
      * 时间范围枚举
      */
@@ -0,0 +1,33 @@
+package com.hundred.monitor.server.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 全部主机最新监控指标响应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetMetricsResponse {
+
+    /**
+     * 游标，下次查询时作为since传入
+     */
+    private Long cursor;
+
+    /**
+     * 满足条件的主机总数（分页前）
+     */
+    private Integer total;
+
+    /**
+     * 各主机最新监控指标，按Agent ID排序
+     */
+    private List<MetricsResponse> metrics;
+}
@@ -0,0 +1,82 @@
+package com.hundred.monitor.server.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 运行时数据接入统计响应
+ * 用于观察写入队列是否饱和
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestStatsResponse {
+
+    /**
+     * 接入模式（memory/rabbit）
+     */
+    private String mode;
+
+    /**
+     * 缓冲区容量
+     */
+    private Integer capacity;
+
+    /**
+     * 当前占用
+     */
+    private Long occupancy;
+
+    /**
+     * 启动以来的最大占用
+     */
+    private Long maxOccupancy;
+
+    /**
+     * 累计接收条数
+     */
+    private Long offered;
+
+    /**
+     * 累计因缓冲区已满而拒绝的条数
+     */
+    private Long rejected;
+
+    /**
+     * 累计合并的重复条数
+     */
+    private Long coalesced;
+
+    /**
+     * 累计写入数据库的条数
+     */
+    private Long written;
+
+    /**
+     * 累计写入批次数
+     */
+    private Long batches;
+
+    /**
+     * 平均排队时延(ms)
+     */
+    private Double avgQueueLatencyMs;
+
+    /**
+     * 最大排队时延(ms)
+     */
+    private Double maxQueueLatencyMs;
+
+    /**
+     * 平均每批写入耗时(ms)
+     */
+    private Double avgWriteLatencyMs;
+
+    /**
+     * 最大每批写入耗时(ms)
+     */
+    private Double maxWriteLatencyMs;
+}
@@ -0,0 +1,23 @@
+package com.hundred.monitor.server.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 多主机、多指标历史数据响应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsBatchHistoryResponse {
+
+    /**
+     * Agent ID -> 指标类型 -> 历史数据，顺序与请求一致
+     */
+    private Map<String, Map<String, MetricsHistoryResponse>> series;
+}
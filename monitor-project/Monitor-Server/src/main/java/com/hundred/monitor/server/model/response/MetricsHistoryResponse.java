@@ -26,6 +26,16 @@ public class MetricsHistoryResponse {
      */
     private List<Double> values;
 
+    /**
+     * 各时间桶的最小值，仅minmax方式返回
+     */
+    private List<Double> minValues;
+
+    /**
+     * 各时间桶的最大值，仅minmax方式返回
+     */
+    private List<Double> maxValues;
+
     /**
      * 聚合间隔
      */
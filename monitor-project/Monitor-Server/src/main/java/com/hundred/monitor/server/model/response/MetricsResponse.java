@@ -31,6 +31,16 @@ public class MetricsResponse {
      */
     private Double memoryPercent;
 
+    /**
+     * 上报窗口内CPU使用率峰值(%)
+     */
+    private Double cpuMaxPercent;
+
+    /**
+     * 上报窗口内内存使用率峰值(%)
+     */
+    private Double memoryMaxPercent;
+
     /**
      * 磁盘使用信息列表
      */
@@ -0,0 +1,43 @@
+package com.hundred.monitor.server.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 过期数据清理报告响应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionReportResponse {
+
+    /**
+     * 清理开始时间
+     */
+    private String startedAt;
+
+    /**
+     * 清理耗时(ms)
+     */
+    private Long elapsedMs;
+
+    /**
+     * 清理总行数
+     */
+    private Long totalPurged;
+
+    /**
+     * 各表清理行数：表名 -> 行数
+     */
+    private Map<String, Long> purged;
+
+    /**
+     * 是否清理完毕；超出单轮时间上限时为false，剩余数据在下一轮继续清理
+     */
+    private Boolean completed;
+}
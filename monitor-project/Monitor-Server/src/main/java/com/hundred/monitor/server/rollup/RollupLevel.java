@@ -0,0 +1,50 @@
+package com.hundred.monitor.server.rollup;
+
+import lombok.Getter;
+
+/**
+ * 监控数据汇总粒度
+ * 每个粒度对应一张汇总表，按时间桶保存各指标的最小值、最大值、合计与计数
+ */
+@Getter
+public enum RollupLevel {
+    ONE_MINUTE("agent_metrics_1m", 60),
+    FIVE_MINUTES("agent_metrics_5m", 300),
+    ONE_HOUR("agent_metrics_1h", 3600),
+    ONE_DAY("agent_metrics_1d", 86400);
+
+    private final String table;
+    private final int seconds;
+
+    RollupLevel(String table, int seconds) {
+        this.table = table;
+        this.seconds = seconds;
+    }
+
+    /**
+     * 原始数据时间戳所属时间桶的SQL表达式
+     * 天级时间桶按服务器本地日期对齐，其余按整分钟/整小时对齐
+     */
+    public String getBucketExpression() {
+        if (this == ONE_DAY) {
+            return "TIMESTAMP(DATE(timestamp))";
+        }
+        return "FROM_UNIXTIME(UNIX_TIMESTAMP(timestamp) DIV " + seconds + " * " + seconds + ")";
+    }
+
+    /**
+     * 选择能满足查询间隔的最粗粒度
+     *
+     * @param intervalSeconds 查询间隔（秒）
+     * @return 粒度不大于且能整除查询间隔的最粗汇总粒度，没有时返回null（直接查询原始数据）
+     */
+    public static RollupLevel forInterval(int intervalSeconds) {
+        RollupLevel[] levels = values();
+        for (int i = levels.length - 1; i >= 0; i--) {
+            if (levels[i].seconds <= intervalSeconds && intervalSeconds % levels[i].seconds == 0) {
+                return levels[i];
+            }
+        }
+        return null;
+    }
+}
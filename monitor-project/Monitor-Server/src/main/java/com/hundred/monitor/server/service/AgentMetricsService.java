@@ -2,6 +2,8 @@ package com.hundred.monitor.server.service;
 
 import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
 
+import java.util.List;
+
 /**
  * Agent监控数据服务接口
  */
@@ -13,4 +15,11 @@ public interface AgentMetricsService {
      * @param request 监控数据上报请求
      */
     void saveMetrics(MetricsReportRequest request);
+
+    /**
+     * 批量保存监控数据
+     *
+     * @param requests 监控数据上报请求列表
+     */
+    void saveMetricsBatch(List<MetricsReportRequest> requests);
 }
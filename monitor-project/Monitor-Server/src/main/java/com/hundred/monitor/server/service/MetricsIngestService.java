@@ -0,0 +1,43 @@
+package com.hundred.monitor.server.service;
+
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import com.hundred.monitor.server.model.response.IngestStatsResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 运行时数据接入服务接口
+ * 上报请求只负责入队，由独立的写入阶段批量写入数据库
+ */
+public interface MetricsIngestService {
+
+    /**
+     * 提交运行时数据
+     *
+     * @param samples 运行时数据列表
+     * @return 是否已接收；队列已满时返回false，调用方应返回429让客户端稍后重试
+     */
+    boolean offer(List<MetricsReportRequest> samples);
+
+    /**
+     * 提交运行时数据，写入阶段处理完这组数据后回调
+     * 回调在写入线程中执行，应尽快返回；同一调用方按提交顺序收到回调。
+     * rabbit模式下发布到持久化队列即视为写入成功
+     *
+     * @param samples  运行时数据列表
+     * @param listener 写入结果回调，参数为是否全部写入成功；返回false时不会回调
+     * @return 是否已接收；队列已满时返回false
+     */
+    boolean offer(List<MetricsReportRequest> samples, Consumer<Boolean> listener);
+
+    /**
+     * 队列已满时建议客户端的重试等待时间（秒）
+     */
+    int getRetryAfterSec();
+
+    /**
+     * 获取接入统计（缓冲区占用、排队与写入时延等）
+     */
+    IngestStatsResponse getStats();
+}
@@ -0,0 +1,22 @@
+package com.hundred.monitor.server.service;
+
+import com.hundred.monitor.server.model.response.RetentionReportResponse;
+
+/**
+ * 监控数据保留策略服务接口
+ * 按原始数据与各汇总粒度分别配置保留时长，定期清理过期数据
+ */
+public interface MetricsRetentionService {
+
+    /**
+     * 执行一轮过期数据清理
+     *
+     * @return 清理报告
+     */
+    RetentionReportResponse purge();
+
+    /**
+     * 获取最近一轮清理报告，尚未执行过时返回null
+     */
+    RetentionReportResponse getLastReport();
+}
@@ -0,0 +1,20 @@
+package com.hundred.monitor.server.service;
+
+/**
+ * 监控数据汇总服务接口
+ * 将原始监控数据增量合并到各粒度的汇总表，供历史查询使用
+ */
+public interface MetricsRollupService {
+
+    /**
+     * 执行一轮汇总
+     *
+     * @return 本轮汇总的原始数据ID跨度，没有新数据时返回0
+     */
+    long rollup();
+
+    /**
+     * 已汇总的原始数据最大ID，ID更大的原始数据尚未计入汇总表
+     */
+    long getRolledId();
+}
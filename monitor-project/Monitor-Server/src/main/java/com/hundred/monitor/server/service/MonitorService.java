@@ -1,12 +1,18 @@
 package com.hundred.monitor.server.service;
 
 import com.hundred.monitor.server.model.response.AgentBasicInfoResponse;
+import com.hundred.monitor.server.model.response.FleetMetricsResponse;
+import com.hundred.monitor.server.model.response.MetricsBatchHistoryResponse;
 import com.hundred.monitor.server.model.response.MetricsHistoryResponse;
 import com.hundred.monitor.server.model.response.MetricsResponse;
+import com.hundred.monitor.server.model.request.FleetMetricsRequest;
+import com.hundred.monitor.server.model.request.MetricsBatchHistoryRequest;
 import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
 
 public interface MonitorService {
     AgentBasicInfoResponse getMonitorList();
     MetricsResponse getLatestMetrics(String agentId);
+    FleetMetricsResponse getFleetLatestMetrics(FleetMetricsRequest request);
     MetricsHistoryResponse getMetricsHistory(String agentId, MetricsHistoryRequest request);
+    MetricsBatchHistoryResponse getMetricsHistoryBatch(MetricsBatchHistoryRequest request);
 }
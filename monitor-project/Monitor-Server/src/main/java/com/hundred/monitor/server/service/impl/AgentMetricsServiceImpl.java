@@ -1,12 +1,12 @@
 package com.hundred.monitor.server.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hundred.monitor.server.mapper.AgentMetricsMapper;
+import com.hundred.monitor.server.manager.LatestMetricsCache;
+import com.hundred.monitor.server.model.entity.AgentDiskMetrics;
 import com.hundred.monitor.server.model.entity.AgentMetrics;
 import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
 import com.hundred.monitor.commonlibrary.model.Metrics;
 import com.hundred.monitor.server.service.AgentMetricsService;
+import com.hundred.monitor.server.store.MetricsStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,6 +14,8 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Agent监控数据服务实现类
@@ -23,20 +25,46 @@ import java.time.ZoneId;
 public class AgentMetricsServiceImpl implements AgentMetricsService {
 
     @Autowired
-    private AgentMetricsMapper agentMetricsMapper;
+    private MetricsStore metricsStore;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private LatestMetricsCache latestMetricsCache;
 
     @Override
     public void saveMetrics(MetricsReportRequest request) {
-        // TODO: 构建监控数据实体
+        AgentMetrics entity = buildEntity(request);
+        metricsStore.save(List.of(entity));
+        latestMetricsCache.update(entity);
+        log.debug("监控数据已保存: agentId={}, timestamp={}", request.getAgentId(), request.getTimestamp());
+    }
+
+    @Override
+    public void saveMetricsBatch(List<MetricsReportRequest> requests) {
+        List<AgentMetrics> entities = new ArrayList<>(requests.size());
+        for (MetricsReportRequest request : requests) {
+            if (request.getMetrics() != null) {
+                entities.add(buildEntity(request));
+            }
+        }
+        if (!entities.isEmpty()) {
+            metricsStore.save(entities);
+            latestMetricsCache.updateAll(entities);
+        }
+        log.debug("监控数据已批量保存: count={}", entities.size());
+    }
+
+    /**
+     * 构建监控数据实体
+     */
+    private AgentMetrics buildEntity(MetricsReportRequest request) {
         Metrics metrics = request.getMetrics();
 
         AgentMetrics agentMetrics = AgentMetrics.builder()
                 .agentId(request.getAgentId())
-                .cpuPercent(convertToBigDecimal(metrics.getCpuPercent()))
-                .memoryPercent(convertToBigDecimal(metrics.getMemoryPercent()))
+                .cpuPercent(convertToBigDecimal(windowAvg(metrics.getCpuSummary(), metrics.getCpuPercent())))
+                .memoryPercent(convertToBigDecimal(windowAvg(metrics.getMemorySummary(), metrics.getMemoryPercent())))
+                .cpuMaxPercent(convertToBigDecimal(windowMax(metrics.getCpuSummary(), metrics.getCpuPercent())))
+                .memoryMaxPercent(convertToBigDecimal(windowMax(metrics.getMemorySummary(), metrics.getMemoryPercent())))
                 .networkUpMbps(convertToBigDecimal(metrics.getNetworkUpMbps()))
                 .networkDownMbps(convertToBigDecimal(metrics.getNetworkDownMbps()))
                 .timestamp(parseTimestamp(request.getTimestamp()))
@@ -49,18 +77,54 @@ public class AgentMetricsServiceImpl implements AgentMetricsService {
             agentMetrics.setSshPort(metrics.getSshStatus().getPort());
         }
 
-        // 处理磁盘使用信息，转换为JSON
+        // 处理磁盘使用信息：按挂载点拆分，并预先计算最高使用率
         if (metrics.getDiskUsages() != null) {
-            try {
-                agentMetrics.setDiskUsages(objectMapper.writeValueAsString(metrics.getDiskUsages()));
-            } catch (JsonProcessingException e) {
-                log.error("磁盘使用信息JSON转换失败", e);
+            agentMetrics.setDiskMaxPercent(convertToBigDecimal(maxDiskUsage(metrics.getDiskUsages())));
+            List<AgentDiskMetrics> disks = new ArrayList<>(metrics.getDiskUsages().size());
+            for (Metrics.DiskUsageInfo usage : metrics.getDiskUsages()) {
+                if (usage == null || usage.getMount() == null) {
+                    continue;
+                }
+                disks.add(AgentDiskMetrics.builder()
+                        .agentId(agentMetrics.getAgentId())
+                        .mount(usage.getMount())
+                        .usedPercent(convertToBigDecimal(usage.getUsedPercent()))
+                        .usedGb(usage.getUsedGb())
+                        .totalGb(usage.getTotalGb())
+                        .timestamp(agentMetrics.getTimestamp())
+                        .build());
             }
+            agentMetrics.setDisks(disks);
         }
 
-        // TODO: 保存到数据库
-        agentMetricsMapper.insert(agentMetrics);
-        log.info("监控数据已保存: agentId={}, timestamp={}", request.getAgentId(), request.getTimestamp());
+        return agentMetrics;
+    }
+
+    /**
+     * 窗口均值，旧版本Agent没有窗口汇总时使用瞬时值
+     */
+    private Double windowAvg(Metrics.MetricSummary summary, Double instant) {
+        return summary != null && summary.getAvg() != null ? summary.getAvg() : instant;
+    }
+
+    /**
+     * 窗口峰值，旧版本Agent没有窗口汇总时使用瞬时值
+     */
+    private Double windowMax(Metrics.MetricSummary summary, Double instant) {
+        return summary != null && summary.getMax() != null ? summary.getMax() : instant;
+    }
+
+    /**
+     * 各磁盘中的最高使用率，没有有效数据时返回null
+     */
+    private Double maxDiskUsage(List<Metrics.DiskUsageInfo> diskUsages) {
+        Double max = null;
+        for (Metrics.DiskUsageInfo usage : diskUsages) {
+            if (usage != null && usage.getUsedPercent() != null && (max == null || usage.getUsedPercent() > max)) {
+                max = usage.getUsedPercent();
+            }
+        }
+        return max;
     }
 
     /**
@@ -0,0 +1,295 @@
+package com.hundred.monitor.server.service.impl;
+
+import com.hundred.monitor.commonlibrary.request.MetricsBatchReportRequest;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import com.hundred.monitor.server.conf.RabbitConfig;
+import com.hundred.monitor.server.ingest.IngestCallback;
+import com.hundred.monitor.server.ingest.MetricsRingBuffer;
+import com.hundred.monitor.server.model.response.IngestStatsResponse;
+import com.hundred.monitor.server.service.AgentMetricsService;
+import com.hundred.monitor.server.service.MetricsIngestService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 运行时数据接入服务实现类
+ * 请求线程只把数据放入预分配的无锁环形缓冲区，独立的写入线程按批次取出、
+ * 合并重复数据后多行INSERT，缓冲区满时拒绝接收，由调用方返回429实现背压；
+ * rabbit模式下上报数据发布到持久化队列，由MetricsQueueListener批量消费写入，
+ * 发布失败时回退到内存队列
+ */
+@Slf4j
+@Service
+public class MetricsIngestServiceImpl implements MetricsIngestService {
+
+    /**
+     * 写入失败时的最大重试次数
+     */
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    /**
+     * 接入模式：通过RabbitMQ队列写入
+     */
+    private static final String MODE_RABBIT = "rabbit";
+
+    /**
+     * 缓冲区为空时写入线程的休眠时间
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Autowired
+    private AgentMetricsService agentMetricsService;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${monitor.ingest.mode:memory}")
+    private String mode;
+
+    @Value("${monitor.ingest.queue-capacity:50000}")
+    private int queueCapacity;
+
+    @Value("${monitor.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${monitor.ingest.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${monitor.ingest.retry-after-sec:5}")
+    private int retryAfterSec;
+
+    private MetricsRingBuffer ringBuffer;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    // 写入阶段统计（只由写入线程更新）
+    private volatile long coalesced;
+    private volatile long written;
+    private volatile long batches;
+    private volatile long writeNanosTotal;
+    private volatile long writeNanosMax;
+
+    @PostConstruct
+    public void start() {
+        ringBuffer = new MetricsRingBuffer(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "metrics-writer");
+        writer.start();
+        log.info("运行时数据写入队列已启动: mode={}, capacity={}, batchSize={}",
+                mode, ringBuffer.getCapacity(), batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!ringBuffer.isEmpty()) {
+            log.warn("停止时仍有{}条运行时数据未写入", ringBuffer.getOccupancy());
+        }
+    }
+
+    @Override
+    public boolean offer(List<MetricsReportRequest> samples) {
+        if (MODE_RABBIT.equals(mode) && publish(samples)) {
+            return true;
+        }
+        return ringBuffer.offer(samples);
+    }
+
+    @Override
+    public boolean offer(List<MetricsReportRequest> samples, Consumer<Boolean> listener) {
+        if (samples.isEmpty()) {
+            listener.accept(true);
+            return true;
+        }
+        if (MODE_RABBIT.equals(mode) && publish(samples)) {
+            listener.accept(true);
+            return true;
+        }
+        return ringBuffer.offer(samples, new IngestCallback(samples.size(), listener));
+    }
+
+    /**
+     * 发布到RabbitMQ运行时数据队列，一次上报作为一条消息
+     *
+     * @return 是否发布成功
+     */
+    private boolean publish(List<MetricsReportRequest> samples) {
+        MetricsBatchReportRequest message = new MetricsBatchReportRequest();
+        message.setSamples(samples);
+        try {
+            rabbitTemplate.convertAndSend(RabbitConfig.METRICS_QUEUE, message);
+            return true;
+        } catch (AmqpException e) {
+            log.warn("运行时数据发布到队列失败，改用内存队列: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int getRetryAfterSec() {
+        return retryAfterSec;
+    }
+
+    @Override
+    public IngestStatsResponse getStats() {
+        long drained = ringBuffer.getDrained();
+        long batchCount = batches;
+        return IngestStatsResponse.builder()
+                .mode(mode)
+                .capacity(ringBuffer.getCapacity())
+                .occupancy(ringBuffer.getOccupancy())
+                .maxOccupancy(ringBuffer.getMaxOccupancy())
+                .offered(ringBuffer.getOffered())
+                .rejected(ringBuffer.getRejected())
+                .coalesced(coalesced)
+                .written(written)
+                .batches(batchCount)
+                .avgQueueLatencyMs(drained > 0 ? nanosToMillis(ringBuffer.getQueueNanosTotal() / drained) : 0)
+                .maxQueueLatencyMs(nanosToMillis(ringBuffer.getQueueNanosMax()))
+                .avgWriteLatencyMs(batchCount > 0 ? nanosToMillis(writeNanosTotal / batchCount) : 0)
+                .maxWriteLatencyMs(nanosToMillis(writeNanosMax))
+                .build();
+    }
+
+    private static double nanosToMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * 写入循环：读取到第一条数据后，在刷新间隔内尽量取满一批，再合并重复数据后一次性写入
+     */
+    private void writeLoop() {
+        List<MetricsReportRequest> batch = new ArrayList<>(batchSize);
+        List<IngestCallback> callbacks = new ArrayList<>(batchSize);
+        Map<String, Integer> positions = new HashMap<>(batchSize * 2);
+        List<MetricsReportRequest> unique = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long flushAt = 0;
+
+        while (true) {
+            int n = ringBuffer.drainTo(batch, callbacks, batchSize - batch.size());
+            if (n > 0 && flushAt == 0) {
+                flushAt = System.nanoTime() + flushIntervalNanos;
+            }
+
+            boolean full = batch.size() >= batchSize;
+            boolean due = !batch.isEmpty() && (!running || System.nanoTime() - flushAt >= 0);
+            if (full || due) {
+                coalesce(batch, positions, unique);
+                boolean success;
+                try {
+                    success = write(unique);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                complete(callbacks, success);
+                batch.clear();
+                callbacks.clear();
+                positions.clear();
+                unique.clear();
+                flushAt = 0;
+                continue;
+            }
+
+            if (!running && batch.isEmpty() && ringBuffer.isEmpty()) {
+                return;
+            }
+            if (n == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * 合并同一刷新窗口内同一Agent、同一时间戳的重复数据（如客户端重试或补发），保留最后收到的一条
+     */
+    private void coalesce(List<MetricsReportRequest> batch, Map<String, Integer> positions,
+                          List<MetricsReportRequest> unique) {
+        int duplicates = 0;
+        for (MetricsReportRequest sample : batch) {
+            if (sample.getMetrics() == null) {
+                continue;
+            }
+            String key = sample.getAgentId() + '|' + sample.getTimestamp();
+            Integer position = positions.putIfAbsent(key, unique.size());
+            if (position == null) {
+                unique.add(sample);
+            } else {
+                unique.set(position, sample);
+                duplicates++;
+            }
+        }
+        if (duplicates > 0) {
+            coalesced += duplicates;
+        }
+    }
+
+    /**
+     * 通知本批数据关联的写入回调，回调异常不影响写入线程
+     */
+    private void complete(List<IngestCallback> callbacks, boolean success) {
+        for (IngestCallback callback : callbacks) {
+            if (callback == null) {
+                continue;
+            }
+            try {
+                callback.complete(success);
+            } catch (RuntimeException e) {
+                log.warn("运行时数据写入回调执行失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 批量写入，失败时重试；重试期间队列会逐渐填满，从而对客户端形成背压
+     *
+     * @return 是否写入成功，重试耗尽后丢弃数据并返回false
+     */
+    private boolean write(List<MetricsReportRequest> batch) throws InterruptedException {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                long begin = System.nanoTime();
+                agentMetricsService.saveMetricsBatch(batch);
+                long elapsed = System.nanoTime() - begin;
+                written += batch.size();
+                batches++;
+                writeNanosTotal += elapsed;
+                if (elapsed > writeNanosMax) {
+                    writeNanosMax = elapsed;
+                }
+                return true;
+            } catch (Exception e) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    log.error("运行时数据批量写入失败，丢弃{}条数据", batch.size(), e);
+                    return false;
+                }
+                log.warn("运行时数据批量写入失败，{}ms后重试: {}", RETRY_BACKOFF_MS * attempt, e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+        return false;
+    }
+}
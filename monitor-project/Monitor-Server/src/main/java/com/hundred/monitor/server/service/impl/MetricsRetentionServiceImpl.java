@@ -0,0 +1,237 @@
+package com.hundred.monitor.server.service.impl;
+
+import com.hundred.monitor.server.manager.MetricsPartitionManager;
+import com.hundred.monitor.server.mapper.AgentDiskMetricsMapper;
+import com.hundred.monitor.server.mapper.AgentMetricsMapper;
+import com.hundred.monitor.server.mapper.AgentMetricsRollupMapper;
+import com.hundred.monitor.server.model.response.RetentionReportResponse;
+import com.hundred.monitor.server.rollup.RollupLevel;
+import com.hundred.monitor.server.service.MetricsRetentionService;
+import com.hundred.monitor.server.service.MetricsRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 监控数据保留策略服务实现类
+ * 原始数据优先整体删除过期的按天分区，剩余的过期数据与汇总数据分批删除：
+ * 每批只删除少量行并在批次间暂停，单轮超过时间上限即停止，剩余数据留给下一轮，
+ * 避免大事务长时间持有锁影响写入；可配置只在指定时间窗口（如凌晨）内执行。
+ * 原始数据只删除已计入汇总表的部分，保证汇总结果完整
+ */
+@Slf4j
+@Service
+public class MetricsRetentionServiceImpl implements MetricsRetentionService {
+
+    private static final String RAW_TABLE = "agent_metrics";
+
+    private static final String DISK_TABLE = "agent_disk_metrics";
+
+    @Autowired
+    private AgentMetricsMapper agentMetricsMapper;
+
+    @Autowired
+    private AgentDiskMetricsMapper agentDiskMetricsMapper;
+
+    @Autowired
+    private AgentMetricsRollupMapper rollupMapper;
+
+    @Autowired
+    private MetricsRollupService metricsRollupService;
+
+    @Autowired
+    private MetricsPartitionManager metricsPartitionManager;
+
+    @Value("${monitor.retention.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 允许执行的时间窗口，格式HH:mm-HH:mm，可跨零点；为空表示不限
+     */
+    @Value("${monitor.retention.window:}")
+    private String window;
+
+    @Value("${monitor.retention.raw-hours:48}")
+    private long rawHours;
+
+    /**
+     * 各挂载点磁盘数据保留天数；该表不参与汇总，按挂载点的历史查询最多只能查到该天数内的数据
+     */
+    @Value("${monitor.retention.disk-days:30}")
+    private long diskDays;
+
+    @Value("${monitor.retention.rollup-1m-days:7}")
+    private long rollup1mDays;
+
+    @Value("${monitor.retention.rollup-5m-days:30}")
+    private long rollup5mDays;
+
+    @Value("${monitor.retention.rollup-1h-days:180}")
+    private long rollup1hDays;
+
+    @Value("${monitor.retention.rollup-1d-days:730}")
+    private long rollup1dDays;
+
+    @Value("${monitor.retention.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${monitor.retention.chunk-pause-ms:100}")
+    private long chunkPauseMs;
+
+    @Value("${monitor.retention.max-run-ms:60000}")
+    private long maxRunMs;
+
+    @Value("${monitor.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    private volatile RetentionReportResponse lastReport;
+
+    /**
+     * 定时清理
+     * 单轮最长执行max-run-ms，依赖spring.task.scheduling.pool.size大于1，不占用其他定时任务的线程
+     */
+    @Scheduled(initialDelayString = "${monitor.retention.interval-ms:600000}",
+            fixedDelayString = "${monitor.retention.interval-ms:600000}")
+    public void scheduledPurge() {
+        if (!enabled || !inWindow(LocalTime.now())) {
+            return;
+        }
+        try {
+            purge();
+        } catch (Exception e) {
+            log.error("过期监控数据清理失败", e);
+        }
+    }
+
+    @Override
+    public RetentionReportResponse purge() {
+        LocalDateTime now = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + maxRunMs * 1_000_000L;
+        Map<String, Long> purged = new LinkedHashMap<>();
+        boolean completed = true;
+
+        // 原始数据：汇总开启时只删除已汇总的部分
+        if (rawHours > 0) {
+            long maxId = rollupEnabled ? metricsRollupService.getRolledId() : Long.MAX_VALUE;
+            LocalDateTime before = now.minusHours(rawHours);
+            purged.put(RAW_TABLE, metricsPartitionManager.dropExpiredPartitions(RAW_TABLE, before, maxId));
+            completed = purgeTable(RAW_TABLE, purged, deadline,
+                    () -> agentMetricsMapper.deleteBefore(before, maxId, chunkSize));
+        }
+
+        // 磁盘数据不参与汇总，按单独的保留天数清理
+        if (diskDays > 0 && completed) {
+            LocalDateTime before = now.minusDays(diskDays);
+            purged.put(DISK_TABLE, metricsPartitionManager.dropExpiredPartitions(DISK_TABLE, before, Long.MAX_VALUE));
+            completed = purgeTable(DISK_TABLE, purged, deadline,
+                    () -> agentDiskMetricsMapper.deleteBefore(before, chunkSize));
+        }
+
+        for (RollupLevel level : RollupLevel.values()) {
+            long days = getRetentionDays(level);
+            if (days <= 0 || !completed) {
+                continue;
+            }
+            LocalDateTime before = now.minusDays(days);
+            completed = purgeTable(level.getTable(), purged, deadline,
+                    () -> rollupMapper.deleteBefore(level.getTable(), before, chunkSize));
+        }
+
+        long total = purged.values().stream().mapToLong(Long::longValue).sum();
+        RetentionReportResponse report = RetentionReportResponse.builder()
+                .startedAt(now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .elapsedMs((System.nanoTime() - startNanos) / 1_000_000)
+                .totalPurged(total)
+                .purged(purged)
+                .completed(completed)
+                .build();
+        lastReport = report;
+        if (total > 0 || !completed) {
+            log.info("过期监控数据清理完成: total={}, purged={}, elapsedMs={}, completed={}",
+                    total, purged, report.getElapsedMs(), completed);
+        }
+        return report;
+    }
+
+    @Override
+    public RetentionReportResponse getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * 分批删除单张表的过期数据
+     *
+     * @return 是否删除完毕；超出时间上限或被中断时返回false
+     */
+    private boolean purgeTable(String table, Map<String, Long> purged, long deadline, ChunkDelete chunkDelete) {
+        long count = 0;
+        try {
+            while (true) {
+                int deleted = chunkDelete.delete();
+                count += deleted;
+                if (deleted < chunkSize) {
+                    return true;
+                }
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                if (chunkPauseMs > 0) {
+                    Thread.sleep(chunkPauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            purged.merge(table, count, Long::sum);
+        }
+    }
+
+    private long getRetentionDays(RollupLevel level) {
+        return switch (level) {
+            case ONE_MINUTE -> rollup1mDays;
+            case FIVE_MINUTES -> rollup5mDays;
+            case ONE_HOUR -> rollup1hDays;
+            case ONE_DAY -> rollup1dDays;
+        };
+    }
+
+    /**
+     * 当前时间是否在允许执行的时间窗口内
+     */
+    private boolean inWindow(LocalTime time) {
+        if (window == null || window.isBlank()) {
+            return true;
+        }
+        try {
+            String[] parts = window.trim().split("-");
+            LocalTime start = LocalTime.parse(parts[0].trim());
+            LocalTime end = LocalTime.parse(parts[1].trim());
+            if (start.isBefore(end)) {
+                return !time.isBefore(start) && time.isBefore(end);
+            }
+            // 跨零点，如 22:00-06:00
+            return !time.isBefore(start) || time.isBefore(end);
+        } catch (Exception e) {
+            log.warn("清理时间窗口配置无效: {}，不限制执行时间", window);
+            return true;
+        }
+    }
+
+    /**
+     * 单批删除操作
+     */
+    @FunctionalInterface
+    private interface ChunkDelete {
+        int delete();
+    }
+}
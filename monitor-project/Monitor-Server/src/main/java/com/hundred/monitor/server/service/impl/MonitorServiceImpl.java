@@ -1,42 +1,94 @@
 package com.hundred.monitor.server.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.server.manager.LatestMetricsCache;
 import com.hundred.monitor.server.mapper.AgentMapper;
-import com.hundred.monitor.server.mapper.AgentMetricsMapper;
+import com.hundred.monitor.server.model.entity.Agent;
 import com.hundred.monitor.server.model.entity.AgentMetrics;
 import com.hundred.monitor.server.model.response.AgentBasicInfoResponse;
+import com.hundred.monitor.server.model.response.FleetMetricsResponse;
+import com.hundred.monitor.server.model.response.MetricsBatchHistoryResponse;
 import com.hundred.monitor.server.model.response.MetricsHistoryResponse;
 import com.hundred.monitor.server.model.response.MetricsResponse;
+import com.hundred.monitor.server.model.request.FleetMetricsRequest;
+import com.hundred.monitor.server.model.request.MetricsBatchHistoryRequest;
 import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
 import com.hundred.monitor.server.service.MonitorService;
+import com.hundred.monitor.server.store.Downsampler;
+import com.hundred.monitor.server.store.MetricBuckets;
+import com.hundred.monitor.server.store.MetricsStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MonitorServiceImpl implements MonitorService {
+
+    /**
+     * 目标点数上限
+     */
+    private static final int MAX_POINTS = 5000;
+
+    /**
+     * LTTB方式下源时间桶数量相对目标点数的倍数
+     */
+    private static final int LTTB_OVERSAMPLE = 4;
+
+    /**
+     * 可选的聚合间隔（秒），均能被汇总粒度整除，便于读取汇总表
+     */
+    private static final int[] NICE_INTERVALS = {10, 30, 60, 300, 900, 1800, 3600, 7200, 21600, 43200, 86400};
+
     @Resource
     private AgentMapper agentMapper;
     @Resource
-    private AgentMetricsMapper agentMetricsMapper;
+    private MetricsStore metricsStore;
+    @Resource
+    private LatestMetricsCache latestMetricsCache;
+
+    /**
+     * 批量历史查询的并行度
+     */
+    @Value("${monitor.history.parallelism:4}")
+    private int historyParallelism;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * 批量历史查询单次最多主机数
+     */
+    @Value("${monitor.history.max-agents:50}")
+    private int historyMaxAgents;
+
+    /**
+     * 批量历史查询线程池，线程数固定，避免大批量请求占满数据库连接
+     */
+    private ExecutorService historyExecutor;
+
+    /**
+     * 上次从存储补齐全部主机最新数据的时间（System.nanoTime），0表示尚未加载
+     */
+    private volatile long fleetLoadedAt;
 
     @Override
     public AgentBasicInfoResponse getMonitorList() {
@@ -51,12 +103,14 @@ public class MonitorServiceImpl implements MonitorService {
     @Override
     public MetricsResponse getLatestMetrics(String agentId) {
         try {
-            // 查询最新的一条监控数据
-            LambdaQueryWrapper<AgentMetrics> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(AgentMetrics::getAgentId, agentId)
-                    .orderByDesc(AgentMetrics::getTimestamp)
-                    .last("LIMIT 1");
-            AgentMetrics metrics = agentMetricsMapper.selectOne(wrapper);
+            // 优先读取入库时更新的缓存
+            MetricsResponse cached = latestMetricsCache.get(agentId);
+            if (cached != null) {
+                return cached;
+            }
+
+            // 缓存未命中或已过期（如服务刚启动、数据由其他节点写入）时查询最新的一条监控数据并回填缓存
+            AgentMetrics metrics = metricsStore.findLatest(agentId);
 
             if (metrics == null) {
                 return MetricsResponse.builder()
@@ -64,51 +118,105 @@ public class MonitorServiceImpl implements MonitorService {
                         .build();
             }
 
-            // 构建响应
-            MetricsResponse.MetricsResponseBuilder builder = MetricsResponse.builder()
-                    .agentId(metrics.getAgentId())
-                    .cpuPercent(metrics.getCpuPercent() != null ? metrics.getCpuPercent().doubleValue() : null)
-                    .memoryPercent(metrics.getMemoryPercent() != null ? metrics.getMemoryPercent().doubleValue() : null)
-                    .networkUpMbps(metrics.getNetworkUpMbps() != null ? metrics.getNetworkUpMbps().doubleValue() : null)
-                    .networkDownMbps(metrics.getNetworkDownMbps() != null ? metrics.getNetworkDownMbps().doubleValue() : null)
-                    .sshRunning(metrics.getSshRunning())
-                    .sshPortListening(metrics.getSshPortListening())
-                    .sshPort(metrics.getSshPort())
-                    .timestamp(metrics.getTimestamp() != null ? metrics.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
-
-            // 解析磁盘使用信息
-            if (metrics.getDiskUsages() != null && !metrics.getDiskUsages().isEmpty()) {
-                builder.diskUsages(parseDiskUsages(metrics.getDiskUsages()));
+            return latestMetricsCache.update(metrics);
+        } catch (Exception e) {
+            log.error("获取主机监控指标失败: agentId={}", agentId, e);
+            throw new RuntimeException("获取监控指标失败");
+        }
+    }
+
+    @Override
+    public FleetMetricsResponse getFleetLatestMetrics(FleetMetricsRequest request) {
+        try {
+            loadFleet();
+
+            // 先取游标再读取数据，读取期间的更新下次可能重复返回，但不会遗漏
+            long cursor = latestMetricsCache.getVersion();
+            long since = request.getSince() != null ? request.getSince() : 0;
+            Set<String> agentIds = request.getAgentIds() != null && !request.getAgentIds().isEmpty()
+                    ? new HashSet<>(request.getAgentIds()) : null;
+
+            List<MetricsResponse> matched = new ArrayList<>();
+            for (MetricsResponse metrics : latestMetricsCache.getChangedSince(since)) {
+                if (agentIds == null || agentIds.contains(metrics.getAgentId())) {
+                    matched.add(metrics);
+                }
+            }
+            matched.sort(Comparator.comparing(MetricsResponse::getAgentId));
+
+            // 分页
+            List<MetricsResponse> page = matched;
+            if (request.getSize() != null && request.getSize() > 0) {
+                int pageNo = request.getPage() != null && request.getPage() > 0 ? request.getPage() : 1;
+                int from = (int) Math.min((long) (pageNo - 1) * request.getSize(), matched.size());
+                int to = Math.min(from + request.getSize(), matched.size());
+                page = matched.subList(from, to);
             }
 
-            return builder.build();
+            return FleetMetricsResponse.builder()
+                    .cursor(cursor)
+                    .total(matched.size())
+                    .metrics(page)
+                    .build();
         } catch (Exception e) {
-            log.error("获取主机监控指标失败: agentId={}", agentId, e);
+            log.error("获取全部主机监控指标失败: request={}", request, e);
             throw new RuntimeException("获取监控指标失败");
         }
     }
 
+    /**
+     * 缓存中只有本节点写入过且未过期的主机，全量查询时从存储补齐其余主机；
+     * 每个缓存有效期内最多补齐一次，本节点持续写入的主机不会重复查询
+     */
+    private void loadFleet() {
+        long maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(latestMetricsCache.getMaxAgeMs());
+        if (fleetLoadedAt != 0 && System.nanoTime() - fleetLoadedAt < maxAgeNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (fleetLoadedAt != 0 && System.nanoTime() - fleetLoadedAt < maxAgeNanos) {
+                return;
+            }
+            int loaded = 0;
+            for (Agent agent : agentMapper.selectList(null)) {
+                if (latestMetricsCache.isFresh(agent.getAgentId())) {
+                    continue;
+                }
+                AgentMetrics metrics = metricsStore.findLatest(agent.getAgentId());
+                if (metrics != null) {
+                    latestMetricsCache.update(metrics);
+                    loaded++;
+                }
+            }
+            fleetLoadedAt = System.nanoTime();
+            log.debug("已从存储加载{}台主机的最新监控数据", loaded);
+        }
+    }
+
     @Override
     public MetricsHistoryResponse getMetricsHistory(String agentId, MetricsHistoryRequest request) {
         try {
             // 解析请求参数
             MetricsHistoryRequest.MetricType metricType = MetricsHistoryRequest.MetricType.fromValue(request.getMetricType());
             MetricsHistoryRequest.TimeRange timeRange = MetricsHistoryRequest.TimeRange.fromValue(request.getTimeRange());
+            MetricsHistoryRequest.Mode mode = MetricsHistoryRequest.Mode.fromValue(request.getMode());
 
             // 计算查询时间范围
             LocalDateTime endTime = LocalDateTime.now();
             LocalDateTime startTime = endTime.minusMinutes(timeRange.getMinutes());
 
-            // 查询原始数据
-            LambdaQueryWrapper<AgentMetrics> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(AgentMetrics::getAgentId, agentId)
-                    .ge(AgentMetrics::getTimestamp, startTime)
-                    .le(AgentMetrics::getTimestamp, endTime)
-                    .orderByAsc(AgentMetrics::getTimestamp);
-            List<AgentMetrics> metricsList = agentMetricsMapper.selectList(wrapper);
-            log.info("查询原始数据：{}", metricsList);
-            // 聚合数据
-            return aggregateMetrics(metricsList, metricType, timeRange);
+            // 按查询间隔聚合，磁盘指标指定挂载点时查询该挂载点，否则查询各磁盘中的最高使用率
+            int points = resolvePoints(timeRange, request.getPoints());
+            int intervalSeconds = resolveInterval(timeRange, mode, request.getPoints(), points);
+            MetricBuckets buckets;
+            if (metricType == MetricsHistoryRequest.MetricType.DISK
+                    && request.getMount() != null && !request.getMount().isBlank()) {
+                buckets = metricsStore.aggregateDisk(agentId, request.getMount(), startTime, endTime, intervalSeconds);
+            } else {
+                buckets = metricsStore.aggregate(agentId, EnumSet.of(metricType), startTime, endTime, intervalSeconds)
+                        .get(metricType);
+            }
+            return buildHistoryResponse(buckets, mode, points);
         } catch (IllegalArgumentException e) {
             log.error("参数错误: {}", e.getMessage());
             throw e;
@@ -118,186 +226,162 @@ public class MonitorServiceImpl implements MonitorService {
         }
     }
 
-    /**
-     * 解析磁盘使用信息
-     */
-    private List<MetricsResponse.DiskUsage> parseDiskUsages(String diskUsagesJson) {
+    @Override
+    public MetricsBatchHistoryResponse getMetricsHistoryBatch(MetricsBatchHistoryRequest request) {
         try {
-            List<MetricsResponse.DiskUsage> result = new ArrayList<>();
-
-            if (diskUsagesJson == null || diskUsagesJson.trim().isEmpty()) {
-                return result;
+            // 解析请求参数
+            List<String> agentIds = request.getAgentIds() != null
+                    ? request.getAgentIds().stream().distinct().collect(Collectors.toList()) : List.of();
+            if (agentIds.isEmpty() || agentIds.size() > historyMaxAgents) {
+                throw new IllegalArgumentException("Invalid agent count: " + agentIds.size());
             }
-
-            // 解析 JSON
-            JsonNode rootNode = objectMapper.readTree(diskUsagesJson);
-
-            // 如果是数组格式：[{"mount":"..."}, ...]
-            if (rootNode.isArray()) {
-                for (JsonNode node : rootNode) {
-                    MetricsResponse.DiskUsage usage = parseSingleDiskUsage(node);
-                    if (usage != null) {
-                        result.add(usage);
-                    }
+            Set<MetricsHistoryRequest.MetricType> metricTypes = EnumSet.noneOf(MetricsHistoryRequest.MetricType.class);
+            if (request.getMetricTypes() == null || request.getMetricTypes().isEmpty()) {
+                metricTypes.addAll(EnumSet.allOf(MetricsHistoryRequest.MetricType.class));
+            } else {
+                for (String metricType : request.getMetricTypes()) {
+                    metricTypes.add(MetricsHistoryRequest.MetricType.fromValue(metricType));
                 }
             }
-            // 如果是单个对象格式：{"mount":"..."}
-            else if (rootNode.isObject()) {
-                MetricsResponse.DiskUsage usage = parseSingleDiskUsage(rootNode);
-                if (usage != null) {
-                    result.add(usage);
-                }
+            MetricsHistoryRequest.TimeRange timeRange = MetricsHistoryRequest.TimeRange.fromValue(request.getTimeRange());
+            MetricsHistoryRequest.Mode mode = MetricsHistoryRequest.Mode.fromValue(request.getMode());
+            int points = resolvePoints(timeRange, request.getPoints());
+            int intervalSeconds = resolveInterval(timeRange, mode, request.getPoints(), points);
+
+            // 所有主机使用相同的时间范围，每台主机的数据只扫描一次，主机之间并行查询
+            LocalDateTime endTime = LocalDateTime.now();
+            LocalDateTime startTime = endTime.minusMinutes(timeRange.getMinutes());
+            List<CompletableFuture<Map<MetricsHistoryRequest.MetricType, MetricBuckets>>> futures = new ArrayList<>();
+            for (String agentId : agentIds) {
+                futures.add(CompletableFuture.supplyAsync(() ->
+                        metricsStore.aggregate(agentId, metricTypes, startTime, endTime, intervalSeconds), historyExecutor));
             }
 
-            return result;
+            Map<String, Map<String, MetricsHistoryResponse>> series = new LinkedHashMap<>();
+            for (int i = 0; i < agentIds.size(); i++) {
+                Map<String, MetricsHistoryResponse> agentSeries = new LinkedHashMap<>();
+                futures.get(i).join().forEach((metricType, buckets) ->
+                        agentSeries.put(metricType.getValue(), buildHistoryResponse(buckets, mode, points)));
+                series.put(agentIds.get(i), agentSeries);
+            }
+            return MetricsBatchHistoryResponse.builder()
+                    .series(series)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("参数错误: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            log.warn("解析磁盘使用信息失败: json={}", diskUsagesJson, e);
-            return new ArrayList<>();
+            log.error("批量获取历史监控数据失败: request={}", request, e);
+            throw new RuntimeException("获取历史数据失败");
         }
     }
 
-    /**
-     * 解析单个磁盘使用信息
-     */
-    private MetricsResponse.DiskUsage parseSingleDiskUsage(JsonNode node) {
-        try {
-            String mount = node.has("mount") ? node.get("mount").asText() : "";
-            String name = node.has("name") ? node.get("name").asText() : mount;
-            Long totalGb = node.has("totalGb") ? node.get("totalGb").asLong() : null;
-            Long usedGb = node.has("usedGb") ? node.get("usedGb").asLong() : null;
-            Double usagePercent = node.has("usagePercent") ? node.get("usagePercent").asDouble() : null;
-            // 兼容 usedPercent 字段名
-            if (usagePercent == null && node.has("usedPercent")) {
-                usagePercent = node.get("usedPercent").asDouble();
-            }
+    @PostConstruct
+    public void initHistoryExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        historyExecutor = Executors.newFixedThreadPool(Math.max(1, historyParallelism), r -> {
+            Thread thread = new Thread(r, "history-query-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-            return MetricsResponse.DiskUsage.builder()
-                    .mount(mount)
-                    .name(name)
-                    .totalGb(totalGb)
-                    .usedGb(usedGb)
-                    .usagePercent(usagePercent)
-                    .build();
-        } catch (Exception e) {
-            log.warn("解析单个磁盘使用信息失败", e);
-            return null;
-        }
+    @PreDestroy
+    public void shutdownHistoryExecutor() {
+        historyExecutor.shutdownNow();
     }
 
     /**
-     * 聚合监控数据
+     * 目标点数：请求指定时校验范围，否则为时间范围按默认间隔划分的时间桶数
      */
-    private MetricsHistoryResponse aggregateMetrics(
-            List<AgentMetrics> metricsList,
-            MetricsHistoryRequest.MetricType metricType,
-            MetricsHistoryRequest.TimeRange timeRange
-    ) {
-        if (metricsList.isEmpty()) {
-            return MetricsHistoryResponse.builder()
-                    .timestamps(new ArrayList<>())
-                    .values(new ArrayList<>())
-                    .interval(timeRange.getInterval())
-                    .build();
+    private int resolvePoints(MetricsHistoryRequest.TimeRange timeRange, Integer requestPoints) {
+        if (requestPoints == null) {
+            return (int) (timeRange.getMinutes() * 60L / parseIntervalToSeconds(timeRange.getInterval()));
         }
+        if (requestPoints < 3 || requestPoints > MAX_POINTS) {
+            throw new IllegalArgumentException("Invalid points: " + requestPoints);
+        }
+        return requestPoints;
+    }
 
-        // 确定聚合间隔（秒）
-        int intervalSeconds = parseIntervalToSeconds(timeRange.getInterval());
-        long intervalMillis = intervalSeconds * 1000L;
-
-        // 按时间间隔聚合
-        Map<Long, List<BigDecimal>> groupedData = new HashMap<>();
-        long startTime = metricsList.get(0).getTimestamp().atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
-
-        for (AgentMetrics metrics : metricsList) {
-            long timestamp = metrics.getTimestamp().atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
-            long bucket = ((timestamp - startTime) / intervalMillis) * intervalMillis + startTime;
-
-            BigDecimal value = getMetricValue(metrics, metricType);
-            if (value != null) {
-                groupedData.computeIfAbsent(bucket, k -> new ArrayList<>()).add(value);
-            }
+    /**
+     * 聚合间隔：未指定目标点数且不降采样时使用时间范围的默认间隔
+     */
+    private int resolveInterval(MetricsHistoryRequest.TimeRange timeRange, MetricsHistoryRequest.Mode mode,
+                                Integer requestPoints, int points) {
+        if (requestPoints == null && mode != MetricsHistoryRequest.Mode.LTTB) {
+            return parseIntervalToSeconds(timeRange.getInterval());
         }
+        // LTTB从更细的时间桶中挑选点，其他方式每个时间桶对应一个点
+        int bucketCount = mode == MetricsHistoryRequest.Mode.LTTB ? points * LTTB_OVERSAMPLE : points;
+        return chooseInterval(timeRange.getMinutes() * 60L / bucketCount);
+    }
 
-        // 计算每个时间桶的平均值
+    /**
+     * 构建历史数据响应
+     */
+    private MetricsHistoryResponse buildHistoryResponse(MetricBuckets buckets, MetricsHistoryRequest.Mode mode, int points) {
         List<String> timestamps = new ArrayList<>();
         List<Double> values = new ArrayList<>();
-
-        groupedData.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> {
-                    timestamps.add(formatTimestamp(entry.getKey()));
-                    double avgValue = entry.getValue().stream()
-                            .mapToDouble(BigDecimal::doubleValue)
-                            .average()
-                            .orElse(0.0);
-                    values.add(Math.round(avgValue * 10.0) / 10.0); // 保留一位小数
-                });
-
-        return MetricsHistoryResponse.builder()
+        MetricsHistoryResponse.MetricsHistoryResponseBuilder builder = MetricsHistoryResponse.builder()
                 .timestamps(timestamps)
                 .values(values)
-                .interval(timeRange.getInterval())
-                .build();
+                .interval(formatInterval(buckets.getIntervalSeconds()));
+
+        if (mode == MetricsHistoryRequest.Mode.LTTB) {
+            for (int i : Downsampler.lttb(buckets, points)) {
+                timestamps.add(formatTimestamp(buckets.getBucketStart(i)));
+                values.add(round(buckets.getAverage(i)));
+            }
+            return builder.build();
+        }
+
+        List<Double> minValues = mode == MetricsHistoryRequest.Mode.MINMAX ? new ArrayList<>() : null;
+        List<Double> maxValues = mode == MetricsHistoryRequest.Mode.MINMAX ? new ArrayList<>() : null;
+        for (int i = 0; i < buckets.size(); i++) {
+            if (buckets.hasData(i)) {
+                timestamps.add(formatTimestamp(buckets.getBucketStart(i)));
+                values.add(round(buckets.getAverage(i)));
+                if (minValues != null) {
+                    minValues.add(round(buckets.getMin(i)));
+                    maxValues.add(round(buckets.getMax(i)));
+                }
+            }
+        }
+        return builder.minValues(minValues).maxValues(maxValues).build();
     }
 
     /**
-     * 根据指标类型获取值
+     * 保留一位小数
      */
-    private BigDecimal getMetricValue(AgentMetrics metrics, MetricsHistoryRequest.MetricType metricType) {
-        return switch (metricType) {
-            case CPU -> metrics.getCpuPercent();
-            case MEMORY -> metrics.getMemoryPercent();
-            case DISK -> getMaxDiskUsage(metrics.getDiskUsages());
-        };
+    private double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
     }
 
     /**
-     * 获取磁盘最大使用率
+     * 选择不小于期望值的聚合间隔，超过一天时取整天
      */
-    private BigDecimal getMaxDiskUsage(String diskUsagesJson) {
-        if (diskUsagesJson == null || diskUsagesJson.trim().isEmpty()) {
-            return null;
-        }
-
-        try {
-            // 解析 JSON
-            JsonNode rootNode = objectMapper.readTree(diskUsagesJson);
-            BigDecimal maxUsage = null;
-
-            // 如果是数组格式
-            if (rootNode.isArray()) {
-                for (JsonNode node : rootNode) {
-                    BigDecimal usage = extractDiskUsagePercent(node);
-                    if (usage != null && (maxUsage == null || usage.compareTo(maxUsage) > 0)) {
-                        maxUsage = usage;
-                    }
-                }
-            }
-            // 如果是单个对象格式
-            else if (rootNode.isObject()) {
-                maxUsage = extractDiskUsagePercent(rootNode);
+    private int chooseInterval(long seconds) {
+        for (int interval : NICE_INTERVALS) {
+            if (interval >= seconds) {
+                return interval;
             }
-
-            return maxUsage;
-        } catch (Exception e) {
-            log.warn("解析磁盘最大使用率失败: json={}", diskUsagesJson, e);
-            return null;
         }
+        return (int) ((seconds + 86399) / 86400 * 86400);
     }
 
     /**
-     * 从 JSON 节点提取磁盘使用率
+     * 将间隔秒数格式化为字符串，与parseIntervalToSeconds对应
      */
-    private BigDecimal extractDiskUsagePercent(JsonNode node) {
-        // 优先使用 usagePercent
-        if (node.has("usagePercent")) {
-            return node.get("usagePercent").decimalValue();
-        }
-        // 兼容 usedPercent
-        if (node.has("usedPercent")) {
-            return node.get("usedPercent").decimalValue();
+    private String formatInterval(int seconds) {
+        if (seconds % 86400 == 0) {
+            return seconds / 86400 + "d";
+        } else if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        } else if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
         }
-        return null;
+        return seconds + "s";
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.hundred.monitor.server.store;
+
+import java.util.Arrays;
+
+/**
+ * 时间桶降采样
+ * 使用Largest-Triangle-Three-Buckets算法从时间桶中挑选指定数量的点，
+ * 保留折线的视觉形状（包括尖峰），单次遍历完成
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * 按LTTB算法挑选时间桶
+     *
+     * @param buckets   聚合结果，使用各时间桶的均值
+     * @param threshold 目标点数，至少为3；有数据的时间桶不多于该值时全部返回
+     * @return 被选中的时间桶下标，升序
+     */
+    public static int[] lttb(MetricBuckets buckets, int threshold) {
+        // 只保留有数据的时间桶
+        int[] points = new int[buckets.size()];
+        int n = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            if (buckets.hasData(i)) {
+                points[n++] = i;
+            }
+        }
+        if (threshold < 3 || n <= threshold) {
+            return Arrays.copyOf(points, n);
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        // 首尾两点固定保留，中间的点平均分为threshold-2组，每组选一个点
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        selected[count++] = points[0];
+
+        for (int group = 0; group < threshold - 2; group++) {
+            // 下一组的均值点作为三角形的第三个顶点
+            int nextStart = (int) Math.floor((group + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((group + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += points[j];
+                avgY += buckets.getAverage(points[j]);
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            // 当前组中与上一个选中点、下一组均值点构成的三角形面积最大的点
+            int rangeStart = (int) Math.floor(group * every) + 1;
+            int rangeEnd = (int) Math.floor((group + 1) * every) + 1;
+            double ax = points[a];
+            double ay = buckets.getAverage(points[a]);
+            double maxArea = -1;
+            int maxIndex = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (buckets.getAverage(points[j]) - ay)
+                        - (ax - points[j]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+            selected[count++] = points[maxIndex];
+            a = maxIndex;
+        }
+
+        selected[count++] = points[n - 1];
+        return selected;
+    }
+}
@@ -0,0 +1,160 @@
+package com.hundred.monitor.server.store;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * 单个指标的时间桶聚合结果
+ * 每个时间桶累计合计、计数、最小值与最大值，均值=合计/计数；时间桶按整点对齐，天级间隔按本地日期对齐。
+ * 时间桶按 (时间 - 起点) / 间隔 直接定位到基本类型数组的下标，单次遍历完成聚合，
+ * 内存占用只与时间桶数量有关，与数据行数无关
+ */
+public class MetricBuckets {
+
+    private static final int SECONDS_PER_DAY = 86400;
+
+    private final int intervalSeconds;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // 天级间隔按本地日期定位，否则按毫秒定位
+    private final boolean dayAligned;
+
+    // 第一个时间桶的序号：天级间隔为起点日期的epochDay，否则为 起点毫秒 / 间隔毫秒
+    private final long firstBucket;
+
+    private final double[] sums;
+    private final long[] counts;
+    private final double[] mins;
+    private final double[] maxs;
+
+    /**
+     * @param startTime       开始时间，所在的时间桶为第一个时间桶
+     * @param endTime         结束时间，所在的时间桶为最后一个时间桶
+     * @param intervalSeconds 时间桶间隔（秒）
+     */
+    public MetricBuckets(LocalDateTime startTime, LocalDateTime endTime, int intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Invalid interval: " + intervalSeconds);
+        }
+        this.intervalSeconds = intervalSeconds;
+        this.dayAligned = intervalSeconds % SECONDS_PER_DAY == 0;
+        this.firstBucket = bucketNumber(toEpochMillis(startTime));
+        int size = (int) Math.max(0, index(toEpochMillis(endTime)) + 1);
+        this.sums = new double[size];
+        this.counts = new long[size];
+        this.mins = new double[size];
+        this.maxs = new double[size];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * 累加单个样本，超出时间范围的样本被忽略
+     *
+     * @param epochMillis 数据时间（毫秒）
+     * @param value       样本值
+     */
+    public void add(long epochMillis, double value) {
+        add(epochMillis, value, 1, value, value);
+    }
+
+    /**
+     * 累加已聚合的数据（如汇总表或数据库聚合结果），超出时间范围的数据被忽略
+     *
+     * @param epochMillis 数据时间（毫秒）
+     * @param sum         合计
+     * @param count       样本数
+     * @param min         最小值
+     * @param max         最大值
+     */
+    public void add(long epochMillis, double sum, long count, double min, double max) {
+        long index = index(epochMillis);
+        if (index < 0 || index >= sums.length) {
+            return;
+        }
+        int i = (int) index;
+        sums[i] += sum;
+        counts[i] += count;
+        if (min < mins[i]) {
+            mins[i] = min;
+        }
+        if (max > maxs[i]) {
+            maxs[i] = max;
+        }
+    }
+
+    public void add(LocalDateTime time, double sum, long count, double min, double max) {
+        add(toEpochMillis(time), sum, count, min, max);
+    }
+
+    /**
+     * 时间桶数量（包括没有数据的时间桶）
+     */
+    public int size() {
+        return sums.length;
+    }
+
+    /**
+     * 时间桶内是否有数据
+     */
+    public boolean hasData(int index) {
+        return counts[index] > 0;
+    }
+
+    /**
+     * 时间桶起点（毫秒）
+     */
+    public long getBucketStart(int index) {
+        long bucket = firstBucket + (dayAligned ? (long) index * (intervalSeconds / SECONDS_PER_DAY) : index);
+        if (dayAligned) {
+            return LocalDate.ofEpochDay(bucket).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return bucket * intervalSeconds * 1000L;
+    }
+
+    public long getCount(int index) {
+        return counts[index];
+    }
+
+    public double getAverage(int index) {
+        return sums[index] / counts[index];
+    }
+
+    public double getMin(int index) {
+        return mins[index];
+    }
+
+    public double getMax(int index) {
+        return maxs[index];
+    }
+
+    /**
+     * 时间所属时间桶的下标，可能超出数组范围
+     */
+    private long index(long epochMillis) {
+        long bucket = bucketNumber(epochMillis);
+        if (dayAligned) {
+            return Math.floorDiv(bucket - firstBucket, intervalSeconds / SECONDS_PER_DAY);
+        }
+        return bucket - firstBucket;
+    }
+
+    private long bucketNumber(long epochMillis) {
+        if (dayAligned) {
+            return Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate().toEpochDay();
+        }
+        return Math.floorDiv(epochMillis, intervalSeconds * 1000L);
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,60 @@
+package com.hundred.monitor.server.store;
+
+import com.hundred.monitor.server.model.entity.AgentMetrics;
+import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 监控数据存储
+ * 通过 monitor.store.type 选择实现：mysql（默认，agent_metrics表及汇总表）或 tsdb（本地压缩时序存储）
+ */
+public interface MetricsStore {
+
+    /**
+     * 写入监控数据
+     *
+     * @param metrics 监控数据列表
+     */
+    void save(List<AgentMetrics> metrics);
+
+    /**
+     * 查询Agent最新的一条监控数据（含各挂载点磁盘使用信息）
+     *
+     * @param agentId Agent ID
+     * @return 最新监控数据，没有数据时返回null
+     */
+    AgentMetrics findLatest(String agentId);
+
+    /**
+     * 按时间桶聚合多个指标，Agent的数据只扫描一次
+     *
+     * @param agentId         Agent ID
+     * @param metricTypes     指标类型
+     * @param startTime       开始时间
+     * @param endTime         结束时间
+     * @param intervalSeconds 时间桶间隔（秒）
+     * @return 各指标的聚合结果，包含全部请求的指标
+     */
+    Map<MetricsHistoryRequest.MetricType, MetricBuckets> aggregate(String agentId,
+                                                                  Set<MetricsHistoryRequest.MetricType> metricTypes,
+                                                                  LocalDateTime startTime, LocalDateTime endTime,
+                                                                  int intervalSeconds);
+
+    /**
+     * 按时间桶聚合单个挂载点的磁盘使用率
+     * 挂载点数据不参与汇总，只保留monitor.retention.disk-days天，更早的时间桶没有数据
+     *
+     * @param agentId         Agent ID
+     * @param mount           挂载点
+     * @param startTime       开始时间
+     * @param endTime         结束时间
+     * @param intervalSeconds 时间桶间隔（秒）
+     * @return 聚合结果
+     */
+    MetricBuckets aggregateDisk(String agentId, String mount,
+                                LocalDateTime startTime, LocalDateTime endTime, int intervalSeconds);
+}
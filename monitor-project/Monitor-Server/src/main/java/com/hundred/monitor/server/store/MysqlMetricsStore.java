@@ -0,0 +1,298 @@
+package com.hundred.monitor.server.store;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.server.mapper.AgentDiskMetricsMapper;
+import com.hundred.monitor.server.mapper.AgentMetricsMapper;
+import com.hundred.monitor.server.mapper.AgentMetricsRollupMapper;
+import com.hundred.monitor.server.model.entity.AgentDiskMetrics;
+import com.hundred.monitor.server.model.entity.AgentMetrics;
+import com.hundred.monitor.server.model.entity.AgentMetricsRollup;
+import com.hundred.monitor.server.model.entity.MetricsBucket;
+import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
+import com.hundred.monitor.server.rollup.RollupLevel;
+import com.hundred.monitor.server.service.MetricsRollupService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于MySQL的监控数据存储
+ * 原始数据写入agent_metrics，各挂载点磁盘数据写入agent_disk_metrics；历史查询读取满足间隔的最粗粒度汇总表，
+ * 尚未汇总的最新原始数据单独补充；没有合适的汇总粒度时直接聚合原始数据
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.store.type", havingValue = "mysql", matchIfMissing = true)
+public class MysqlMetricsStore implements MetricsStore {
+
+    /**
+     * 单次批量插入的最大行数，避免SQL过长
+     */
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    @Autowired
+    private AgentMetricsMapper agentMetricsMapper;
+
+    @Autowired
+    private AgentDiskMetricsMapper agentDiskMetricsMapper;
+
+    @Autowired
+    private AgentMetricsRollupMapper agentMetricsRollupMapper;
+
+    @Autowired
+    private MetricsRollupService metricsRollupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 历史查询的只读快照事务：汇总进度、汇总表与原始数据读自同一个一致性快照
+     */
+    private TransactionTemplate snapshotTemplate;
+
+    @PostConstruct
+    public void init() {
+        snapshotTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 原始数据与各挂载点磁盘数据在同一事务中写入，
+     * 任一分批插入失败时整批回滚，调用方重试整批时不会产生重复行
+     */
+    @Override
+    public void save(List<AgentMetrics> metrics) {
+        transactionTemplate.executeWithoutResult(status -> insert(metrics));
+    }
+
+    private void insert(List<AgentMetrics> metrics) {
+        List<AgentDiskMetrics> disks = new ArrayList<>();
+        for (AgentMetrics m : metrics) {
+            if (m.getDisks() != null) {
+                disks.addAll(m.getDisks());
+            }
+        }
+        if (metrics.size() == 1) {
+            agentMetricsMapper.insert(metrics.get(0));
+        } else {
+            for (int from = 0; from < metrics.size(); from += INSERT_BATCH_SIZE) {
+                agentMetricsMapper.insertBatch(metrics.subList(from, Math.min(from + INSERT_BATCH_SIZE, metrics.size())));
+            }
+        }
+        for (int from = 0; from < disks.size(); from += INSERT_BATCH_SIZE) {
+            agentDiskMetricsMapper.insertBatch(disks.subList(from, Math.min(from + INSERT_BATCH_SIZE, disks.size())));
+        }
+    }
+
+    @Override
+    public AgentMetrics findLatest(String agentId) {
+        LambdaQueryWrapper<AgentMetrics> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(AgentMetrics::getAgentId, agentId)
+                .orderByDesc(AgentMetrics::getTimestamp)
+                .last("LIMIT 1");
+        AgentMetrics metrics = agentMetricsMapper.selectOne(wrapper);
+        if (metrics != null) {
+            LambdaQueryWrapper<AgentDiskMetrics> diskWrapper = new LambdaQueryWrapper<>();
+            diskWrapper.eq(AgentDiskMetrics::getAgentId, agentId)
+                    .eq(AgentDiskMetrics::getTimestamp, metrics.getTimestamp())
+                    .orderByAsc(AgentDiskMetrics::getMount);
+            metrics.setDisks(agentDiskMetricsMapper.selectList(diskWrapper));
+        }
+        return metrics;
+    }
+
+    @Override
+    public Map<MetricsHistoryRequest.MetricType, MetricBuckets> aggregate(String agentId,
+                                                                         Set<MetricsHistoryRequest.MetricType> metricTypes,
+                                                                         LocalDateTime startTime, LocalDateTime endTime,
+                                                                         int intervalSeconds) {
+        Map<MetricsHistoryRequest.MetricType, MetricBuckets> result = new EnumMap<>(MetricsHistoryRequest.MetricType.class);
+        for (MetricsHistoryRequest.MetricType metricType : metricTypes) {
+            result.put(metricType, new MetricBuckets(startTime, endTime, intervalSeconds));
+        }
+        // 汇总在同一事务中写入汇总表并推进汇总进度，在一致性快照中读取时两者始终对应，
+        // 不会出现汇总表已包含而原始数据仍按旧进度重复累加的情况
+        snapshotTemplate.executeWithoutResult(status ->
+                aggregateSnapshot(result, agentId, startTime, endTime, intervalSeconds));
+        return result;
+    }
+
+    /**
+     * 在快照事务中读取汇总表与尚未汇总的原始数据
+     */
+    private void aggregateSnapshot(Map<MetricsHistoryRequest.MetricType, MetricBuckets> result, String agentId,
+                                   LocalDateTime startTime, LocalDateTime endTime, int intervalSeconds) {
+        // 有满足间隔的汇总粒度时读取汇总表，ID更大的原始数据尚未汇总
+        RollupLevel level = RollupLevel.forInterval(intervalSeconds);
+        long rolledId = level != null ? metricsRollupService.getRolledId() : 0;
+        if (level != null) {
+            agentMetricsRollupMapper.streamRange(level.getTable(), agentId, startTime, endTime,
+                    context -> addRollup(result, context.getResultObject()));
+        }
+
+        // 未汇总的原始数据在数据库中按时间桶聚合，每个时间桶只返回一行，一次查询得到全部指标
+        List<AgentMetricsRollup> rows = agentMetricsMapper.selectBuckets(agentId, rolledId, startTime, endTime, intervalSeconds);
+        for (AgentMetricsRollup rollup : rows) {
+            addRollup(result, rollup);
+        }
+
+        // 没有disk_max_percent的旧数据只能解析JSON，流式读取逐行累加
+        MetricBuckets diskBuckets = result.get(MetricsHistoryRequest.MetricType.DISK);
+        if (diskBuckets != null) {
+            agentMetricsMapper.streamLegacyDiskUsages(agentId, rolledId, startTime, endTime, context -> {
+                AgentMetrics metrics = context.getResultObject();
+                BigDecimal value = getMaxDiskUsage(metrics.getDiskUsages());
+                if (value != null) {
+                    diskBuckets.add(MetricBuckets.toEpochMillis(metrics.getTimestamp()), value.doubleValue());
+                }
+            });
+        }
+    }
+
+    /**
+     * 将一个时间桶的汇总数据累加到各指标的聚合结果
+     */
+    private void addRollup(Map<MetricsHistoryRequest.MetricType, MetricBuckets> result, AgentMetricsRollup rollup) {
+        for (Map.Entry<MetricsHistoryRequest.MetricType, MetricBuckets> entry : result.entrySet()) {
+            MetricsHistoryRequest.MetricType metricType = entry.getKey();
+            Integer count = getRollupCount(rollup, metricType);
+            BigDecimal sum = getRollupSum(rollup, metricType);
+            BigDecimal min = getRollupMin(rollup, metricType);
+            BigDecimal max = getRollupMax(rollup, metricType);
+            if (count != null && count > 0 && sum != null && min != null && max != null) {
+                entry.getValue().add(rollup.getBucketTime(), sum.doubleValue(), count, min.doubleValue(), max.doubleValue());
+            }
+        }
+    }
+
+    @Override
+    public MetricBuckets aggregateDisk(String agentId, String mount,
+                                       LocalDateTime startTime, LocalDateTime endTime, int intervalSeconds) {
+        MetricBuckets buckets = new MetricBuckets(startTime, endTime, intervalSeconds);
+        addBuckets(buckets, agentDiskMetricsMapper.selectBuckets(agentId, mount, startTime, endTime, intervalSeconds));
+        return buckets;
+    }
+
+    /**
+     * 合并数据库聚合结果
+     */
+    private void addBuckets(MetricBuckets buckets, List<MetricsBucket> rows) {
+        for (MetricsBucket row : rows) {
+            if (row.getValueCount() != null && row.getValueCount() > 0 && row.getValueSum() != null) {
+                buckets.add(row.getBucketTime() * 1000L, row.getValueSum().doubleValue(), row.getValueCount(),
+                        row.getValueMin().doubleValue(), row.getValueMax().doubleValue());
+            }
+        }
+    }
+
+    /**
+     * 根据指标类型获取汇总合计
+     */
+    private BigDecimal getRollupSum(AgentMetricsRollup rollup, MetricsHistoryRequest.MetricType metricType) {
+        return switch (metricType) {
+            case CPU -> rollup.getCpuSum();
+            case MEMORY -> rollup.getMemorySum();
+            case DISK -> rollup.getDiskSum();
+        };
+    }
+
+    /**
+     * 根据指标类型获取汇总最小值
+     */
+    private BigDecimal getRollupMin(AgentMetricsRollup rollup, MetricsHistoryRequest.MetricType metricType) {
+        return switch (metricType) {
+            case CPU -> rollup.getCpuMin();
+            case MEMORY -> rollup.getMemoryMin();
+            case DISK -> rollup.getDiskMin();
+        };
+    }
+
+    /**
+     * 根据指标类型获取汇总最大值
+     */
+    private BigDecimal getRollupMax(AgentMetricsRollup rollup, MetricsHistoryRequest.MetricType metricType) {
+        return switch (metricType) {
+            case CPU -> rollup.getCpuMax();
+            case MEMORY -> rollup.getMemoryMax();
+            case DISK -> rollup.getDiskMax();
+        };
+    }
+
+    /**
+     * 根据指标类型获取汇总有效样本数
+     */
+    private Integer getRollupCount(AgentMetricsRollup rollup, MetricsHistoryRequest.MetricType metricType) {
+        return switch (metricType) {
+            case CPU -> rollup.getCpuCount();
+            case MEMORY -> rollup.getMemoryCount();
+            case DISK -> rollup.getDiskCount();
+        };
+    }
+
+    /**
+     * 获取磁盘最大使用率，兼容没有disk_max_percent的旧数据
+     */
+    private BigDecimal getMaxDiskUsage(String diskUsagesJson) {
+        if (diskUsagesJson == null || diskUsagesJson.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            // 解析 JSON
+            JsonNode rootNode = objectMapper.readTree(diskUsagesJson);
+            BigDecimal maxUsage = null;
+
+            // 如果是数组格式
+            if (rootNode.isArray()) {
+                for (JsonNode node : rootNode) {
+                    BigDecimal usage = extractDiskUsagePercent(node);
+                    if (usage != null && (maxUsage == null || usage.compareTo(maxUsage) > 0)) {
+                        maxUsage = usage;
+                    }
+                }
+            }
+            // 如果是单个对象格式
+            else if (rootNode.isObject()) {
+                maxUsage = extractDiskUsagePercent(rootNode);
+            }
+
+            return maxUsage;
+        } catch (Exception e) {
+            log.warn("解析磁盘最大使用率失败: json={}", diskUsagesJson, e);
+            return null;
+        }
+    }
+
+    /**
+     * 从 JSON 节点提取磁盘使用率
+     */
+    private BigDecimal extractDiskUsagePercent(JsonNode node) {
+        // 优先使用 usagePercent
+        if (node.has("usagePercent")) {
+            return node.get("usagePercent").decimalValue();
+        }
+        // 兼容 usedPercent
+        if (node.has("usedPercent")) {
+            return node.get("usedPercent").decimalValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.hundred.monitor.server.store.tsdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 按位读取，与BitWriter的写入顺序一致
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private long bitPosition;
+
+    /**
+     * @param buffer 数据缓冲区，读取时不修改其position
+     * @param offset 数据起始位置（字节）
+     */
+    BitReader(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    /**
+     * 读取n位（n不超过64）
+     */
+    long readBits(int n) {
+        long value = 0;
+        while (n > 0) {
+            int index = offset + (int) (bitPosition >>> 3);
+            int available = 8 - (int) (bitPosition & 7);
+            int take = Math.min(available, n);
+            int bits = (buffer.get(index) >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | bits;
+            bitPosition += take;
+            n -= take;
+        }
+        return value;
+    }
+}
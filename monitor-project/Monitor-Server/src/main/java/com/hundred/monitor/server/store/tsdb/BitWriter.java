@@ -0,0 +1,51 @@
+package com.hundred.monitor.server.store.tsdb;
+
+import java.util.Arrays;
+
+/**
+ * 按位写入的可增长缓冲区，高位在前
+ */
+final class BitWriter {
+
+    private byte[] buffer;
+    private long bitPosition;
+
+    BitWriter(int initialBytes) {
+        buffer = new byte[Math.max(initialBytes, 16)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * 写入value的低n位（n不超过64）
+     */
+    void writeBits(long value, int n) {
+        ensureCapacity(n);
+        while (n > 0) {
+            int index = (int) (bitPosition >>> 3);
+            int free = 8 - (int) (bitPosition & 7);
+            int take = Math.min(free, n);
+            int bits = (int) ((value >>> (n - take)) & ((1 << take) - 1));
+            buffer[index] |= (byte) (bits << (free - take));
+            bitPosition += take;
+            n -= take;
+        }
+    }
+
+    int byteLength() {
+        return (int) ((bitPosition + 7) >>> 3);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, byteLength());
+    }
+
+    private void ensureCapacity(int bits) {
+        int required = (int) ((bitPosition + bits + 7) >>> 3);
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.hundred.monitor.server.store.tsdb;
+
+/**
+ * Gorilla风格的时序列编码
+ * 时间戳（毫秒）使用二阶差分编码，采集间隔稳定时每个点只占1位；
+ * 数值与前值异或，只保存有效位，数值不变时每个点只占1位
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * 编码时间戳列
+     */
+    static void encodeTimestamps(long[] timestamps, int count, BitWriter out) {
+        long prev = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long ts = timestamps[i];
+            if (i == 0) {
+                out.writeBits(ts, 64);
+            } else {
+                long delta = ts - prev;
+                long dod = delta - prevDelta;
+                if (dod == 0) {
+                    out.writeBit(false);
+                } else if (dod >= -64 && dod <= 63) {
+                    out.writeBits(0b10, 2);
+                    out.writeBits(dod, 7);
+                } else if (dod >= -256 && dod <= 255) {
+                    out.writeBits(0b110, 3);
+                    out.writeBits(dod, 9);
+                } else if (dod >= -2048 && dod <= 2047) {
+                    out.writeBits(0b1110, 4);
+                    out.writeBits(dod, 12);
+                } else {
+                    out.writeBits(0b1111, 4);
+                    out.writeBits(dod, 64);
+                }
+                prevDelta = delta;
+            }
+            prev = ts;
+        }
+    }
+
+    /**
+     * 解码时间戳列
+     */
+    static void decodeTimestamps(BitReader in, int count, long[] out) {
+        long prev = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                prev = in.readBits(64);
+                out[0] = prev;
+                continue;
+            }
+            long dod;
+            if (!in.readBit()) {
+                dod = 0;
+            } else if (!in.readBit()) {
+                dod = signExtend(in.readBits(7), 7);
+            } else if (!in.readBit()) {
+                dod = signExtend(in.readBits(9), 9);
+            } else if (!in.readBit()) {
+                dod = signExtend(in.readBits(12), 12);
+            } else {
+                dod = in.readBits(64);
+            }
+            prevDelta += dod;
+            prev += prevDelta;
+            out[i] = prev;
+        }
+    }
+
+    /**
+     * 编码数值列，缺失值以NaN保存
+     */
+    static void encodeValues(double[] values, int count, BitWriter out) {
+        long prev = 0;
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (int i = 0; i < count; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            if (i == 0) {
+                out.writeBits(bits, 64);
+                prev = bits;
+                continue;
+            }
+            long xor = bits ^ prev;
+            if (xor == 0) {
+                out.writeBit(false);
+            } else {
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                out.writeBit(true);
+                if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                    // 有效位落在上一个窗口内，复用窗口
+                    out.writeBit(false);
+                    out.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    out.writeBit(true);
+                    out.writeBits(leading, 5);
+                    // 有效位数为64时写0
+                    out.writeBits(significant & 0x3F, 6);
+                    out.writeBits(xor >>> trailing, significant);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+            prev = bits;
+        }
+    }
+
+    /**
+     * 解码数值列
+     */
+    static void decodeValues(BitReader in, int count, double[] out) {
+        long prev = 0;
+        int prevLeading = 0;
+        int prevTrailing = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                prev = in.readBits(64);
+            } else if (in.readBit()) {
+                if (in.readBit()) {
+                    prevLeading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6);
+                    if (significant == 0) {
+                        significant = 64;
+                    }
+                    prevTrailing = 64 - prevLeading - significant;
+                }
+                long xor = in.readBits(64 - prevLeading - prevTrailing) << prevTrailing;
+                prev ^= xor;
+            }
+            out[i] = Double.longBitsToDouble(prev);
+        }
+    }
+
+    private static long signExtend(long value, int bits) {
+        int shift = 64 - bits;
+        return (value << shift) >> shift;
+    }
+}
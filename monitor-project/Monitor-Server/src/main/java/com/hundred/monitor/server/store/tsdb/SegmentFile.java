@@ -0,0 +1,145 @@
+package com.hundred.monitor.server.store.tsdb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * 按天划分的内存映射段文件，只追加写入
+ * 记录格式：[长度 int][CRC32 int][数据]，长度为0表示文件有效内容结束；
+ * 崩溃时写了一半的记录CRC校验失败，打开时从该位置截断
+ */
+final class SegmentFile {
+
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final LocalDate day;
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    /**
+     * 记录访问回调
+     */
+    interface RecordVisitor {
+        void visit(int offset, int length, ByteBuffer data);
+    }
+
+    private SegmentFile(LocalDate day, Path path, FileChannel channel, int capacity) throws IOException {
+        this.day = day;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * 打开或创建段文件
+     *
+     * @param initialBytes 新文件的初始映射大小
+     */
+    static SegmentFile open(LocalDate day, Path path, int initialBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int capacity = (int) Math.max(channel.size(), initialBytes);
+        return new SegmentFile(day, path, channel, capacity);
+    }
+
+    LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * 顺序扫描全部有效记录，并把写入位置定位到最后一条有效记录之后
+     */
+    synchronized void scan(RecordVisitor visitor) {
+        int pos = 0;
+        CRC32 crc = new CRC32();
+        while (pos + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer data = slice(pos + RECORD_HEADER_BYTES, length);
+            crc.reset();
+            crc.update(data.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                break;
+            }
+            visitor.visit(pos + RECORD_HEADER_BYTES, length, data);
+            pos += RECORD_HEADER_BYTES + length;
+        }
+        position = pos;
+        // 清除截断位置之后的残留内容，保证后续追加的记录能被正确识别
+        for (int i = pos; i < Math.min(pos + RECORD_HEADER_BYTES, buffer.capacity()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @return 数据在文件中的偏移
+     */
+    synchronized int append(byte[] data) throws IOException {
+        ensureCapacity(position + RECORD_HEADER_BYTES + data.length + RECORD_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        int offset = position + RECORD_HEADER_BYTES;
+        buffer.put(offset, data);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // 最后写长度，长度可见时数据已完整
+        buffer.putInt(position, data.length);
+        position = offset + data.length;
+        return offset;
+    }
+
+    /**
+     * 读取记录数据（只读视图）
+     */
+    synchronized ByteBuffer read(int offset, int length) {
+        return slice(offset, length);
+    }
+
+    /**
+     * 将映射内容刷到磁盘
+     */
+    synchronized void force() {
+        buffer.force();
+    }
+
+    synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * 关闭并删除段文件
+     */
+    synchronized void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        return buffer.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    private void ensureCapacity(int required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long capacity = Math.max((long) buffer.capacity() * 2, required);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("段文件超出最大容量: " + path);
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+}
@@ -0,0 +1,98 @@
+package com.hundred.monitor.server.store.tsdb;
+
+import com.hundred.monitor.server.model.entity.AgentMetrics;
+import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * 时序存储中每个Agent保存的数值列
+ * 列顺序即数据块中的列顺序，只能在末尾追加；
+ * 两位小数的指标放大100倍按整数值保存，相邻值异或后的有效位明显少于直接保存小数
+ */
+enum TsdbField {
+    CPU,
+    MEMORY,
+    CPU_MAX,
+    MEMORY_MAX,
+    DISK_MAX,
+    NETWORK_UP,
+    NETWORK_DOWN,
+    SSH_RUNNING,
+    SSH_PORT_LISTENING,
+    SSH_PORT;
+
+    /**
+     * 两位小数指标的放大倍数
+     */
+    private static final double SCALE = 100;
+
+    /**
+     * 从监控数据读取列值，缺失时返回NaN
+     */
+    double read(AgentMetrics metrics) {
+        return switch (this) {
+            case CPU -> toDouble(metrics.getCpuPercent());
+            case MEMORY -> toDouble(metrics.getMemoryPercent());
+            case CPU_MAX -> toDouble(metrics.getCpuMaxPercent());
+            case MEMORY_MAX -> toDouble(metrics.getMemoryMaxPercent());
+            case DISK_MAX -> toDouble(metrics.getDiskMaxPercent());
+            case NETWORK_UP -> toDouble(metrics.getNetworkUpMbps());
+            case NETWORK_DOWN -> toDouble(metrics.getNetworkDownMbps());
+            case SSH_RUNNING -> metrics.getSshRunning() == null ? Double.NaN : (metrics.getSshRunning() ? 1 : 0);
+            case SSH_PORT_LISTENING -> metrics.getSshPortListening() == null
+                    ? Double.NaN : (metrics.getSshPortListening() ? 1 : 0);
+            case SSH_PORT -> metrics.getSshPort() == null ? Double.NaN : metrics.getSshPort();
+        };
+    }
+
+    /**
+     * 将列值写回监控数据，NaN表示缺失
+     */
+    void write(AgentMetrics metrics, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        switch (this) {
+            case CPU -> metrics.setCpuPercent(toDecimal(value));
+            case MEMORY -> metrics.setMemoryPercent(toDecimal(value));
+            case CPU_MAX -> metrics.setCpuMaxPercent(toDecimal(value));
+            case MEMORY_MAX -> metrics.setMemoryMaxPercent(toDecimal(value));
+            case DISK_MAX -> metrics.setDiskMaxPercent(toDecimal(value));
+            case NETWORK_UP -> metrics.setNetworkUpMbps(toDecimal(value));
+            case NETWORK_DOWN -> metrics.setNetworkDownMbps(toDecimal(value));
+            case SSH_RUNNING -> metrics.setSshRunning(value != 0);
+            case SSH_PORT_LISTENING -> metrics.setSshPortListening(value != 0);
+            case SSH_PORT -> metrics.setSshPort((int) value);
+        }
+    }
+
+    /**
+     * 历史查询指标对应的列
+     */
+    static TsdbField of(MetricsHistoryRequest.MetricType metricType) {
+        return switch (metricType) {
+            case CPU -> CPU;
+            case MEMORY -> MEMORY;
+            case DISK -> DISK_MAX;
+        };
+    }
+
+    /**
+     * 历史查询使用的实际值
+     */
+    double toValue(double stored) {
+        return switch (this) {
+            case SSH_RUNNING, SSH_PORT_LISTENING, SSH_PORT -> stored;
+            default -> stored / SCALE;
+        };
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? Math.rint(value.doubleValue() * SCALE) : Double.NaN;
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        return BigDecimal.valueOf((long) value, 2);
+    }
+}
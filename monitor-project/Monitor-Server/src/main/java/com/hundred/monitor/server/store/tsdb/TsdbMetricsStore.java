@@ -0,0 +1,589 @@
+package com.hundred.monitor.server.store.tsdb;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.server.model.entity.AgentDiskMetrics;
+import com.hundred.monitor.server.model.entity.AgentMetrics;
+import com.hundred.monitor.server.model.request.MetricsHistoryRequest;
+import com.hundred.monitor.server.store.MetricBuckets;
+import com.hundred.monitor.server.store.MetricsStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 本地压缩时序存储
+ * 每个Agent一条序列，每个挂载点的磁盘使用率另有一条序列（只有DISK_MAX列有值），最新数据先缓存在内存中的头部块，达到点数或时间上限后封装为数据块：
+ * 时间戳列二阶差分编码、各数值列异或压缩（Gorilla），按块起始日期追加到内存映射的段文件。
+ * 段文件按天划分，过期数据整文件删除；启动时扫描段文件重建块索引。
+ * 头部块在定时刷盘前只在内存中，进程崩溃最多丢失max-chunk-age-sec内的数据
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "monitor.store.type", havingValue = "tsdb")
+public class TsdbMetricsStore implements MetricsStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String LATEST_FILE = "latest.json";
+
+    /**
+     * 挂载点序列键的分隔符：Agent ID + 分隔符 + 挂载点
+     */
+    private static final char DISK_KEY_SEPARATOR = '\u0000';
+
+    private static final TsdbField[] FIELDS = TsdbField.values();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${monitor.store.tsdb.dir:./data/tsdb}")
+    private String dir;
+
+    @Value("${monitor.store.tsdb.max-chunk-points:240}")
+    private int maxChunkPoints;
+
+    @Value("${monitor.store.tsdb.max-chunk-age-sec:600}")
+    private long maxChunkAgeSec;
+
+    @Value("${monitor.store.tsdb.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${monitor.store.tsdb.segment-initial-mb:16}")
+    private int segmentInitialMb;
+
+    private Path root;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<LocalDate, SegmentFile> segments = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(dir);
+        Files.createDirectories(root);
+
+        int chunks = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                LocalDate day = LocalDate.parse(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()),
+                        DateTimeFormatter.BASIC_ISO_DATE);
+                SegmentFile segment = SegmentFile.open(day, file, segmentInitialMb * 1024 * 1024);
+                segments.put(day, segment);
+                int[] counter = new int[1];
+                segment.scan((offset, length, data) -> {
+                    ChunkHeader header = ChunkHeader.parse(data);
+                    getSeries(header.key).chunks.add(
+                            new ChunkRef(segment, offset, length, header.minTs, header.maxTs));
+                    counter[0]++;
+                });
+                chunks += counter[0];
+            }
+        }
+        for (Series s : series.values()) {
+            s.chunks.sort((a, b) -> Long.compare(a.minTs, b.minTs));
+        }
+        loadLatest();
+        log.info("时序存储已加载: dir={}, segments={}, chunks={}, agents={}", root.toAbsolutePath(),
+                segments.size(), chunks, series.size());
+    }
+
+    @Override
+    public void save(List<AgentMetrics> metrics) {
+        for (AgentMetrics m : metrics) {
+            if (m.getAgentId() == null || m.getTimestamp() == null) {
+                continue;
+            }
+            long ts = MetricBuckets.toEpochMillis(m.getTimestamp());
+            double[] row = new double[FIELDS.length];
+            for (TsdbField field : FIELDS) {
+                row[field.ordinal()] = field.read(m);
+            }
+            Series s = getSeries(m.getAgentId());
+            synchronized (s) {
+                append(s, ts, row);
+                if (ts >= s.latestTs) {
+                    s.latest = m;
+                    s.latestTs = ts;
+                }
+            }
+
+            if (m.getDisks() != null) {
+                for (AgentDiskMetrics disk : m.getDisks()) {
+                    double[] diskRow = new double[FIELDS.length];
+                    Arrays.fill(diskRow, Double.NaN);
+                    diskRow[TsdbField.DISK_MAX.ordinal()] = TsdbField.DISK_MAX.read(
+                            AgentMetrics.builder().diskMaxPercent(disk.getUsedPercent()).build());
+                    Series diskSeries = getSeries(diskSeriesKey(m.getAgentId(), disk.getMount()));
+                    synchronized (diskSeries) {
+                        append(diskSeries, ts, diskRow);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public AgentMetrics findLatest(String agentId) {
+        Series s = series.get(agentId);
+        if (s == null) {
+            return null;
+        }
+        synchronized (s) {
+            return s.latest;
+        }
+    }
+
+    @Override
+    public Map<MetricsHistoryRequest.MetricType, MetricBuckets> aggregate(String agentId,
+                                                                         Set<MetricsHistoryRequest.MetricType> metricTypes,
+                                                                         LocalDateTime startTime, LocalDateTime endTime,
+                                                                         int intervalSeconds) {
+        Map<MetricsHistoryRequest.MetricType, MetricBuckets> result = new EnumMap<>(MetricsHistoryRequest.MetricType.class);
+        TsdbField[] fields = new TsdbField[metricTypes.size()];
+        MetricBuckets[] buckets = new MetricBuckets[metricTypes.size()];
+        int i = 0;
+        for (MetricsHistoryRequest.MetricType metricType : metricTypes) {
+            fields[i] = TsdbField.of(metricType);
+            buckets[i] = new MetricBuckets(startTime, endTime, intervalSeconds);
+            result.put(metricType, buckets[i]);
+            i++;
+        }
+        aggregate(agentId, fields, buckets, startTime, endTime);
+        return result;
+    }
+
+    @Override
+    public MetricBuckets aggregateDisk(String agentId, String mount,
+                                       LocalDateTime startTime, LocalDateTime endTime, int intervalSeconds) {
+        MetricBuckets buckets = new MetricBuckets(startTime, endTime, intervalSeconds);
+        aggregate(diskSeriesKey(agentId, mount), new TsdbField[]{TsdbField.DISK_MAX}, new MetricBuckets[]{buckets},
+                startTime, endTime);
+        return buckets;
+    }
+
+    /**
+     * 聚合序列中的多列，时间戳列只解码一次
+     */
+    private void aggregate(String key, TsdbField[] fields, MetricBuckets[] buckets,
+                           LocalDateTime startTime, LocalDateTime endTime) {
+        Series s = series.get(key);
+        if (s == null) {
+            return;
+        }
+        long startMs = MetricBuckets.toEpochMillis(startTime);
+        long endMs = MetricBuckets.toEpochMillis(endTime);
+
+        // 持锁只复制块引用与头部块，解码在锁外进行
+        List<ChunkRef> refs = new ArrayList<>();
+        long[] headTs;
+        double[][] headValues = new double[fields.length][];
+        synchronized (s) {
+            for (ChunkRef ref : s.chunks) {
+                if (ref.maxTs >= startMs && ref.minTs <= endMs) {
+                    refs.add(ref);
+                }
+            }
+            headTs = Arrays.copyOf(s.timestamps, s.count);
+            for (int i = 0; i < fields.length; i++) {
+                headValues[i] = Arrays.copyOf(s.values[fields[i].ordinal()], s.count);
+            }
+        }
+
+        for (ChunkRef ref : refs) {
+            ByteBuffer data = ref.segment.read(ref.offset, ref.length);
+            ChunkHeader header = ChunkHeader.parse(data);
+            long[] timestamps = new long[header.count];
+            double[] values = new double[header.count];
+            header.decodeTimestamps(data, timestamps);
+            for (int i = 0; i < fields.length; i++) {
+                if (header.decodeColumn(data, fields[i], values)) {
+                    addPoints(buckets[i], fields[i], timestamps, values, timestamps.length, startMs, endMs);
+                }
+            }
+        }
+        for (int i = 0; i < fields.length; i++) {
+            addPoints(buckets[i], fields[i], headTs, headValues[i], headTs.length, startMs, endMs);
+        }
+    }
+
+    /**
+     * 定时封装超时的头部块、刷盘并保存最新数据快照
+     */
+    @Scheduled(fixedDelayString = "${monitor.store.tsdb.flush-interval-ms:30000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (Series s : series.values()) {
+            synchronized (s) {
+                if (s.count > 0 && now - s.headStartedAt >= maxChunkAgeSec * 1000) {
+                    seal(s);
+                }
+            }
+        }
+        for (SegmentFile segment : segments.values()) {
+            segment.force();
+        }
+        saveLatest();
+    }
+
+    /**
+     * 删除超过保留天数的段文件
+     */
+    @Scheduled(fixedDelayString = "${monitor.store.tsdb.purge-interval-ms:3600000}")
+    public void purgeExpiredSegments() {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        for (SegmentFile segment : new ArrayList<>(segments.headMap(cutoff).values())) {
+            for (Series s : series.values()) {
+                synchronized (s) {
+                    s.chunks.removeIf(ref -> ref.segment == segment);
+                }
+            }
+            segments.remove(segment.getDay());
+            try {
+                segment.delete();
+                log.info("过期时序段文件已删除: day={}", segment.getDay());
+            } catch (IOException e) {
+                log.warn("删除时序段文件失败: day={}, error={}", segment.getDay(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Series s : series.values()) {
+            synchronized (s) {
+                if (s.count > 0) {
+                    seal(s);
+                }
+            }
+        }
+        saveLatest();
+        for (SegmentFile segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("关闭时序段文件失败: day={}, error={}", segment.getDay(), e.getMessage());
+            }
+        }
+    }
+
+    // ==================== 数据块读写 ====================
+
+    /**
+     * 追加到头部块，达到点数上限时封装，调用方需持有序列锁
+     */
+    private void append(Series s, long ts, double[] row) {
+        s.append(ts, row, maxChunkPoints);
+        if (s.count >= maxChunkPoints) {
+            seal(s);
+        }
+    }
+
+    /**
+     * 将头部块编码后写入段文件，调用方需持有序列锁
+     */
+    private void seal(Series s) {
+        int count = s.count;
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            minTs = Math.min(minTs, s.timestamps[i]);
+            maxTs = Math.max(maxTs, s.timestamps[i]);
+        }
+        s.count = 0;
+
+        LocalDate day = Instant.ofEpochMilli(minTs).atZone(ZoneId.systemDefault()).toLocalDate();
+        if (day.isBefore(LocalDate.now().minusDays(retentionDays))) {
+            log.debug("数据块已超过保留期，丢弃: series={}, count={}", s.key, count);
+            return;
+        }
+        byte[] chunk = encodeChunk(s, count, minTs, maxTs);
+        try {
+            SegmentFile segment = getSegment(day);
+            int offset = segment.append(chunk);
+            s.chunks.add(new ChunkRef(segment, offset, chunk.length, minTs, maxTs));
+        } catch (IOException e) {
+            log.error("时序数据块写入失败，丢弃{}条数据: series={}", count, s.key, e);
+        }
+    }
+
+    /**
+     * 数据块格式：[序列键长度 u16][序列键][最小时间 long][最大时间 long][点数 int]
+     * [列数 u8][各列字节数 int...][时间戳列][各数值列]
+     */
+    private byte[] encodeChunk(Series s, int count, long minTs, long maxTs) {
+        byte[][] columns = new byte[FIELDS.length + 1][];
+        BitWriter tsWriter = new BitWriter(count);
+        GorillaCodec.encodeTimestamps(s.timestamps, count, tsWriter);
+        columns[0] = tsWriter.toByteArray();
+        for (TsdbField field : FIELDS) {
+            BitWriter writer = new BitWriter(count * 4);
+            GorillaCodec.encodeValues(s.values[field.ordinal()], count, writer);
+            columns[field.ordinal() + 1] = writer.toByteArray();
+        }
+
+        byte[] key = s.key.getBytes(StandardCharsets.UTF_8);
+        int size = 2 + key.length + 8 + 8 + 4 + 1 + 4 * columns.length;
+        for (byte[] column : columns) {
+            size += column.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort((short) key.length).put(key).putLong(minTs).putLong(maxTs).putInt(count)
+                .put((byte) columns.length);
+        for (byte[] column : columns) {
+            buffer.putInt(column.length);
+        }
+        for (byte[] column : columns) {
+            buffer.put(column);
+        }
+        return buffer.array();
+    }
+
+    private void addPoints(MetricBuckets buckets, TsdbField field, long[] timestamps, double[] values, int count,
+                           long startMs, long endMs) {
+        for (int i = 0; i < count; i++) {
+            long ts = timestamps[i];
+            if (ts >= startMs && ts <= endMs && !Double.isNaN(values[i])) {
+                buckets.add(ts, field.toValue(values[i]));
+            }
+        }
+    }
+
+    private SegmentFile getSegment(LocalDate day) throws IOException {
+        SegmentFile segment = segments.get(day);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (segments) {
+            segment = segments.get(day);
+            if (segment == null) {
+                Path file = root.resolve(SEGMENT_PREFIX + day.format(DateTimeFormatter.BASIC_ISO_DATE) + SEGMENT_SUFFIX);
+                segment = SegmentFile.open(day, file, segmentInitialMb * 1024 * 1024);
+                segments.put(day, segment);
+            }
+            return segment;
+        }
+    }
+
+    private static String diskSeriesKey(String agentId, String mount) {
+        return agentId + DISK_KEY_SEPARATOR + mount;
+    }
+
+    private Series getSeries(String key) {
+        return series.computeIfAbsent(key, Series::new);
+    }
+
+    // ==================== 最新数据快照 ====================
+
+    /**
+     * 保存各Agent最新数据（含磁盘明细等不进入数值列的字段），供重启后查询最新数据
+     */
+    private void saveLatest() {
+        Map<String, AgentMetrics> snapshot = new HashMap<>();
+        for (Series s : series.values()) {
+            synchronized (s) {
+                if (s.latest != null) {
+                    snapshot.put(s.key, s.latest);
+                }
+            }
+        }
+        Path file = root.resolve(LATEST_FILE);
+        Path tmp = root.resolve(LATEST_FILE + ".tmp");
+        try {
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("保存最新数据快照失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 加载最新数据快照，快照中没有的Agent从最后一个数据块还原数值列
+     */
+    private void loadLatest() {
+        Path file = root.resolve(LATEST_FILE);
+        if (Files.exists(file)) {
+            try {
+                Map<String, AgentMetrics> snapshot = objectMapper.readValue(file.toFile(),
+                        new TypeReference<Map<String, AgentMetrics>>() {
+                        });
+                snapshot.forEach((agentId, metrics) -> {
+                    Series s = getSeries(agentId);
+                    s.latest = metrics;
+                    s.latestTs = metrics.getTimestamp() != null ? MetricBuckets.toEpochMillis(metrics.getTimestamp()) : 0;
+                });
+            } catch (IOException e) {
+                log.warn("加载最新数据快照失败: {}", e.getMessage());
+            }
+        }
+        for (Series s : series.values()) {
+            if (s.chunks.isEmpty() || s.key.indexOf(DISK_KEY_SEPARATOR) >= 0) {
+                continue;
+            }
+            ChunkRef last = s.chunks.get(0);
+            for (ChunkRef ref : s.chunks) {
+                if (ref.maxTs > last.maxTs) {
+                    last = ref;
+                }
+            }
+            if (last.maxTs > s.latestTs) {
+                s.latest = restoreLatest(s.key, last);
+                s.latestTs = last.maxTs;
+            }
+        }
+    }
+
+    private AgentMetrics restoreLatest(String agentId, ChunkRef ref) {
+        ByteBuffer data = ref.segment.read(ref.offset, ref.length);
+        ChunkHeader header = ChunkHeader.parse(data);
+        long[] timestamps = new long[header.count];
+        header.decodeTimestamps(data, timestamps);
+        int index = 0;
+        for (int i = 1; i < timestamps.length; i++) {
+            if (timestamps[i] > timestamps[index]) {
+                index = i;
+            }
+        }
+        AgentMetrics metrics = AgentMetrics.builder()
+                .agentId(agentId)
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamps[index]), ZoneId.systemDefault()))
+                .build();
+        double[] values = new double[header.count];
+        for (TsdbField field : FIELDS) {
+            if (header.decodeColumn(data, field, values)) {
+                field.write(metrics, values[index]);
+            }
+        }
+        return metrics;
+    }
+
+    // ==================== 内部结构 ====================
+
+    /**
+     * 单条序列：已写入段文件的块索引与内存中的头部块
+     */
+    private static final class Series {
+
+        private final String key;
+        private final List<ChunkRef> chunks = new ArrayList<>();
+
+        private long[] timestamps = new long[0];
+        private double[][] values = new double[FIELDS.length][0];
+        private int count;
+        private long headStartedAt;
+
+        private AgentMetrics latest;
+        private long latestTs = Long.MIN_VALUE;
+
+        private Series(String key) {
+            this.key = key;
+        }
+
+        private void append(long ts, double[] row, int capacity) {
+            if (timestamps.length < capacity) {
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Arrays.copyOf(values[i], capacity);
+                }
+            }
+            if (count == 0) {
+                headStartedAt = System.currentTimeMillis();
+            }
+            timestamps[count] = ts;
+            for (int i = 0; i < row.length; i++) {
+                values[i][count] = row[i];
+            }
+            count++;
+        }
+    }
+
+    /**
+     * 段文件中的数据块位置
+     */
+    private record ChunkRef(SegmentFile segment, int offset, int length, long minTs, long maxTs) {
+    }
+
+    /**
+     * 数据块头部，记录各列的位置
+     */
+    private static final class ChunkHeader {
+
+        private String key;
+        private long minTs;
+        private long maxTs;
+        private int count;
+        private int[] columnOffsets;
+
+        private static ChunkHeader parse(ByteBuffer data) {
+            ByteBuffer buffer = data.duplicate();
+            ChunkHeader header = new ChunkHeader();
+            byte[] key = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(key);
+            header.key = new String(key, StandardCharsets.UTF_8);
+            header.minTs = buffer.getLong();
+            header.maxTs = buffer.getLong();
+            header.count = buffer.getInt();
+            int columns = buffer.get() & 0xFF;
+            int[] lengths = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                lengths[i] = buffer.getInt();
+            }
+            header.columnOffsets = new int[columns];
+            int offset = buffer.position();
+            for (int i = 0; i < columns; i++) {
+                header.columnOffsets[i] = offset;
+                offset += lengths[i];
+            }
+            return header;
+        }
+
+        private void decodeTimestamps(ByteBuffer data, long[] out) {
+            GorillaCodec.decodeTimestamps(new BitReader(data, columnOffsets[0]), count, out);
+        }
+
+        /**
+         * 解码数值列
+         *
+         * @return 数据块中是否有该列（旧数据块可能缺少后追加的列）
+         */
+        private boolean decodeColumn(ByteBuffer data, TsdbField field, double[] out) {
+            int column = field.ordinal() + 1;
+            if (column >= columnOffsets.length) {
+                Arrays.fill(out, 0, count, Double.NaN);
+                return false;
+            }
+            GorillaCodec.decodeValues(new BitReader(data, columnOffsets[column]), count, out);
+            return true;
+        }
+    }
+}
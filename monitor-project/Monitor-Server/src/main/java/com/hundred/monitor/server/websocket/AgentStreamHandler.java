@@ -0,0 +1,125 @@
+package com.hundred.monitor.server.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.commonlibrary.codec.MetricsBinaryCodec;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import com.hundred.monitor.commonlibrary.stream.StreamFrame;
+import com.hundred.monitor.server.service.AgentService;
+import com.hundred.monitor.server.service.MetricsIngestService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Agent长连接处理器
+ * 接收Agent通过长连接推送的运行时数据，与HTTP上报共用写入队列，
+ * 写入阶段确认入库后由AgentStreamManager批量确认
+ */
+@Slf4j
+@Component
+public class AgentStreamHandler extends AbstractWebSocketHandler {
+
+    /**
+     * 单帧最大字节数，批量上报的数据可能超过容器默认的8KB；
+     * 按会话设置，不修改全局WebSocket容器（也不影响SSH终端等其他端点）
+     */
+    private static final int MAX_MESSAGE_SIZE = 1024 * 1024;
+
+    @Autowired
+    private AgentStreamManager streamManager;
+
+    @Autowired
+    private AgentService agentService;
+
+    @Autowired
+    private MetricsIngestService metricsIngestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String agentId = session.getUri() == null ? null
+                : UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("agentId");
+        if (agentId == null || agentService.getAgentById(agentId) == null) {
+            log.warn("拒绝未注册客户端的长连接: agentId={}", agentId);
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("客户端未注册"));
+            return;
+        }
+        session.setTextMessageSizeLimit(MAX_MESSAGE_SIZE);
+        session.setBinaryMessageSizeLimit(MAX_MESSAGE_SIZE);
+        streamManager.register(agentId, session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        StreamFrame frame = objectMapper.readValue(message.getPayload(), StreamFrame.class);
+        if (StreamFrame.TYPE_METRICS.equals(frame.getType())) {
+            saveSamples(session, frame.getSeq() != null ? frame.getSeq() : 0, frame.getSamples());
+        } else if (StreamFrame.TYPE_CONFIG_RESULT.equals(frame.getType())) {
+            log.info("配置应用结果: agentId={}, success={}, message={}",
+                    streamManager.getAgentId(session), frame.getSuccess(), frame.getMessage());
+        } else {
+            log.warn("未知的长连接帧类型: agentId={}, type={}", streamManager.getAgentId(session), frame.getType());
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        ByteBuffer buffer = message.getPayload();
+        long seq = buffer.getLong();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        saveSamples(session, seq, MetricsBinaryCodec.decode(data));
+    }
+
+    /**
+     * 将一帧运行时数据放入写入队列，入库后确认；
+     * 队列已满或入库失败时断开连接，由Agent将未确认数据写入本地暂存后通过HTTP补发
+     */
+    private void saveSamples(WebSocketSession session, long seq, List<MetricsReportRequest> samples) throws Exception {
+        String agentId = streamManager.getAgentId(session);
+        if (agentId == null || samples == null || samples.isEmpty()) {
+            // 空帧无需入库，由之后的帧的累计确认覆盖
+            return;
+        }
+        // 长连接已在握手时校验身份，样本一律归属于该连接的Agent，不允许代其他Agent上报
+        for (MetricsReportRequest sample : samples) {
+            if (sample.getAgentId() != null && !agentId.equals(sample.getAgentId())) {
+                log.warn("长连接样本的agentId与连接不一致，按连接归属: agentId={}, sampleAgentId={}",
+                        agentId, sample.getAgentId());
+            }
+            sample.setAgentId(agentId);
+        }
+        boolean accepted = metricsIngestService.offer(samples, success -> {
+            if (success) {
+                streamManager.onFrameSaved(session, seq);
+            } else {
+                streamManager.onFrameFailed(session, seq);
+            }
+        });
+        if (!accepted) {
+            log.warn("写入队列已满，断开长连接: agentId={}, seq={}", agentId, seq);
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        streamManager.unregister(session);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Agent长连接传输错误: agentId={}, error={}", streamManager.getAgentId(session), exception.getMessage());
+    }
+}
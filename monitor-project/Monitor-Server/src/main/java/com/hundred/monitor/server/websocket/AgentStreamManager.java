@@ -0,0 +1,226 @@
+package com.hundred.monitor.server.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hundred.monitor.commonlibrary.stream.StreamFrame;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent长连接管理器
+ * 维护agentId与WebSocket会话的对应关系，批量发送确认帧，并通过长连接下发配置
+ */
+@Slf4j
+@Component
+public class AgentStreamManager {
+
+    /**
+     * 累计多少帧未确认时立即确认
+     */
+    private static final int ACK_BATCH_FRAMES = 20;
+
+    /**
+     * 定时确认间隔（毫秒）
+     */
+    private static final long ACK_INTERVAL_MS = 1000;
+
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int SEND_BUFFER_SIZE = 512 * 1024;
+
+    private static final String STATE_ATTRIBUTE = "agentStream";
+
+    private final Map<String, StreamState> streams = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService ackScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "agent-stream-ack");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void start() {
+        ackScheduler.scheduleWithFixedDelay(this::flushAcks, ACK_INTERVAL_MS, ACK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ackScheduler.shutdownNow();
+    }
+
+    /**
+     * 注册长连接，同一Agent的旧连接会被关闭
+     */
+    public void register(String agentId, WebSocketSession session) {
+        StreamState state = new StreamState(agentId,
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_SIZE));
+        session.getAttributes().put(STATE_ATTRIBUTE, state);
+
+        StreamState previous = streams.put(agentId, state);
+        if (previous != null) {
+            closeQuietly(previous.session, CloseStatus.NORMAL.withReason("新连接已建立"));
+        }
+        log.info("Agent长连接已建立: agentId={}, 当前连接数={}", agentId, streams.size());
+    }
+
+    /**
+     * 注销长连接
+     */
+    public void unregister(WebSocketSession session) {
+        StreamState state = (StreamState) session.getAttributes().get(STATE_ATTRIBUTE);
+        if (state != null && streams.remove(state.agentId, state)) {
+            log.info("Agent长连接已断开: agentId={}, 当前连接数={}", state.agentId, streams.size());
+        }
+    }
+
+    /**
+     * 获取会话对应的agentId
+     */
+    public String getAgentId(WebSocketSession session) {
+        StreamState state = (StreamState) session.getAttributes().get(STATE_ATTRIBUTE);
+        return state != null ? state.agentId : null;
+    }
+
+    /**
+     * 记录已入库的帧，累计到一定数量时立即确认，否则等待定时确认
+     * 由写入线程回调，确认帧的发送交给确认线程，不阻塞写入
+     */
+    public void onFrameSaved(WebSocketSession session, long seq) {
+        StreamState state = (StreamState) session.getAttributes().get(STATE_ATTRIBUTE);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (state.failed) {
+                return;
+            }
+            state.savedSeq = Math.max(state.savedSeq, seq);
+            state.unacked++;
+            if (state.unacked == ACK_BATCH_FRAMES) {
+                ackScheduler.execute(() -> {
+                    synchronized (state) {
+                        if (state.unacked > 0 && !state.failed) {
+                            sendAck(state);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 帧入库失败：之后的帧不再确认（累计确认会覆盖失败的帧），并断开连接，
+     * 由Agent将未确认数据写入本地暂存后通过HTTP补发
+     */
+    public void onFrameFailed(WebSocketSession session, long seq) {
+        StreamState state = (StreamState) session.getAttributes().get(STATE_ATTRIBUTE);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (state.failed) {
+                return;
+            }
+            state.failed = true;
+        }
+        log.warn("长连接运行时数据入库失败，断开连接: agentId={}, seq={}", state.agentId, seq);
+        ackScheduler.execute(() -> closeQuietly(state.session, CloseStatus.SERVER_ERROR));
+    }
+
+    /**
+     * Agent是否已建立长连接
+     */
+    public boolean isConnected(String agentId) {
+        StreamState state = streams.get(agentId);
+        return state != null && state.session.isOpen();
+    }
+
+    /**
+     * 通过长连接下发配置
+     *
+     * @param agentId       Agent ID
+     * @param configUpdates 配置更新内容
+     * @return 是否已发送（Agent未建立长连接时返回false）
+     */
+    public boolean pushConfig(String agentId, Map<String, Object> configUpdates) {
+        StreamState state = streams.get(agentId);
+        if (state == null || !state.session.isOpen()) {
+            return false;
+        }
+        StreamFrame frame = new StreamFrame();
+        frame.setType(StreamFrame.TYPE_CONFIG);
+        frame.setConfig(configUpdates);
+        try {
+            state.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+            log.info("配置已下发: agentId={}", agentId);
+            return true;
+        } catch (IOException e) {
+            log.warn("配置下发失败: agentId={}, error={}", agentId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void flushAcks() {
+        for (StreamState state : streams.values()) {
+            synchronized (state) {
+                if (state.unacked > 0 && !state.failed) {
+                    sendAck(state);
+                }
+            }
+        }
+    }
+
+    private void sendAck(StreamState state) {
+        StreamFrame frame = new StreamFrame();
+        frame.setType(StreamFrame.TYPE_ACK);
+        frame.setSeq(state.savedSeq);
+        try {
+            state.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+            state.unacked = 0;
+        } catch (IOException | RuntimeException e) {
+            // 确认失败时Agent会在断线后将未确认数据写入暂存，这里直接断开
+            log.warn("确认帧发送失败: agentId={}, error={}", state.agentId, e.getMessage());
+            closeQuietly(state.session, CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    private void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("关闭WebSocket连接失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 单个Agent的长连接状态
+     */
+    private static final class StreamState {
+
+        private final String agentId;
+        private final WebSocketSession session;
+        private long savedSeq;
+        private int unacked;
+        private boolean failed;
+
+        private StreamState(String agentId, WebSocketSession session) {
+            this.agentId = agentId;
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.hundred.monitor.server.websocket;
+
+import com.hundred.monitor.commonlibrary.stream.StreamFrame;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Agent长连接WebSocket配置类
+ */
+@Configuration
+public class AgentStreamWebSocketConfig implements WebSocketConfigurer {
+
+    private final AgentStreamHandler agentStreamHandler;
+
+    public AgentStreamWebSocketConfig(AgentStreamHandler agentStreamHandler) {
+        this.agentStreamHandler = agentStreamHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(agentStreamHandler, StreamFrame.PATH);
+    }
+}
@@ -45,14 +45,20 @@ CREATE TABLE agent (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent信息表';
 
 -- ==================== Agent监控数据表 ====================
+-- 按天RANGE分区，分区键必须包含在主键中，因此主键为(id, timestamp)；
+-- 初始只有兜底分区p_future，服务端MetricsPartitionManager启动后从中拆分出按天的分区，
+-- 并持续预建未来分区、删除已过保留期的分区
 DROP TABLE IF EXISTS `agent_metrics`;
 CREATE TABLE agent_metrics (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主键ID',
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
     agent_id VARCHAR(64) NOT NULL COMMENT 'Agent ID',
 
-    cpu_percent DECIMAL(5,2) COMMENT 'CPU使用率(%)',
-    memory_percent DECIMAL(5,2) COMMENT '内存使用率(%)',
-    disk_usages JSON COMMENT '磁盘使用信息(JSON数组)',
+    cpu_percent DECIMAL(5,2) COMMENT 'CPU使用率(%)，有窗口汇总时为窗口均值',
+    memory_percent DECIMAL(5,2) COMMENT '内存使用率(%)，有窗口汇总时为窗口均值',
+    cpu_max_percent DECIMAL(5,2) COMMENT '上报窗口内CPU使用率峰值(%)',
+    memory_max_percent DECIMAL(5,2) COMMENT '上报窗口内内存使用率峰值(%)',
+    disk_usages JSON COMMENT '旧版本写入的磁盘使用信息(JSON数组)，新数据按挂载点写入agent_disk_metrics',
+    disk_max_percent DECIMAL(5,2) COMMENT '各磁盘中的最高使用率(%)，供汇总使用',
 
     network_up_mbps DECIMAL(10,2) COMMENT '网络上行速率(Mbps)',
     network_down_mbps DECIMAL(10,2) COMMENT '网络下行速率(Mbps)',
@@ -61,11 +67,190 @@ CREATE TABLE agent_metrics (
     ssh_port_listening TINYINT(1) COMMENT 'SSH端口是否监听',
     ssh_port INT COMMENT 'SSH端口',
 
-    timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '采集时间戳',
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '采集时间戳',
 
+    PRIMARY KEY (id, timestamp),
     INDEX idx_agent_timestamp (agent_id, timestamp),
     INDEX idx_timestamp (timestamp)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent监控数据表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent监控数据表'
+PARTITION BY RANGE (UNIX_TIMESTAMP(timestamp)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- ==================== Agent磁盘监控数据表 ====================
+-- 每次上报每个挂载点一行，与agent_metrics使用相同的按天分区方式；不参与汇总，保留monitor.retention.disk-days天
+DROP TABLE IF EXISTS `agent_disk_metrics`;
+CREATE TABLE agent_disk_metrics (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    agent_id VARCHAR(64) NOT NULL COMMENT 'Agent ID',
+    mount VARCHAR(255) NOT NULL COMMENT '挂载点',
+
+    used_percent DECIMAL(5,2) COMMENT '使用率(%)',
+    used_gb BIGINT COMMENT '已用容量(GB)',
+    total_gb BIGINT COMMENT '总容量(GB)',
+
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '采集时间戳',
+
+    PRIMARY KEY (id, timestamp),
+    INDEX idx_agent_mount_timestamp (agent_id, mount, timestamp),
+    INDEX idx_agent_timestamp (agent_id, timestamp),
+    INDEX idx_timestamp (timestamp)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent磁盘监控数据表'
+PARTITION BY RANGE (UNIX_TIMESTAMP(timestamp)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- ==================== Agent监控数据汇总表 ====================
+-- 由MetricsRollupService按原始数据ID增量汇总，历史查询读取满足间隔的最粗粒度汇总表
+DROP TABLE IF EXISTS `agent_metrics_1m`;
+CREATE TABLE agent_metrics_1m (
+    agent_id VARCHAR(64) NOT NULL COMMENT 'Agent ID',
+    bucket_time TIMESTAMP NOT NULL COMMENT '时间桶起点',
+    sample_count INT NOT NULL DEFAULT 0 COMMENT '原始样本数',
+
+    cpu_min DECIMAL(5,2) COMMENT 'CPU使用率最小值',
+    cpu_max DECIMAL(5,2) COMMENT 'CPU使用率最大值',
+    cpu_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT 'CPU使用率合计，均值=合计/计数',
+    cpu_count INT NOT NULL DEFAULT 0 COMMENT 'CPU使用率有效样本数',
+
+    memory_min DECIMAL(5,2) COMMENT '内存使用率最小值',
+    memory_max DECIMAL(5,2) COMMENT '内存使用率最大值',
+    memory_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '内存使用率合计，均值=合计/计数',
+    memory_count INT NOT NULL DEFAULT 0 COMMENT '内存使用率有效样本数',
+
+    disk_min DECIMAL(5,2) COMMENT '磁盘最高使用率最小值',
+    disk_max DECIMAL(5,2) COMMENT '磁盘最高使用率最大值',
+    disk_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率合计，均值=合计/计数',
+    disk_count INT NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率有效样本数',
+
+    network_up_min DECIMAL(10,2) COMMENT '网络上行速率最小值',
+    network_up_max DECIMAL(10,2) COMMENT '网络上行速率最大值',
+    network_up_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络上行速率合计，均值=合计/计数',
+    network_up_count INT NOT NULL DEFAULT 0 COMMENT '网络上行速率有效样本数',
+
+    network_down_min DECIMAL(10,2) COMMENT '网络下行速率最小值',
+    network_down_max DECIMAL(10,2) COMMENT '网络下行速率最大值',
+    network_down_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络下行速率合计，均值=合计/计数',
+    network_down_count INT NOT NULL DEFAULT 0 COMMENT '网络下行速率有效样本数',
+
+    PRIMARY KEY (agent_id, bucket_time),
+    INDEX idx_bucket_time (bucket_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent监控数据1分钟汇总表';
+
+DROP TABLE IF EXISTS `agent_metrics_5m`;
+CREATE TABLE agent_metrics_5m (
+    agent_id VARCHAR(64) NOT NULL COMMENT 'Agent ID',
+    bucket_time TIMESTAMP NOT NULL COMMENT '时间桶起点',
+    sample_count INT NOT NULL DEFAULT 0 COMMENT '原始样本数',
+
+    cpu_min DECIMAL(5,2) COMMENT 'CPU使用率最小值',
+    cpu_max DECIMAL(5,2) COMMENT 'CPU使用率最大值',
+    cpu_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT 'CPU使用率合计，均值=合计/计数',
+    cpu_count INT NOT NULL DEFAULT 0 COMMENT 'CPU使用率有效样本数',
+
+    memory_min DECIMAL(5,2) COMMENT '内存使用率最小值',
+    memory_max DECIMAL(5,2) COMMENT '内存使用率最大值',
+    memory_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '内存使用率合计，均值=合计/计数',
+    memory_count INT NOT NULL DEFAULT 0 COMMENT '内存使用率有效样本数',
+
+    disk_min DECIMAL(5,2) COMMENT '磁盘最高使用率最小值',
+    disk_max DECIMAL(5,2) COMMENT '磁盘最高使用率最大值',
+    disk_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率合计，均值=合计/计数',
+    disk_count INT NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率有效样本数',
+
+    network_up_min DECIMAL(10,2) COMMENT '网络上行速率最小值',
+    network_up_max DECIMAL(10,2) COMMENT '网络上行速率最大值',
+    network_up_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络上行速率合计，均值=合计/计数',
+    network_up_count INT NOT NULL DEFAULT 0 COMMENT '网络上行速率有效样本数',
+
+    network_down_min DECIMAL(10,2) COMMENT '网络下行速率最小值',
+    network_down_max DECIMAL(10,2) COMMENT '网络下行速率最大值',
+    network_down_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络下行速率合计，均值=合计/计数',
+    network_down_count INT NOT NULL DEFAULT 0 COMMENT '网络下行速率有效样本数',
+
+    PRIMARY KEY (agent_id, bucket_time),
+    INDEX idx_bucket_time (bucket_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent监控数据5分钟汇总表';
+
+DROP TABLE IF EXISTS `agent_metrics_1h`;
+CREATE TABLE agent_metrics_1h (
+    agent_id VARCHAR(64) NOT NULL COMMENT 'Agent ID',
+    bucket_time TIMESTAMP NOT NULL COMMENT '时间桶起点',
+    sample_count INT NOT NULL DEFAULT 0 COMMENT '原始样本数',
+
+    cpu_min DECIMAL(5,2) COMMENT 'CPU使用率最小值',
+    cpu_max DECIMAL(5,2) COMMENT 'CPU使用率最大值',
+    cpu_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT 'CPU使用率合计，均值=合计/计数',
+    cpu_count INT NOT NULL DEFAULT 0 COMMENT 'CPU使用率有效样本数',
+
+    memory_min DECIMAL(5,2) COMMENT '内存使用率最小值',
+    memory_max DECIMAL(5,2) COMMENT '内存使用率最大值',
+    memory_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '内存使用率合计，均值=合计/计数',
+    memory_count INT NOT NULL DEFAULT 0 COMMENT '内存使用率有效样本数',
+
+    disk_min DECIMAL(5,2) COMMENT '磁盘最高使用率最小值',
+    disk_max DECIMAL(5,2) COMMENT '磁盘最高使用率最大值',
+    disk_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率合计，均值=合计/计数',
+    disk_count INT NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率有效样本数',
+
+    network_up_min DECIMAL(10,2) COMMENT '网络上行速率最小值',
+    network_up_max DECIMAL(10,2) COMMENT '网络上行速率最大值',
+    network_up_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络上行速率合计，均值=合计/计数',
+    network_up_count INT NOT NULL DEFAULT 0 COMMENT '网络上行速率有效样本数',
+
+    network_down_min DECIMAL(10,2) COMMENT '网络下行速率最小值',
+    network_down_max DECIMAL(10,2) COMMENT '网络下行速率最大值',
+    network_down_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络下行速率合计，均值=合计/计数',
+    network_down_count INT NOT NULL DEFAULT 0 COMMENT '网络下行速率有效样本数',
+
+    PRIMARY KEY (agent_id, bucket_time),
+    INDEX idx_bucket_time (bucket_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent监控数据1小时汇总表';
+
+DROP TABLE IF EXISTS `agent_metrics_1d`;
+CREATE TABLE agent_metrics_1d (
+    agent_id VARCHAR(64) NOT NULL COMMENT 'Agent ID',
+    bucket_time TIMESTAMP NOT NULL COMMENT '时间桶起点',
+    sample_count INT NOT NULL DEFAULT 0 COMMENT '原始样本数',
+
+    cpu_min DECIMAL(5,2) COMMENT 'CPU使用率最小值',
+    cpu_max DECIMAL(5,2) COMMENT 'CPU使用率最大值',
+    cpu_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT 'CPU使用率合计，均值=合计/计数',
+    cpu_count INT NOT NULL DEFAULT 0 COMMENT 'CPU使用率有效样本数',
+
+    memory_min DECIMAL(5,2) COMMENT '内存使用率最小值',
+    memory_max DECIMAL(5,2) COMMENT '内存使用率最大值',
+    memory_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '内存使用率合计，均值=合计/计数',
+    memory_count INT NOT NULL DEFAULT 0 COMMENT '内存使用率有效样本数',
+
+    disk_min DECIMAL(5,2) COMMENT '磁盘最高使用率最小值',
+    disk_max DECIMAL(5,2) COMMENT '磁盘最高使用率最大值',
+    disk_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率合计，均值=合计/计数',
+    disk_count INT NOT NULL DEFAULT 0 COMMENT '磁盘最高使用率有效样本数',
+
+    network_up_min DECIMAL(10,2) COMMENT '网络上行速率最小值',
+    network_up_max DECIMAL(10,2) COMMENT '网络上行速率最大值',
+    network_up_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络上行速率合计，均值=合计/计数',
+    network_up_count INT NOT NULL DEFAULT 0 COMMENT '网络上行速率有效样本数',
+
+    network_down_min DECIMAL(10,2) COMMENT '网络下行速率最小值',
+    network_down_max DECIMAL(10,2) COMMENT '网络下行速率最大值',
+    network_down_sum DECIMAL(16,2) NOT NULL DEFAULT 0 COMMENT '网络下行速率合计，均值=合计/计数',
+    network_down_count INT NOT NULL DEFAULT 0 COMMENT '网络下行速率有效样本数',
+
+    PRIMARY KEY (agent_id, bucket_time),
+    INDEX idx_bucket_time (bucket_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent监控数据1天汇总表';
+
+DROP TABLE IF EXISTS `metrics_rollup_state`;
+CREATE TABLE metrics_rollup_state (
+    name VARCHAR(32) PRIMARY KEY COMMENT '汇总任务名称',
+    rolled_id BIGINT NOT NULL DEFAULT 0 COMMENT '已汇总的原始数据最大ID',
+    seen_id BIGINT NOT NULL DEFAULT 0 COMMENT '上次汇总时原始数据的最大ID，本次汇总不超过该ID',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='监控数据汇总进度表';
+
+INSERT INTO metrics_rollup_state (name) VALUES ('agent_metrics');
 
 -- ==================== SSH凭证表 ====================
 DROP TABLE IF EXISTS `ssh_credential`;
@@ -0,0 +1,174 @@
+package com.hundred.monitor.server.ingest;
+
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new MetricsRingBuffer(8).getCapacity());
+        assertEquals(16, new MetricsRingBuffer(9).getCapacity());
+    }
+
+    @Test
+    void drainsInOfferOrder() {
+        MetricsRingBuffer ring = new MetricsRingBuffer(8);
+        List<MetricsReportRequest> first = samples("a", 0, 3);
+        List<MetricsReportRequest> second = samples("b", 0, 2);
+        assertTrue(ring.offer(first));
+        assertTrue(ring.offer(second));
+
+        List<MetricsReportRequest> out = new ArrayList<>();
+        assertEquals(4, ring.drainTo(out, 4));
+        assertEquals(1, ring.drainTo(out, 10));
+        assertEquals(0, ring.drainTo(out, 10));
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(first.get(i), out.get(i));
+        }
+        assertSame(second.get(0), out.get(3));
+        assertSame(second.get(1), out.get(4));
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void rejectsWholeGroupWhenFull() {
+        MetricsRingBuffer ring = new MetricsRingBuffer(4);
+        assertTrue(ring.offer(samples("a", 0, 3)));
+        assertFalse(ring.offer(samples("b", 0, 2)));
+        assertEquals(3, ring.getOccupancy());
+        assertEquals(2, ring.getRejected());
+
+        // 释放槽位后可以继续写入，序号回绕到数组开头
+        ring.drainTo(new ArrayList<>(), 2);
+        assertTrue(ring.offer(samples("b", 0, 3)));
+        assertEquals(4, ring.getOccupancy());
+        assertEquals(4, ring.getMaxOccupancy());
+    }
+
+    @Test
+    void drainsCallbacksAlignedWithSamples() {
+        MetricsRingBuffer ring = new MetricsRingBuffer(8);
+        List<Boolean> results = new ArrayList<>();
+        IngestCallback callback = new IngestCallback(2, results::add);
+        assertTrue(ring.offer(samples("a", 0, 1)));
+        assertTrue(ring.offer(samples("b", 0, 2), callback));
+
+        List<MetricsReportRequest> out = new ArrayList<>();
+        List<IngestCallback> callbacks = new ArrayList<>();
+        assertEquals(3, ring.drainTo(out, callbacks, 10));
+
+        assertEquals(3, callbacks.size());
+        assertNull(callbacks.get(0));
+        assertSame(callback, callbacks.get(1));
+        assertSame(callback, callbacks.get(2));
+
+        // 组内全部数据处理完才通知，任意一条失败即整组失败
+        assertFalse(callback.complete(false));
+        assertTrue(results.isEmpty());
+        assertTrue(callback.complete(true));
+        assertEquals(List.of(false), results);
+    }
+
+    @Test
+    void concurrentProducersSingleConsumer() throws Exception {
+        int producers = 8;
+        int groupsPerProducer = 5_000;
+        int groupSize = 3;
+        MetricsRingBuffer ring = new MetricsRingBuffer(64);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String agentId = "agent-" + p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int g = 0; g < groupsPerProducer; g++) {
+                    List<MetricsReportRequest> group = samples(agentId, g * groupSize, groupSize);
+                    // 缓冲区满时重试，模拟客户端收到429后重新上报
+                    while (!ring.offer(group)) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return null;
+                        }
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // 每个生产者的数据按序号连续，且同一组的数据不会被其他生产者的数据插入
+        int[] nextSeq = new int[producers];
+        int total = producers * groupsPerProducer * groupSize;
+        int received = 0;
+        int previousProducer = -1;
+        List<MetricsReportRequest> out = new ArrayList<>();
+        try {
+            start.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (received < total) {
+                assertTrue(System.nanoTime() < deadline, "drain timed out at " + received);
+                out.clear();
+                if (ring.drainTo(out, 50) == 0) {
+                    Thread.yield();
+                }
+                for (int i = 0; i < out.size(); i++) {
+                    MetricsReportRequest sample = out.get(i);
+                    int producer = Integer.parseInt(sample.getAgentId().substring("agent-".length()));
+                    int seq = Integer.parseInt(sample.getTimestamp());
+                    assertEquals(nextSeq[producer], seq, "out of order for " + sample.getAgentId());
+                    if (seq % groupSize != 0) {
+                        assertEquals(previousProducer, producer, "group interleaved at " + received);
+                    }
+                    nextSeq[producer]++;
+                    previousProducer = producer;
+                }
+                received += out.size();
+            }
+
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int p = 0; p < producers; p++) {
+            assertEquals(groupsPerProducer * groupSize, nextSeq[p]);
+        }
+        assertTrue(ring.isEmpty());
+        assertEquals(total, ring.getOffered());
+        assertEquals(total, ring.getDrained());
+        assertTrue(ring.getMaxOccupancy() <= ring.getCapacity());
+    }
+
+    /**
+     * 以时间戳字段保存序号，便于校验顺序
+     */
+    private static List<MetricsReportRequest> samples(String agentId, int firstSeq, int count) {
+        List<MetricsReportRequest> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MetricsReportRequest request = new MetricsReportRequest();
+            request.setAgentId(agentId);
+            request.setTimestamp(Integer.toString(firstSeq + i));
+            result.add(request);
+        }
+        return result;
+    }
+}
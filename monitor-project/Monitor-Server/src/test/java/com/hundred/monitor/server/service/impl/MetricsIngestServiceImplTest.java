@@ -0,0 +1,238 @@
+package com.hundred.monitor.server.service.impl;
+
+import com.hundred.monitor.commonlibrary.model.Metrics;
+import com.hundred.monitor.commonlibrary.request.MetricsReportRequest;
+import com.hundred.monitor.server.service.AgentMetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsIngestServiceImplTest {
+
+    private final RecordingMetricsService store = new RecordingMetricsService();
+
+    private MetricsIngestServiceImpl ingest;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.release.countDown();
+        if (ingest != null) {
+            ingest.stop();
+        }
+    }
+
+    @Test
+    void writesOfferedSamplesInBatches() throws Exception {
+        start(64, 2);
+        List<MetricsReportRequest> samples = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            samples.add(sample("agent-1", i));
+        }
+        for (MetricsReportRequest sample : samples) {
+            assertTrue(ingest.offer(List.of(sample)));
+        }
+
+        List<MetricsReportRequest> written = store.awaitWritten(5);
+
+        assertEquals(samples, written);
+        for (int size : store.batchSizes()) {
+            assertTrue(size <= 2, "batch larger than batch-size: " + size);
+        }
+        ingest.stop();
+        assertEquals(5L, ingest.getStats().getWritten());
+    }
+
+    @Test
+    void coalescesDuplicatesWithinFlushWindow() throws Exception {
+        start(64, 500);
+        MetricsReportRequest first = sample("agent-1", 0);
+        MetricsReportRequest retried = sample("agent-1", 0);
+        MetricsReportRequest other = sample("agent-2", 0);
+
+        assertTrue(ingest.offer(List.of(first, other, retried)));
+
+        List<MetricsReportRequest> written = store.awaitWritten(2);
+        assertEquals(2, written.size());
+        assertSame(retried, written.get(0));
+        assertSame(other, written.get(1));
+        assertEquals(1L, ingest.getStats().getCoalesced());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFullWhileWriterIsBlocked() throws Exception {
+        start(4, 1);
+        store.block();
+
+        // 第一条被写入线程取出后阻塞在入库，之后的数据留在缓冲区
+        assertTrue(ingest.offer(List.of(sample("agent-1", 0))));
+        assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+        int accepted = 0;
+        while (ingest.offer(List.of(sample("agent-1", accepted + 1)))) {
+            accepted++;
+            assertTrue(accepted <= 4, "queue accepted more than its capacity");
+        }
+
+        assertEquals(4, accepted);
+        assertEquals(1L, ingest.getStats().getRejected());
+
+        // 入库恢复后缓冲区排空，可以继续接收
+        store.release.countDown();
+        store.awaitWritten(5);
+        assertTrue(ingest.offer(List.of(sample("agent-1", 100))));
+        store.awaitWritten(6);
+    }
+
+    @Test
+    void notifiesListenerAfterGroupIsWritten() throws Exception {
+        start(64, 2);
+        List<Boolean> results = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        List<MetricsReportRequest> group = List.of(sample("agent-1", 0), sample("agent-1", 1), sample("agent-1", 2));
+
+        // 一组数据跨两个批次写入，最后一批写入后才回调
+        assertTrue(ingest.offer(group, success -> {
+            results.add(success);
+            results.add(store.written().size() == 3);
+            done.countDown();
+        }));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true, true), results);
+    }
+
+    @Test
+    void notifiesListenerWhenWriteFails() throws Exception {
+        start(64, 500);
+        store.fail();
+        List<Boolean> results = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        assertTrue(ingest.offer(List.of(sample("agent-1", 0)), success -> {
+            results.add(success);
+            done.countDown();
+        }));
+
+        // 重试耗尽（约3秒）后回调失败
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(false), results);
+    }
+
+    @Test
+    void stopFlushesPendingSamples() throws Exception {
+        start(64, 500);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ingest.offer(List.of(sample("agent-" + i, i))));
+        }
+
+        ingest.stop();
+
+        assertEquals(10, store.written().size());
+    }
+
+    @Test
+    void skipsSamplesWithoutMetrics() throws Exception {
+        start(64, 500);
+        MetricsReportRequest empty = sample("agent-1", 0);
+        empty.setMetrics(null);
+        MetricsReportRequest valid = sample("agent-1", 1);
+
+        assertTrue(ingest.offer(List.of(empty, valid)));
+
+        assertEquals(List.of(valid), store.awaitWritten(1));
+        ingest.stop();
+        assertEquals(1, store.written().size());
+    }
+
+    private void start(int capacity, int batchSize) {
+        ingest = new MetricsIngestServiceImpl();
+        ReflectionTestUtils.setField(ingest, "agentMetricsService", store);
+        ReflectionTestUtils.setField(ingest, "mode", "memory");
+        ReflectionTestUtils.setField(ingest, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(ingest, "batchSize", batchSize);
+        ReflectionTestUtils.setField(ingest, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(ingest, "retryAfterSec", 5);
+        ingest.start();
+    }
+
+    private static MetricsReportRequest sample(String agentId, int second) {
+        MetricsReportRequest request = new MetricsReportRequest();
+        request.setAgentId(agentId);
+        request.setTimestamp(String.format("2024-05-01T08:00:%02dZ", second % 60));
+        request.setMetrics(new Metrics());
+        return request;
+    }
+
+    /**
+     * 记录批量写入内容，可阻塞写入线程以模拟数据库变慢
+     */
+    private static final class RecordingMetricsService implements AgentMetricsService {
+
+        private final List<MetricsReportRequest> written = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blocking;
+        private volatile boolean failing;
+
+        void block() {
+            blocking = true;
+        }
+
+        void fail() {
+            failing = true;
+        }
+
+        @Override
+        public void saveMetrics(MetricsReportRequest request) {
+            saveMetricsBatch(List.of(request));
+        }
+
+        @Override
+        public void saveMetricsBatch(List<MetricsReportRequest> requests) {
+            if (failing) {
+                throw new IllegalStateException("database unavailable");
+            }
+            if (blocking) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                written.addAll(requests);
+                batchSizes.add(requests.size());
+                notifyAll();
+            }
+        }
+
+        synchronized List<MetricsReportRequest> written() {
+            return new ArrayList<>(written);
+        }
+
+        synchronized List<Integer> batchSizes() {
+            return new ArrayList<>(batchSizes);
+        }
+
+        synchronized List<MetricsReportRequest> awaitWritten(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (written.size() < count) {
+                long remaining = deadline - System.currentTimeMillis();
+                assertFalse(remaining <= 0, "only " + written.size() + " of " + count + " samples written");
+                wait(remaining);
+            }
+            return new ArrayList<>(written);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.hundred.monitor.server.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownsamplerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @Test
+    void returnsAllBucketsWithDataWhenUnderThreshold() {
+        MetricBuckets buckets = buckets(1, Double.NaN, 3, 4, Double.NaN);
+
+        assertArrayEquals(new int[]{0, 2, 3}, Downsampler.lttb(buckets, 3));
+        assertArrayEquals(new int[]{0, 2, 3}, Downsampler.lttb(buckets, 100));
+    }
+
+    @Test
+    void thresholdBelowThreeReturnsAllBuckets() {
+        MetricBuckets buckets = buckets(1, 2, 3, 4, 5);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Downsampler.lttb(buckets, 2));
+    }
+
+    @Test
+    void picksLargestTriangleInEachGroup() {
+        MetricBuckets buckets = buckets(0, 0, 10, 0, 0);
+
+        // 首尾固定，中间三个点为一组，峰值点构成的三角形面积最大
+        assertArrayEquals(new int[]{0, 2, 4}, Downsampler.lttb(buckets, 3));
+    }
+
+    @Test
+    void keepsFirstLastAndRequestedCount() {
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 50 + 40 * Math.sin(i / 30.0);
+        }
+        MetricBuckets buckets = buckets(values);
+
+        int[] selected = Downsampler.lttb(buckets, 100);
+
+        assertEquals(100, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(999, selected[99]);
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1], "indices must be strictly increasing");
+        }
+    }
+
+    @Test
+    void keepsIsolatedSpikes() {
+        double[] values = new double[2000];
+        Arrays.fill(values, 10);
+        values[777] = 95;
+        values[1500] = 0;
+        MetricBuckets buckets = buckets(values);
+
+        int[] selected = Downsampler.lttb(buckets, 50);
+
+        assertTrue(Arrays.stream(selected).anyMatch(i -> i == 777), "peak dropped");
+        assertTrue(Arrays.stream(selected).anyMatch(i -> i == 1500), "dip dropped");
+    }
+
+    @Test
+    void skipsEmptyBuckets() {
+        double[] values = new double[500];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? Double.NaN : i % 17;
+        }
+        MetricBuckets buckets = buckets(values);
+
+        int[] selected = Downsampler.lttb(buckets, 40);
+
+        assertEquals(40, selected.length);
+        for (int i : selected) {
+            assertTrue(buckets.hasData(i), "selected empty bucket " + i);
+        }
+        assertEquals(1, selected[0]);
+        assertEquals(499, selected[39]);
+    }
+
+    @Test
+    void minMaxEnvelopeKeepsSpikesThatAveragingHides() {
+        // 按5分钟聚合1分钟数据：均值抹平尖峰，最小值/最大值保留
+        MetricBuckets buckets = new MetricBuckets(START, START.plusMinutes(9), 300);
+        double[] values = {10, 10, 98, 10, 10, 20, 20, 20, 1, 20};
+        for (int i = 0; i < values.length; i++) {
+            buckets.add(MetricBuckets.toEpochMillis(START.plusMinutes(i)), values[i]);
+        }
+
+        assertEquals(2, buckets.size());
+        assertEquals(27.6, buckets.getAverage(0), 1e-9);
+        assertEquals(98.0, buckets.getMax(0));
+        assertEquals(10.0, buckets.getMin(0));
+        assertEquals(16.2, buckets.getAverage(1), 1e-9);
+        assertEquals(1.0, buckets.getMin(1));
+        assertEquals(20.0, buckets.getMax(1));
+    }
+
+    /**
+     * 每分钟一个时间桶，NaN表示该时间桶没有数据
+     */
+    private static MetricBuckets buckets(double... values) {
+        MetricBuckets buckets = new MetricBuckets(START, START.plusMinutes(values.length - 1), 60);
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                buckets.add(MetricBuckets.toEpochMillis(START.plusMinutes(i)), values[i]);
+            }
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,128 @@
+package com.hundred.monitor.server.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricBucketsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0, 0);
+
+    @Test
+    void bucketsCoverStartToEndAlignedToInterval() {
+        MetricBuckets buckets = new MetricBuckets(START.plusSeconds(20), START.plusMinutes(5).plusSeconds(10), 60);
+
+        // 10:00 ~ 10:05，共6个时间桶，起点按整分钟对齐
+        assertEquals(6, buckets.size());
+        assertEquals(millis(START), buckets.getBucketStart(0));
+        assertEquals(millis(START.plusMinutes(5)), buckets.getBucketStart(5));
+        assertEquals(60, buckets.getIntervalSeconds());
+    }
+
+    @Test
+    void aggregatesSamplesPerBucket() {
+        MetricBuckets buckets = new MetricBuckets(START, START.plusMinutes(3), 60);
+        buckets.add(millis(START.plusSeconds(5)), 10);
+        buckets.add(millis(START.plusSeconds(35)), 30);
+        buckets.add(millis(START.plusSeconds(59)), 20);
+        buckets.add(millis(START.plusMinutes(2)), 50);
+
+        assertTrue(buckets.hasData(0));
+        assertEquals(3, buckets.getCount(0));
+        assertEquals(20.0, buckets.getAverage(0), 1e-9);
+        assertEquals(10.0, buckets.getMin(0));
+        assertEquals(30.0, buckets.getMax(0));
+
+        assertFalse(buckets.hasData(1));
+        assertEquals(0, buckets.getCount(1));
+
+        assertEquals(1, buckets.getCount(2));
+        assertEquals(50.0, buckets.getAverage(2), 1e-9);
+        assertFalse(buckets.hasData(3));
+    }
+
+    @Test
+    void mergesPreAggregatedRows() {
+        MetricBuckets buckets = new MetricBuckets(START, START.plusMinutes(4), 300);
+        // 5分钟时间桶合并多个1分钟汇总行
+        buckets.add(START, 100, 4, 10, 40);
+        buckets.add(START.plusMinutes(1), 60, 2, 5, 55);
+        buckets.add(millis(START.plusMinutes(2)), 45);
+
+        assertEquals(1, buckets.size());
+        assertEquals(7, buckets.getCount(0));
+        assertEquals(205.0 / 7, buckets.getAverage(0), 1e-9);
+        assertEquals(5.0, buckets.getMin(0));
+        assertEquals(55.0, buckets.getMax(0));
+    }
+
+    @Test
+    void ignoresSamplesOutsideRange() {
+        MetricBuckets buckets = new MetricBuckets(START, START.plusMinutes(1), 60);
+        buckets.add(millis(START.minusSeconds(1)), 99);
+        buckets.add(millis(START.plusMinutes(2)), 99);
+
+        assertEquals(2, buckets.size());
+        assertFalse(buckets.hasData(0));
+        assertFalse(buckets.hasData(1));
+    }
+
+    /**
+     * 跨夏令时切换（部分时区在3月31日）时天级时间桶仍按本地日期对齐
+     */
+    @Test
+    void dayBucketsAlignToLocalDate() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 30, 13, 0);
+        MetricBuckets buckets = new MetricBuckets(start, start.plusDays(2), 86400);
+        buckets.add(millis(LocalDateTime.of(2024, 3, 30, 23, 59, 59)), 10);
+        buckets.add(millis(LocalDateTime.of(2024, 3, 31, 0, 0)), 20);
+        buckets.add(millis(LocalDateTime.of(2024, 4, 1, 12, 0)), 30);
+
+        assertEquals(3, buckets.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(millis(start.toLocalDate().plusDays(i).atStartOfDay()), buckets.getBucketStart(i));
+        }
+        assertEquals(10.0, buckets.getAverage(0), 1e-9);
+        assertEquals(20.0, buckets.getAverage(1), 1e-9);
+        assertEquals(30.0, buckets.getAverage(2), 1e-9);
+    }
+
+    @Test
+    void multiDayBuckets() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 8, 0);
+        MetricBuckets buckets = new MetricBuckets(start, start.plusDays(6), 2 * 86400);
+        buckets.add(millis(start.plusDays(1)), 10);
+        buckets.add(millis(start.plusDays(2)), 20);
+        buckets.add(millis(start.plusDays(6)), 40);
+
+        assertEquals(4, buckets.size());
+        assertEquals(millis(LocalDate.of(2024, 5, 3).atStartOfDay()), buckets.getBucketStart(1));
+        assertEquals(1, buckets.getCount(0));
+        assertEquals(1, buckets.getCount(1));
+        assertFalse(buckets.hasData(2));
+        assertEquals(40.0, buckets.getAverage(3), 1e-9);
+    }
+
+    @Test
+    void endBeforeStartIsEmpty() {
+        MetricBuckets buckets = new MetricBuckets(START, START.minusMinutes(5), 60);
+        buckets.add(millis(START), 1);
+
+        assertEquals(0, buckets.size());
+    }
+
+    @Test
+    void rejectsInvalidInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new MetricBuckets(START, START.plusMinutes(1), 0));
+    }
+
+    private static long millis(LocalDateTime time) {
+        return MetricBuckets.toEpochMillis(time);
+    }
+}
@@ -0,0 +1,185 @@
+package com.hundred.monitor.server.store.tsdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GorillaCodecTest {
+
+    @Test
+    void bitsRoundTripAcrossByteBoundaries() {
+        int[] widths = {1, 3, 7, 8, 9, 13, 31, 32, 33, 63, 64};
+        long[] values = new long[widths.length * 4];
+        Random random = new Random(42);
+        BitWriter writer = new BitWriter(1);
+        for (int i = 0; i < values.length; i++) {
+            int width = widths[i % widths.length];
+            long value = random.nextLong();
+            values[i] = width == 64 ? value : value & ((1L << width) - 1);
+            writer.writeBits(value, width);
+        }
+        writer.writeBit(true);
+
+        BitReader reader = new BitReader(ByteBuffer.wrap(writer.toByteArray()), 0);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], reader.readBits(widths[i % widths.length]), "value " + i);
+        }
+        assertTrue(reader.readBit());
+    }
+
+    @Test
+    void readerStartsAtOffset() {
+        BitWriter writer = new BitWriter(16);
+        writer.writeBits(0b101, 3);
+        writer.writeBits(-1L, 64);
+        byte[] bits = writer.toByteArray();
+        assertEquals(9, writer.byteLength());
+
+        byte[] framed = new byte[bits.length + 5];
+        System.arraycopy(bits, 0, framed, 5, bits.length);
+        ByteBuffer buffer = ByteBuffer.wrap(framed);
+        BitReader reader = new BitReader(buffer, 5);
+
+        assertEquals(0b101, reader.readBits(3));
+        assertEquals(-1L, reader.readBits(64));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void timestampsRoundTrip() {
+        long start = 1_714_550_400_000L;
+        long[] timestamps = {
+                start,
+                start + 15_000,
+                start + 30_000,
+                // 小抖动
+                start + 45_010,
+                start + 59_990,
+                // 各档二阶差分
+                start + 75_200,
+                start + 91_500,
+                start + 120_000,
+                // 长时间中断与时钟回拨
+                start + 86_400_000,
+                start + 86_399_000,
+                start + 86_414_000
+        };
+
+        assertArrayEquals(timestamps, roundTripTimestamps(timestamps));
+    }
+
+    @Test
+    void timestampsRoundTripRandomIntervals() {
+        Random random = new Random(7);
+        long[] timestamps = new long[1000];
+        timestamps[0] = System.currentTimeMillis();
+        for (int i = 1; i < timestamps.length; i++) {
+            // 以15秒为主，随机混入各档抖动与大间隔
+            long jitter = switch (random.nextInt(5)) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(128) - 64;
+                case 2 -> random.nextInt(512) - 256;
+                case 3 -> random.nextInt(4096) - 2048;
+                default -> random.nextInt(10_000_000) - 5_000_000;
+            };
+            timestamps[i] = timestamps[i - 1] + 15_000 + jitter;
+        }
+
+        assertArrayEquals(timestamps, roundTripTimestamps(timestamps));
+    }
+
+    @Test
+    void regularTimestampsTakeOneBitPerPoint() {
+        long[] timestamps = new long[241];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = 1_714_550_400_000L + i * 15_000L;
+        }
+        BitWriter writer = new BitWriter(64);
+        GorillaCodec.encodeTimestamps(timestamps, timestamps.length, writer);
+
+        // 首个时间戳64位，第二个点的差分超出12位，占4位前缀+64位，之后每点1位
+        assertEquals((64 + 68 + 239 + 7) / 8, writer.byteLength());
+    }
+
+    @Test
+    void valuesRoundTrip() {
+        double[] values = {
+                42.5, 42.5, 42.5, 43.0, 12.25, 12.25, 0.0, -0.0, -17.75,
+                Double.NaN, Double.NaN, 99.99, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, Double.MAX_VALUE, 1e-300, 63.33
+        };
+
+        assertBitsEqual(values, roundTripValues(values));
+    }
+
+    @Test
+    void valuesRoundTripRandom() {
+        Random random = new Random(11);
+        double[] values = new double[2000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = switch (random.nextInt(4)) {
+                case 0 -> i > 0 ? values[i - 1] : 0;
+                case 1 -> Math.round(random.nextDouble() * 10000) / 100.0;
+                case 2 -> Double.longBitsToDouble(random.nextLong());
+                default -> Double.NaN;
+            };
+        }
+
+        assertBitsEqual(values, roundTripValues(values));
+    }
+
+    @Test
+    void singlePoint() {
+        assertArrayEquals(new long[]{123L}, roundTripTimestamps(new long[]{123L}));
+        assertBitsEqual(new double[]{Double.NaN}, roundTripValues(new double[]{Double.NaN}));
+    }
+
+    @Test
+    void columnsShareOneStream() {
+        long[] timestamps = {1000, 16_000, 31_000, 46_500};
+        double[] values = {10.0, 10.5, Double.NaN, 11.0};
+        BitWriter writer = new BitWriter(16);
+        GorillaCodec.encodeTimestamps(timestamps, timestamps.length, writer);
+        GorillaCodec.encodeValues(values, values.length, writer);
+
+        BitReader reader = new BitReader(ByteBuffer.wrap(writer.toByteArray()), 0);
+        long[] decodedTimestamps = new long[timestamps.length];
+        double[] decodedValues = new double[values.length];
+        GorillaCodec.decodeTimestamps(reader, timestamps.length, decodedTimestamps);
+        GorillaCodec.decodeValues(reader, values.length, decodedValues);
+
+        assertArrayEquals(timestamps, decodedTimestamps);
+        assertBitsEqual(values, decodedValues);
+    }
+
+    private static long[] roundTripTimestamps(long[] timestamps) {
+        BitWriter writer = new BitWriter(16);
+        GorillaCodec.encodeTimestamps(timestamps, timestamps.length, writer);
+        long[] decoded = new long[timestamps.length];
+        GorillaCodec.decodeTimestamps(new BitReader(ByteBuffer.wrap(writer.toByteArray()), 0), timestamps.length, decoded);
+        return decoded;
+    }
+
+    private static double[] roundTripValues(double[] values) {
+        BitWriter writer = new BitWriter(16);
+        GorillaCodec.encodeValues(values, values.length, writer);
+        double[] decoded = new double[values.length];
+        GorillaCodec.decodeValues(new BitReader(ByteBuffer.wrap(writer.toByteArray()), 0), values.length, decoded);
+        return decoded;
+    }
+
+    /**
+     * 按位比较，区分0.0与-0.0，NaN的位模式也需一致
+     */
+    private static void assertBitsEqual(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]), "value " + i);
+        }
+    }
+}
@@ -85,6 +85,28 @@ export function getLatestMetrics(agentId: string): Promise<AgentMetrics> {
   return request.get<AgentMetrics>(`/monitor/${agentId}/metrics/latest`)
 }
 
+/**
+ * 全部主机最新监控指标响应
+ */
+export interface FleetMetricsResponse {
+  cursor: number
+  total: number
+  metrics: AgentMetrics[]
+}
+
+/**
+ * 批量获取全部主机最新监控指标
+ * 传入上次返回的cursor时只返回之后有数据变化的主机
+ */
+export function getFleetLatestMetrics(params: {
+  since?: number
+  agentIds?: string
+  page?: number
+  size?: number
+} = {}): Promise<FleetMetricsResponse> {
+  return request.get<FleetMetricsResponse>('/monitor/metrics/latest', { params })
+}
+
 /**
  * 获取主机历史监控指标
  */
@@ -92,9 +114,31 @@ export function getMetricsHistory(
   agentId: string,
   metricType: MetricType,
   timeRange: TimeRange,
+  options: { points?: number; mode?: 'avg' | 'lttb' | 'minmax'; mount?: string } = {},
 ): Promise<MetricsHistoryResponse> {
   return request.get<MetricsHistoryResponse>(`/monitor/${agentId}/metrics/history`, {
-    params: { metricType, timeRange },
+    params: { metricType, timeRange, ...options },
+  })
+}
+
+/**
+ * 多主机、多指标历史数据响应：Agent ID -> 指标类型 -> 历史数据
+ */
+export interface MetricsBatchHistoryResponse {
+  series: Record<string, Record<string, MetricsHistoryResponse>>
+}
+
+/**
+ * 批量获取多台主机的多个历史监控指标
+ */
+export function getMetricsHistoryBatch(
+  agentIds: string[],
+  metricTypes: MetricType[],
+  timeRange: TimeRange,
+  options: { points?: number; mode?: 'avg' | 'lttb' | 'minmax' } = {},
+): Promise<MetricsBatchHistoryResponse> {
+  return request.get<MetricsBatchHistoryResponse>('/monitor/metrics/history', {
+    params: { agentIds: agentIds.join(','), metricTypes: metricTypes.join(','), timeRange, ...options },
   })
 }
 
@@ -91,6 +91,8 @@ export type MetricType = 'cpu' | 'memory' | 'disk'
 export interface MetricsHistoryResponse {
   timestamps: string[]
   values: number[]
+  minValues?: number[]
+  maxValues?: number[]
   interval: string
 }
 